@@ -20,8 +20,10 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.material.Material;
 import net.minecraft.client.util.ITooltipFlag;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.world.IBlockReader;
+import net.minecraft.world.World;
 import net.minecraftforge.common.ToolType;
 
 import javax.annotation.Nullable;
@@ -38,6 +40,17 @@ public class BlockEnhancer extends ResynthBlock<BlockEnhancer>{
      */
     private static final String BLOCK_NAME = "enhancer";
 
+    /**
+     * The highest enhancer tier. Tier {@code 0} is
+     * no enhancer.
+     */
+    public static final int MAX_TIER = 2;
+
+    /**
+     * Every enhancer block, indexed by tier.
+     */
+    private static final BlockEnhancer[] BY_TIER = new BlockEnhancer[MAX_TIER + 1];
+
     /**
      * The amount to increase the Mineral Soil content
      * by.
@@ -56,12 +69,14 @@ public class BlockEnhancer extends ResynthBlock<BlockEnhancer>{
      * @param name the name of the enhancer block.
      * @param increase The amount to increase the Mineral Soil content by
      * @param stageIncrease The number of stages to increase the Mineral Soil block growth stage by.
+     *                      Also the tier of the enhancer (1 - {@link #MAX_TIER}).
      */
     BlockEnhancer(String name, float increase, int stageIncrease) {
         super(Block.Properties.create(Material.ROCK).hardnessAndResistance(2), name + "_" + BLOCK_NAME);
 
         this.increase = increase;
         this.stageIncrease = stageIncrease;
+        BY_TIER[stageIncrease] = this;
     }
 
     /**
@@ -84,6 +99,34 @@ public class BlockEnhancer extends ResynthBlock<BlockEnhancer>{
         return ToolType.PICKAXE;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Updates the Mineral Soil block on top, if any.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onBlockAdded(BlockState state, World worldIn, BlockPos pos, BlockState oldState, boolean isMoving) {
+        super.onBlockAdded(state, worldIn, pos, oldState, isMoving);
+
+        if(!worldIn.isRemote && oldState.getBlock() != this)
+            BlockMineralSoil.onEnhancerChanged(worldIn, pos.up());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Updates the Mineral Soil block on top, if any.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onReplaced(BlockState state, World worldIn, BlockPos pos, BlockState newState, boolean isMoving) {
+        super.onReplaced(state, worldIn, pos, newState, isMoving);
+
+        if(!worldIn.isRemote && newState.getBlock() != this)
+            BlockMineralSoil.onEnhancerChanged(worldIn, pos.up());
+    }
+
     /**
      * @return the amount to increase the Mineral Soil content
      * by.
@@ -93,10 +136,51 @@ public class BlockEnhancer extends ResynthBlock<BlockEnhancer>{
     }
 
     /**
-     * @return the number of stages to increase the
-     * Mineral Soil block growth stage by.
+     * @return the tier of the enhancer (1 - {@link #MAX_TIER}).
      */
-    int getStageIncrease() {
+    public int getTier() {
         return stageIncrease;
     }
+
+    // ******
+    // Static
+    // ******
+
+    /**
+     * @param tier the enhancer tier (0 - {@link #MAX_TIER}).
+     * @return the amount the enhancer of the given tier
+     * increases the Mineral Soil content by. {@code 0}
+     * for tier 0 (no enhancer).
+     */
+    public static float getIncrease(int tier) {
+        if(tier <= 0 || tier > MAX_TIER || BY_TIER[tier] == null)
+            return 0;
+
+        return BY_TIER[tier].increase;
+    }
+
+    /**
+     * @param tier the enhancer tier (0 - {@link #MAX_TIER}).
+     * @return the number of stages the enhancer of the given
+     * tier increases the Mineral Soil block growth stage by.
+     * {@code 0} for tier 0 (no enhancer).
+     */
+    public static int getStageIncrease(int tier) {
+        if(tier <= 0 || tier > MAX_TIER || BY_TIER[tier] == null)
+            return 0;
+
+        return BY_TIER[tier].stageIncrease;
+    }
+
+    /**
+     * @param state the state of a block.
+     * @return the tier of the given block if it's an
+     * enhancer, {@code 0} otherwise.
+     */
+    public static int getTier(BlockState state) {
+        if(state.getBlock() instanceof BlockEnhancer)
+            return ((BlockEnhancer) state.getBlock()).getTier();
+
+        return 0;
+    }
 }
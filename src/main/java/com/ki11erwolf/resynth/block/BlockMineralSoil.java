@@ -15,13 +15,17 @@
  */
 package com.ki11erwolf.resynth.block;
 
+import com.ki11erwolf.resynth.block.storage.MineralSoilStorage;
 import com.ki11erwolf.resynth.block.tileEntity.ResynthTileEntity;
 import com.ki11erwolf.resynth.block.tileEntity.TileEntityMineralSoil;
 import com.ki11erwolf.resynth.config.ResynthConfig;
 import com.ki11erwolf.resynth.config.categories.MineralSoilConfig;
 import com.ki11erwolf.resynth.item.ItemMineralHoe;
 import com.ki11erwolf.resynth.item.ResynthItems;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import com.ki11erwolf.resynth.plant.growth.ProduceFaceCache;
 import com.ki11erwolf.resynth.util.MinecraftUtil;
+import com.ki11erwolf.resynth.util.TickBudget;
 import mcp.mobius.waila.api.IComponentProvider;
 import mcp.mobius.waila.api.IDataAccessor;
 import mcp.mobius.waila.api.IPluginConfig;
@@ -31,10 +35,10 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.SoundType;
 import net.minecraft.block.material.Material;
+import net.minecraft.block.material.PushReaction;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
-import net.minecraft.inventory.InventoryHelper;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.state.IntegerProperty;
@@ -126,22 +130,22 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      * Handles updating the blocks texture based
      * on the Mineral Content of the block and any
      * Enhancer blocks underneath the Mineral Soil block.
+     * <p/>
+     * The block is only written to when the stage actually
+     * changes, and neighbors aren't notified as the stage
+     * is only visual (the plant on top is notified separately).
      *
-     * @param mineralContent the blocks/tile entities Mineral Content.
+     * @param mineralTenths the blocks Mineral Content, in tenths of a percent.
      * @param world the world the block is in.
      * @param state the state of the block. i.e. BlockState.
      * @param pos the BlockPos of the block in the world.
      */
-    private void updateState(float mineralContent, World world, BlockState state, BlockPos pos){
-        if(mineralContent > 49.9){
-            world.setBlockState(pos, state.with(STAGE, 4 + getStageIncrease(world, pos)));
-        } else if(mineralContent > 39.9){
-            world.setBlockState(pos, state.with(STAGE, 3));
-        } else if(mineralContent > 29.9){
-            world.setBlockState(pos, state.with(STAGE, 2));
-        } else if(mineralContent > 19.9){
-            world.setBlockState(pos, state.with(STAGE, 1));
-        } else world.setBlockState(pos, state.with(STAGE, 0));
+    private void updateState(int mineralTenths, World world, BlockState state, BlockPos pos){
+        int stageIncrease = MineralSoilStage.isFullyMineralized(mineralTenths) ? getStageIncrease(world, pos) : 0;
+        int stage = MineralSoilStage.getTransition(state.get(STAGE), mineralTenths, stageIncrease);
+
+        if(stage != MineralSoilStage.UNCHANGED)
+            world.setBlockState(pos, state.with(STAGE, stage), MineralSoilStage.UPDATE_FLAGS);
     }
 
     // *****
@@ -199,22 +203,12 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
     @Override
     public void onReplaced(BlockState state, World world, BlockPos pos, BlockState newState, boolean isMoving) {
         if (state.getBlock() != newState.getBlock()) {
-            //Checks
-            TileEntity tileentity = world.getTileEntity(pos);
-            if (!(tileentity instanceof TileEntityMineralSoil)) {
-                super.onReplaced(state, world, pos, newState, isMoving);
-            }
-
             //Mineral Rocks
-            assert tileentity != null;
-            assert tileentity instanceof TileEntityMineralSoil;
-            float content = ((TileEntityMineralSoil)tileentity).getMineralPercentage();
-
-            int rocks = (int)((content - CONFIG.getStartingMineralContent())/CONFIG.getMineralRockWorth());
-            InventoryHelper.spawnItemStack(
-                    world, pos.getX(), pos.getY(), pos.getZ(), new ItemStack(ResynthItems.ITEM_MINERAL_ROCK, rocks)
-            );
+            int rocks = getMineralRocks(MineralSoilStorage.getMineralTenths(world, pos));
+            if(rocks > 0)
+                MinecraftUtil.spawnItemStackInWorld(new ItemStack(ResynthItems.ITEM_MINERAL_ROCK, rocks), world, pos);
 
+            MineralSoilStorage.removeMineralContent(world, pos);
             super.onReplaced(state, world, pos, newState, isMoving);
         }
     }
@@ -243,10 +237,28 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
 
     /**
      * {@inheritDoc}
+     *
+     * @return {@code true} unless the config stores the
+     * Mineral Content in chunks instead.
      */
     @Override
     public boolean hasTileEntity(BlockState state){
-        return true;
+        return MineralSoilStorage.usesTileEntities();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Mineral Soil can't be pushed by pistons, as moving it
+     * would drop its Mineral Rocks and reset its Mineral Content.
+     * Blocks with a tile entity already can't be pushed, but
+     * Mineral Soil has none with chunk storage.
+     *
+     * @return {@link PushReaction#BLOCK}.
+     */
+    @Override
+    public PushReaction getPushReaction(BlockState state){
+        return PushReaction.BLOCK;
     }
 
     // *************
@@ -261,14 +273,26 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      * {@inheritDoc}
      * <p/>
      * Handles displaying the soil blocks mineral content
-     * and message in the hwyla tooltip.
+     * and message in the hwyla tooltip. Without a tile
+     * entity (chunk storage) Hwyla doesn't ask the server
+     * for data, so the range of Mineral Content the blocks
+     * stage allows is shown instead, labeled as an estimate.
      */
     @Override
     public void appendBody(List<ITextComponent> tooltip, IDataAccessor accessor, IPluginConfig config) {
+        CompoundNBT serverData = accessor.getServerData();
+
+        if(!serverData.contains(TileEntityMineralSoil.MINERAL_CONTENT_TAG)){
+            tooltip.add(new StringTextComponent(getEstimatedMineralContentMessage(
+                    accessor.getBlockState(), getMineralContentIncrease(accessor.getWorld(), accessor.getPosition())
+            )));
+            return;
+        }
+
         tooltip.add(new StringTextComponent(
                 getMineralContentMessage(
-                        accessor.getServerData().getFloat(TileEntityMineralSoil.MINERAL_CONTENT_TAG),
-                        accessor.getServerData().getFloat("mineralIncrease"), true
+                        serverData.getShort(TileEntityMineralSoil.MINERAL_CONTENT_TAG),
+                        serverData.getFloat("mineralIncrease"), true
                 )
         ));
     }
@@ -285,9 +309,9 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
         if(!(tileEntity instanceof TileEntityMineralSoil))
             return;
 
-        clientServerNBT.putFloat(
+        clientServerNBT.putShort(
                 TileEntityMineralSoil.MINERAL_CONTENT_TAG,
-                ((TileEntityMineralSoil) tileEntity).getMineralPercentage()
+                (short) ((TileEntityMineralSoil) tileEntity).getMineralTenths()
         );
 
         clientServerNBT.putFloat(
@@ -316,21 +340,19 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
     public boolean onBlockActivated(BlockState state, World world, BlockPos pos, PlayerEntity player,
                                     Hand hand, BlockRayTraceResult hit){
         ItemStack usedItem = player.getHeldItem(hand);
-        TileEntityMineralSoil entityMineralSoil = getTileEntity(world, pos);
-
-        float mineralContent = entityMineralSoil.getMineralPercentage();
-        float increase;
+        int mineralContent = MineralSoilStorage.getMineralTenths(world, pos);
+        int rocks;
 
         //At max mineral content
-        if(mineralContent >= 50){
+        if(mineralContent >= MineralSoilStorage.MAX_MINERAL_TENTHS){
             return false;
         }
 
         //Determined used item.
         if(usedItem.getItem() == ResynthItems.ITEM_MINERAL_ROCK){
-           increase = (float)CONFIG.getMineralRockWorth();
+           rocks = 1;
         } else if(usedItem.getItem() == ResynthItems.ITEM_DENSE_MINERAL_ROCK){
-            increase = (float)CONFIG.getMineralRockWorth() * 9;
+            rocks = 9;
         }  else return false;
 
         //Do increase
@@ -341,12 +363,14 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
             usedItem.shrink(1);
         }
 
-        entityMineralSoil.increaseMineralPercentage(increase);
-        updateState(entityMineralSoil.getMineralPercentage(), world, state, pos);
+        MineralSoilStorage.setMineralTenths(world, pos, addMineralRocks(mineralContent, rocks));
+        mineralContent = MineralSoilStorage.getMineralTenths(world, pos);
+        updateState(mineralContent, world, state, pos);
+        notifyPlant(world, pos);
 
         if(CONFIG.isChatMessageEnabled())
             player.sendMessage(new StringTextComponent(I18n.format(
-                    "misc.resynth.mineral_content", entityMineralSoil.getMineralPercentage()
+                    "misc.resynth.mineral_content", MineralSoilStorage.toMineralPercentage(mineralContent)
             ) + "%"));
 
         return true;
@@ -357,13 +381,12 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      */
     @Override
     public String getInfo(World world, BlockPos pos) {
-        TileEntityMineralSoil entity = getTileEntity(world, pos);
-
-        if(entity == null)
+        if(world.getBlockState(pos).getBlock() != this)
             return "Error";
 
         return getMineralContentMessage(
-                entity.getMineralPercentage(), getMineralContentIncrease(world, pos), FMLEnvironment.dist.isClient()
+                MineralSoilStorage.getMineralTenths(world, pos), getMineralContentIncrease(world, pos),
+                FMLEnvironment.dist.isClient()
         );
     }
 
@@ -374,14 +397,77 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
     /**
      * Handles what happens a neighboring block changes.
      *
-     * Will make sure the block checks for any Enhancer
-     * blocks and update its state accordingly.
+     * Will make sure the block updates its state accordingly.
+     * Enhancer changes are handled by {@link #onEnhancerChanged(World, BlockPos)}.
      */
     @Override
     public void neighborChanged(BlockState state, World worldIn, BlockPos pos, Block blockIn,
                                 BlockPos fromPos, boolean isMoving) {
         super.neighborChanged(state, worldIn, pos, blockIn, fromPos, isMoving);
-        updateState(getTileEntity(worldIn, pos).getMineralPercentage(), worldIn, state, pos);
+
+        //Only wrapped in work when it may be deferred, as
+        //neighbor updates can come in storms (e.g. pistons).
+        if(TickBudget.canDefer(worldIn))
+            TickBudget.run(worldIn, () -> refreshState(worldIn, pos));
+        else updateState(MineralSoilStorage.getMineralTenths(worldIn, pos), worldIn, state, pos);
+
+        //The ground next to a Metallic plant may have changed.
+        ProduceFaceCache.invalidate(worldIn, pos.up());
+    }
+
+    /**
+     * Updates the soil block at the given position (if there is
+     * one) and the plant on top of it for a change of the Enhancer
+     * underneath the soil block. Called by the Enhancer itself
+     * whenever it's placed or removed, as neighbor updates aren't
+     * sent for every block change (e.g. pistons and block changes
+     * made without notifying neighbors).
+     *
+     * @param world the world the soil block is in.
+     * @param pos the position of the soil block.
+     */
+    static void onEnhancerChanged(World world, BlockPos pos){
+        BlockState state = world.getBlockState(pos);
+        if(!(state.getBlock() instanceof BlockMineralSoil))
+            return;
+
+        ((BlockMineralSoil) state.getBlock()).updateState(
+                MineralSoilStorage.getMineralTenths(world, pos), world, state, pos
+        );
+        notifyPlant(world, pos);
+    }
+
+    /**
+     * Re-reads the soil block and updates its {@link #STAGE},
+     * for updates that were deferred by the {@link TickBudget}.
+     * Dropped if the chunk has unloaded since, rather than
+     * loading it again.
+     *
+     * @param pos position of the soil block.
+     */
+    private void refreshState(World world, BlockPos pos){
+        if(!world.isBlockLoaded(pos))
+            return;
+
+        BlockState current = world.getBlockState(pos);
+        if(current.getBlock() != this)
+            return;
+
+        updateState(MineralSoilStorage.getMineralTenths(world, pos), world, current, pos);
+    }
+
+    /**
+     * Lets the plant on top of the soil block (if any) know
+     * the Mineral Content or Enhancer of the soil block has
+     * changed.
+     *
+     * @param pos position of the soil block.
+     */
+    private static void notifyPlant(World world, BlockPos pos){
+        BlockState plant = world.getBlockState(pos.up());
+
+        if(plant.getBlock() instanceof BlockPlant)
+            ((BlockPlant<?>)plant.getBlock()).onSoilChanged(world, pos.up());
     }
 
     /**
@@ -394,13 +480,27 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      * growth stage by (beyond 4).
      */
     private static int getStageIncrease(World world, BlockPos pos){
-        BlockState enhancer = world.getBlockState(pos.down());
+        return BlockEnhancer.getStageIncrease(MineralSoilStorage.getEnhancerTier(world, pos));
+    }
 
-        if(enhancer.getBlock() instanceof BlockEnhancer){
-            return ((BlockEnhancer)enhancer.getBlock()).getStageIncrease();
-        }
+    /**
+     * Estimates the Mineral Content of a Mineral Soil block from
+     * its state alone (the lowest Mineral Content of its stage).
+     * Used where the tile entity isn't available, e.g. on the
+     * client where the Mineral Content isn't synced.
+     *
+     * @param state the state of the Mineral Soil block.
+     * @return the estimated Mineral Content of the soil.
+     */
+    public static float getEstimatedMineralContent(BlockState state){
+        int stage = state.get(STAGE);
 
-        return 0;
+        if(stage >= 4)
+            return 50.0F;
+        if(stage == 0)
+            return (float) Math.min(CONFIG.getStartingMineralContent(), 19.9D);
+
+        return 10.0F + stage * 10.0F;
     }
 
     /**
@@ -412,13 +512,7 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      * if no Enhancer block is beneath the soil block.
      */
     private static float getMineralContentIncrease(World world, BlockPos pos){
-        BlockState enhancer = world.getBlockState(pos.down());
-
-        if(enhancer.getBlock() instanceof BlockEnhancer){
-            return ((BlockEnhancer)enhancer.getBlock()).getIncrease();
-        }
-
-        return 0;
+        return BlockEnhancer.getIncrease(MineralSoilStorage.getEnhancerTier(world, pos));
     }
 
     /**
@@ -426,18 +520,86 @@ public class BlockMineralSoil extends ResynthTileEntity<TileEntityMineralSoil> i
      * lang file formatted with the provided
      * info.
      *
-     * @param mineralPercentage the soil blocks mineral content
-     *                          value.
+     * @param mineralTenths the soil blocks mineral content
+     *                      value, in tenths of a percent.
      * @return the formatted localized message.
      */
-    private static String getMineralContentMessage(float mineralPercentage, float increase, boolean i18n){
+    private static String getMineralContentMessage(int mineralTenths, float increase, boolean i18n){
+        float mineralPercentage = MineralSoilStorage.toMineralPercentage(mineralTenths);
+
         if(i18n)
             return TextFormatting.RED +
                     I18n.format(
                             "misc.resynth.mineral_content",
                             TextFormatting.GOLD + String.valueOf(mineralPercentage)
-                    ) + " + " + ((mineralPercentage > 49.9) ? increase : 0) + "%";
+                    ) + " + " + ((mineralTenths > 499) ? increase : 0) + "%";
         else return TextFormatting.GOLD + String.valueOf(mineralPercentage)
-                + "% + " + ((mineralPercentage > 49.9) ? increase : 0) + "%";
+                + "% + " + ((mineralTenths > 499) ? increase : 0) + "%";
+    }
+
+    /**
+     * Gets the estimated mineral content message from
+     * the lang file: the range of Mineral Content the
+     * stage of the given soil block allows.
+     *
+     * @param state the state of the Mineral Soil block.
+     * @param increase the Mineral Content increase of the
+     *                 Enhancer under the soil block.
+     * @return the formatted localized message.
+     */
+    private static String getEstimatedMineralContentMessage(BlockState state, float increase){
+        int stage = state.get(STAGE);
+
+        //Only fully mineralized soil reaches stage 4.
+        if(stage >= 4)
+            return getMineralContentMessage(MineralSoilStorage.MAX_MINERAL_TENTHS, increase, true);
+
+        int lowest = (stage == 0) ? 1 : 100 + stage * 100;
+        int highest = 199 + stage * 100;
+
+        return TextFormatting.RED +
+                I18n.format(
+                        "misc.resynth.mineral_content_estimate",
+                        TextFormatting.GOLD + String.valueOf(MineralSoilStorage.toMineralPercentage(lowest)),
+                        TextFormatting.GOLD + String.valueOf(MineralSoilStorage.toMineralPercentage(highest))
+                ) + " + 0%";
+    }
+
+    /**
+     * Adds Mineral Rocks to soil with the given Mineral Content.
+     * <p/>
+     * The new content is worked out from the total number of rocks
+     * in the soil, rather than by adding the rock worth to the stored
+     * content, so only the total is rounded to the nearest tenth. A
+     * rock worth that isn't a multiple of 0.1 (e.g. 0.15) still takes
+     * the same number of rocks to fill the soil.
+     *
+     * @param mineralTenths the current Mineral Content, in tenths.
+     * @param rocks the number of Mineral Rocks to add.
+     * @return the new Mineral Content, in tenths of a percent.
+     */
+    private static int addMineralRocks(int mineralTenths, int rocks){
+        return getStartingMineralTenths()
+                + (int) Math.round((getMineralRocks(mineralTenths) + rocks) * CONFIG.getMineralRockWorth() * 10.0D);
+    }
+
+    /**
+     * @param mineralTenths the Mineral Content of a soil block, in tenths.
+     * @return the number of whole Mineral Rocks added to the soil.
+     */
+    private static int getMineralRocks(int mineralTenths){
+        double rocks = (mineralTenths - getStartingMineralTenths()) / (CONFIG.getMineralRockWorth() * 10.0D);
+
+        //Full soil can hold part of its last rock, which is lost (see mineral-rock-worth).
+        return (int) Math.max(0, mineralTenths >= MineralSoilStorage.MAX_MINERAL_TENTHS
+                ? Math.floor(rocks + 1.0E-6D) : Math.round(rocks));
+    }
+
+    /**
+     * @return the Mineral Content of newly placed
+     * Mineral Soil, in tenths of a percent.
+     */
+    private static int getStartingMineralTenths(){
+        return MineralSoilStorage.toMineralTenths((float) CONFIG.getStartingMineralContent());
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block;
+
+/**
+ * Works out the visual stage of Mineral Soil blocks from
+ * their Mineral Content, and whether a block has to be
+ * written to move to it. Kept separate from the block so
+ * the stage transitions can be checked without a world.
+ */
+final class MineralSoilStage {
+
+    /**
+     * Returned when the block is already on the right stage,
+     * and doesn't need to be written to.
+     */
+    static final int UNCHANGED = -1;
+
+    /**
+     * The lowest Mineral Content (in tenths) of fully mineralized
+     * soil, the only stage an Enhancer underneath can increase.
+     */
+    static final int FULLY_MINERALIZED_TENTHS = 500;
+
+    /**
+     * The block update flags used to change the stage:
+     * send the change to clients (2) without updating the shape
+     * of neighboring blocks (16), and without notifying them.
+     */
+    static final int UPDATE_FLAGS = 2 | 16;
+
+    /**Private Constructor.*/
+    private MineralSoilStage(){}
+
+    /**
+     * @param mineralTenths the blocks Mineral Content, in tenths.
+     * @return {@code true} if the Enhancer under a block with the
+     * given Mineral Content increases its stage. The Enhancer only
+     * needs to be looked up if it does.
+     */
+    static boolean isFullyMineralized(int mineralTenths){
+        return mineralTenths >= FULLY_MINERALIZED_TENTHS;
+    }
+
+    /**
+     * @param mineralTenths the blocks Mineral Content, in tenths.
+     * @param stageIncrease the stage increase of the Enhancer under
+     *                      the block (ignored unless fully mineralized).
+     * @return the stage the block should be on.
+     */
+    static int getStage(int mineralTenths, int stageIncrease){
+        if(isFullyMineralized(mineralTenths))
+            return 4 + stageIncrease;
+        if(mineralTenths >= 400)
+            return 3;
+        if(mineralTenths >= 300)
+            return 2;
+        if(mineralTenths >= 200)
+            return 1;
+
+        return 0;
+    }
+
+    /**
+     * @param currentStage the stage the block is currently on.
+     * @param mineralTenths the blocks Mineral Content, in tenths.
+     * @param stageIncrease the stage increase of the Enhancer under
+     *                      the block (ignored unless fully mineralized).
+     * @return the stage the block has to be written with, or
+     * {@link #UNCHANGED} if it's already on the right stage.
+     */
+    static int getTransition(int currentStage, int mineralTenths, int stageIncrease){
+        int stage = getStage(mineralTenths, stageIncrease);
+        return stage == currentStage ? UNCHANGED : stage;
+    }
+}
@@ -0,0 +1,599 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block.storage;
+
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * The Mineral Content of every Mineral Soil block in a
+ * single chunk, attached to the chunk as a capability
+ * when Mineral Soil chunk storage is enabled.
+ * <p/>
+ * Each chunk section that contains Mineral Soil keeps the
+ * Mineral Content of its blocks (in tenths of a percent) in
+ * one of two layouts:
+ * <ul>
+ *     <li>Sparse: sorted arrays of the block indexes and
+ *     contents. Used for up to {@link #SPARSE_LIMIT} blocks,
+ *     e.g. a layer of farmland (about 1 KiB rather than 8 KiB).</li>
+ *     <li>Dense: an array of 4096 shorts (8 KiB). Used past
+ *     {@link #SPARSE_LIMIT} blocks, where it's the smaller.</li>
+ * </ul>
+ * Sections are saved as a single int array with two blocks
+ * packed per int, which region file compression shrinks to
+ * 450 bytes for a layer of farmland. Sections with up to
+ * {@link #SPARSE_SAVE_LIMIT} blocks are saved as a single int
+ * per block instead: 14 bytes for a single block rather
+ * than 39, where past the limit the packed array compresses
+ * better (790 bytes rather than 450 for a layer of farmland).
+ * Mineral Soil tile entities cost a tile entity object and
+ * a compound tag per block instead (a few hundred bytes in
+ * memory, and around 60 bytes saved).
+ */
+public class MineralSoilChunk {
+
+    /**
+     * The Mineral Soil chunk capability. Injected by Forge.
+     */
+    @CapabilityInject(MineralSoilChunk.class)
+    static Capability<MineralSoilChunk> CAPABILITY = null;
+
+    /**
+     * The value stored for blocks without a Mineral Content.
+     */
+    static final short UNSET = -1;
+
+    /**
+     * The most blocks a section keeps in the sparse layout.
+     * Past this, the dense layout is both smaller in memory
+     * and no more than twice the size saved.
+     */
+    static final int SPARSE_LIMIT = 1024;
+
+    /**
+     * The most blocks a section is saved with one int per
+     * block for, rather than as a packed section array.
+     */
+    static final int SPARSE_SAVE_LIMIT = 16;
+
+    /**
+     * The number of sections in a chunk.
+     */
+    private static final int SECTIONS = 16;
+
+    /**
+     * The number of blocks in a chunk section.
+     */
+    private static final int SECTION_SIZE = 16 * 16 * 16;
+
+    /**
+     * The NBT tag key for the y index of a section.
+     */
+    private static final String SECTION_Y_TAG = "Y";
+
+    /**
+     * The NBT tag key for the packed Mineral Content of a section.
+     */
+    private static final String CONTENT_TAG = "Tenths";
+
+    /**
+     * The NBT tag key for the blocks of a section with few blocks.
+     */
+    private static final String BLOCKS_TAG = "Blocks";
+
+    /**
+     * The Mineral Content of the blocks of each section.
+     * {@code null} for sections without Mineral Soil.
+     */
+    private final Section[] sections = new Section[SECTIONS];
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @param pos the position of the Mineral Soil block.
+     * @return the Mineral Content of the block at the given
+     * position in tenths, or {@link #UNSET} if it has none.
+     */
+    int get(BlockPos pos){
+        int y = pos.getY() >> 4;
+        if(y < 0 || y >= SECTIONS || sections[y] == null)
+            return UNSET;
+
+        return sections[y].get(getIndex(pos));
+    }
+
+    /**
+     * Sets the Mineral Content of the block at the
+     * given position.
+     *
+     * @param pos the position of the Mineral Soil block.
+     * @param tenths the Mineral Content of the block, in tenths.
+     */
+    void set(BlockPos pos, int tenths){
+        int y = pos.getY() >> 4;
+        if(y < 0 || y >= SECTIONS)
+            return;
+
+        if(sections[y] == null)
+            sections[y] = new Section();
+
+        sections[y].set(getIndex(pos), (short) tenths);
+    }
+
+    /**
+     * Removes the Mineral Content of the block at the
+     * given position, freeing the section if it has
+     * no Mineral Soil left.
+     *
+     * @param pos the position of the removed Mineral Soil block.
+     * @return {@code true} if the block had a Mineral Content.
+     */
+    boolean remove(BlockPos pos){
+        int y = pos.getY() >> 4;
+        if(y < 0 || y >= SECTIONS || sections[y] == null)
+            return false;
+
+        if(!sections[y].remove(getIndex(pos)))
+            return false;
+
+        if(sections[y].count == 0)
+            sections[y] = null;
+
+        return true;
+    }
+
+    /**
+     * Passes the position and Mineral Content of every
+     * block with a Mineral Content to the given consumer.
+     *
+     * @param chunkX the x coordinate of the chunk (in chunks).
+     * @param chunkZ the z coordinate of the chunk (in chunks).
+     * @param consumer the consumer of each block.
+     */
+    void forEach(int chunkX, int chunkZ, ContentConsumer consumer){
+        for(int y = 0; y < SECTIONS; y++){
+            Section section = sections[y];
+            if(section == null)
+                continue;
+
+            for(int i = 0; i < section.size(); i++){
+                int index = section.getIndexAt(i);
+                int tenths = section.get(index);
+                if(tenths == UNSET)
+                    continue;
+
+                consumer.accept(
+                        chunkX << 4 | (index & 15), y << 4 | index >> 8,
+                        chunkZ << 4 | (index >> 4 & 15), tenths
+                );
+            }
+        }
+    }
+
+    /**
+     * @param pos a position in the section.
+     * @return {@code true} if the section the given position
+     * is in uses the dense layout.
+     */
+    boolean isDense(BlockPos pos){
+        int y = pos.getY() >> 4;
+        return y >= 0 && y < SECTIONS && sections[y] != null && sections[y].dense != null;
+    }
+
+    // **************
+    // Read and write
+    // **************
+
+    /**
+     * @return every section with Mineral Soil, as a list of
+     * section y indexes and either packed Mineral Content
+     * arrays or, for sections with few blocks, block arrays.
+     */
+    ListNBT write(){
+        ListNBT list = new ListNBT();
+
+        for(int y = 0; y < SECTIONS; y++){
+            Section section = sections[y];
+            if(section == null)
+                continue;
+
+            CompoundNBT tag = new CompoundNBT();
+            tag.putByte(SECTION_Y_TAG, (byte) y);
+
+            if(section.dense == null && section.count <= SPARSE_SAVE_LIMIT)
+                tag.putIntArray(BLOCKS_TAG, packSparse(section.indexes, section.values, section.count));
+            else tag.putIntArray(CONTENT_TAG, pack(section.toArray()));
+
+            list.add(tag);
+        }
+
+        return list;
+    }
+
+    /**
+     * Reads the sections written by {@link #write()}.
+     *
+     * @param list the list of sections.
+     */
+    void read(ListNBT list){
+        for(int i = 0; i < list.size(); i++){
+            CompoundNBT tag = list.getCompound(i);
+            int y = tag.getByte(SECTION_Y_TAG);
+            if(y < 0 || y >= SECTIONS)
+                continue;
+
+            Section section = tag.contains(BLOCKS_TAG)
+                    ? Section.ofSparse(tag.getIntArray(BLOCKS_TAG))
+                    : Section.ofDense(unpack(tag.getIntArray(CONTENT_TAG)));
+
+            if(section != null && section.count > 0)
+                sections[y] = section;
+        }
+    }
+
+    /**
+     * @param content the Mineral Content of each block in a section.
+     * @return the given section array, with two blocks packed per int.
+     */
+    static int[] pack(short[] content){
+        int[] packed = new int[SECTION_SIZE / 2];
+        for(int i = 0; i < packed.length; i++)
+            packed[i] = (content[i * 2] & 0xFFFF) | content[i * 2 + 1] << 16;
+
+        return packed;
+    }
+
+    /**
+     * @param packed a packed section array written by {@link #write()}.
+     * @return the Mineral Content of each block in the section,
+     * or {@code null} if the array isn't a section array.
+     */
+    static short[] unpack(int[] packed){
+        if(packed.length != SECTION_SIZE / 2)
+            return null;
+
+        short[] content = new short[SECTION_SIZE];
+        for(int i = 0; i < packed.length; i++){
+            content[i * 2] = (short) packed[i];
+            content[i * 2 + 1] = (short) (packed[i] >> 16);
+        }
+
+        return content;
+    }
+
+    /**
+     * @param indexes the section indexes of the blocks.
+     * @param values the Mineral Content of the blocks.
+     * @param count the number of blocks.
+     * @return the given blocks, with each blocks index
+     * and Mineral Content packed into a single int.
+     */
+    static int[] packSparse(short[] indexes, short[] values, int count){
+        int[] packed = new int[count];
+        for(int i = 0; i < count; i++)
+            packed[i] = indexes[i] << 16 | (values[i] & 0xFFFF);
+
+        return packed;
+    }
+
+    /**
+     * @return the index of the given position
+     * within its section array.
+     */
+    private static int getIndex(BlockPos pos){
+        return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+    }
+
+    // *******
+    // Section
+    // *******
+
+    /**
+     * The Mineral Content of the blocks in a single chunk
+     * section, in either the sparse or dense layout.
+     */
+    private static final class Section {
+
+        /**
+         * The Mineral Content of every block, or
+         * {@code null} in the sparse layout.
+         */
+        private short[] dense;
+
+        /**
+         * The sorted section indexes of the blocks, or
+         * {@code null} in the dense layout.
+         */
+        private short[] indexes = new short[4];
+
+        /**
+         * The Mineral Content of the blocks, in the order of
+         * {@link #indexes}, or {@code null} in the dense layout.
+         */
+        private short[] values = new short[4];
+
+        /**
+         * The number of blocks with a Mineral Content.
+         */
+        private int count;
+
+        /**
+         * @param packed a block array written by {@link #write()}.
+         * @return the section, or {@code null} if the
+         * array isn't a block array.
+         */
+        private static Section ofSparse(int[] packed){
+            Section section = new Section();
+
+            for(int block : packed){
+                int index = block >>> 16;
+                if(index >= SECTION_SIZE)
+                    return null;
+
+                section.set(index, (short) block);
+            }
+
+            return section;
+        }
+
+        /**
+         * @param content the Mineral Content of every block.
+         * @return the section, or {@code null} if there's
+         * no content.
+         */
+        private static Section ofDense(short[] content){
+            if(content == null)
+                return null;
+
+            Section section = new Section();
+            for(int index = 0; index < content.length; index++){
+                if(content[index] != UNSET)
+                    section.set(index, content[index]);
+            }
+
+            return section;
+        }
+
+        /**
+         * @return the Mineral Content of the block at the
+         * given index, or {@link #UNSET}.
+         */
+        private short get(int index){
+            if(dense != null)
+                return dense[index];
+
+            int i = find(index);
+            return i < 0 ? UNSET : values[i];
+        }
+
+        /**
+         * Sets the Mineral Content of the block at the given
+         * index, moving to the dense layout once there are
+         * too many blocks for the sparse layout.
+         */
+        private void set(int index, short tenths){
+            if(dense != null){
+                if(dense[index] == UNSET)
+                    count++;
+
+                dense[index] = tenths;
+                return;
+            }
+
+            int i = find(index);
+            if(i >= 0){
+                values[i] = tenths;
+                return;
+            }
+
+            if(count == SPARSE_LIMIT){
+                toDense();
+                set(index, tenths);
+                return;
+            }
+
+            if(count == indexes.length){
+                indexes = Arrays.copyOf(indexes, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+
+            i = -(i + 1);
+            System.arraycopy(indexes, i, indexes, i + 1, count - i);
+            System.arraycopy(values, i, values, i + 1, count - i);
+            indexes[i] = (short) index;
+            values[i] = tenths;
+            count++;
+        }
+
+        /**
+         * Removes the Mineral Content of the block at the given index.
+         *
+         * @return {@code true} if the block had a Mineral Content.
+         */
+        private boolean remove(int index){
+            if(dense != null){
+                if(dense[index] == UNSET)
+                    return false;
+
+                dense[index] = UNSET;
+                count--;
+                return true;
+            }
+
+            int i = find(index);
+            if(i < 0)
+                return false;
+
+            System.arraycopy(indexes, i + 1, indexes, i, count - i - 1);
+            System.arraycopy(values, i + 1, values, i, count - i - 1);
+            count--;
+            return true;
+        }
+
+        /**
+         * @return the number of entries passed by
+         * {@link #getIndexAt(int)}: every block index in
+         * the dense layout, or every block in the sparse.
+         */
+        private int size(){
+            return dense != null ? SECTION_SIZE : count;
+        }
+
+        /**
+         * @param i the entry, {@code 0} to {@link #size()}.
+         * @return the block index of the given entry.
+         */
+        private int getIndexAt(int i){
+            return dense != null ? i : indexes[i];
+        }
+
+        /**
+         * @return the position of the given block index in
+         * {@link #indexes}, or {@code -(insertion point + 1)}
+         * if it isn't there.
+         */
+        private int find(int index){
+            return Arrays.binarySearch(indexes, 0, count, (short) index);
+        }
+
+        /**
+         * @return the Mineral Content of every block in the section,
+         * as a new array for sections in the sparse layout.
+         */
+        private short[] toArray(){
+            if(dense != null)
+                return dense;
+
+            short[] content = new short[SECTION_SIZE];
+            Arrays.fill(content, UNSET);
+
+            for(int i = 0; i < count; i++)
+                content[indexes[i]] = values[i];
+
+            return content;
+        }
+
+        /**
+         * Moves the section to the dense layout.
+         */
+        private void toDense(){
+            dense = toArray();
+            indexes = null;
+            values = null;
+        }
+    }
+
+    // **********
+    // Capability
+    // **********
+
+    /**
+     * Receives the blocks passed by {@link #forEach(int, int, ContentConsumer)}.
+     */
+    interface ContentConsumer {
+
+        /**
+         * @param x the x coordinate of the block.
+         * @param y the y coordinate of the block.
+         * @param z the z coordinate of the block.
+         * @param tenths the Mineral Content of the block, in tenths.
+         */
+        void accept(int x, int y, int z, int tenths);
+    }
+
+    /**
+     * Saves and loads the Mineral Soil chunk capability
+     * with the chunk it's attached to.
+     */
+    static class Provider implements ICapabilitySerializable<ListNBT> {
+
+        /**
+         * The Mineral Content of the chunk.
+         */
+        private final MineralSoilChunk chunk = new MineralSoilChunk();
+
+        /**
+         * The Mineral Content of the chunk, as returned to
+         * capability queries.
+         */
+        private final LazyOptional<MineralSoilChunk> optional = LazyOptional.of(() -> chunk);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, @Nullable Direction side) {
+            return cap == CAPABILITY ? optional.cast() : LazyOptional.empty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ListNBT serializeNBT() {
+            return chunk.write();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void deserializeNBT(ListNBT nbt) {
+            chunk.read(nbt);
+        }
+    }
+
+    /**
+     * The default storage of the Mineral Soil chunk
+     * capability, required when registering it.
+     */
+    static class Storage implements Capability.IStorage<MineralSoilChunk> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        public INBT writeNBT(Capability<MineralSoilChunk> capability, MineralSoilChunk instance, Direction side) {
+            return instance.write();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void readNBT(Capability<MineralSoilChunk> capability, MineralSoilChunk instance,
+                            Direction side, INBT nbt) {
+            if(nbt instanceof ListNBT)
+                instance.read((ListNBT) nbt);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block.storage;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.block.BlockEnhancer;
+import com.ki11erwolf.resynth.block.BlockMineralSoil;
+import com.ki11erwolf.resynth.block.tileEntity.TileEntityMineralSoil;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.MineralSoilConfig;
+import com.ki11erwolf.resynth.plant.growth.GrowthChanceCache;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ShortMap;
+import it.unimi.dsi.fastutil.longs.Long2ShortOpenHashMap;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the Mineral Content of Mineral Soil blocks,
+ * wherever the config has chosen to store it.
+ * <p/>
+ * By default, the Mineral Content is stored in a
+ * {@link TileEntityMineralSoil} per block. With chunk storage
+ * enabled, it's instead stored in a {@link MineralSoilChunk}
+ * capability attached to each chunk - and the Mineral Soil
+ * tile entities found in chunks read from disk are migrated
+ * into it. With chunk storage disabled again, the Mineral
+ * Content saved in chunks read from disk is migrated back
+ * into the tile entities once the chunk is loaded.
+ * <p/>
+ * Mineral Content is stored (and compared) as a fixed-point
+ * number of tenths of a percent, from {@code 1} to
+ * {@link #MAX_MINERAL_TENTHS}. The float percentage methods
+ * are kept for callers that only display it.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class MineralSoilStorage {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * The highest Mineral Content, in tenths of a percent.
+     */
+    public static final int MAX_MINERAL_TENTHS = 500;
+
+    /**
+     * Configuration settings for Mineral Soil.
+     */
+    private static final MineralSoilConfig CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(MineralSoilConfig.class);
+
+    /**
+     * {@code true} if Mineral Content is stored in chunks.
+     * Read once, as changing it requires a restart.
+     */
+    private static final boolean CHUNK_STORAGE = CONFIG.isChunkStorageEnabled();
+
+    /**
+     * The key the Mineral Soil chunk capability is attached under.
+     */
+    private static final ResourceLocation CAPABILITY_KEY = new ResourceLocation(ResynthMod.MOD_ID, "mineral_soil");
+
+    /**
+     * The registry ID of Mineral Soil tile entities, as saved in chunks.
+     */
+    private static final String TILE_ENTITY_ID = ResynthMod.MOD_ID + ":" + TileEntityMineralSoil.TE_ID;
+
+    /**
+     * The NBT tag key written to chunks saved with chunk storage,
+     * marking their Mineral Soil tile entities as migrated.
+     */
+    private static final String MIGRATED_TAG = "resynthMineralSoilMigrated";
+
+    /**
+     * The Mineral Content saved in the other storage (tile
+     * entities with chunk storage enabled, the chunk otherwise)
+     * of each chunk read from disk, waiting for the chunk to be
+     * fully loaded to be migrated.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Long2ShortMap>> READ_CHUNKS = new HashMap<>();
+
+    /**
+     * The Mineral Content saved in each fully loaded chunk,
+     * waiting to be migrated back into the chunks tile
+     * entities on the next tick.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Long2ShortMap>> LOADED_CHUNKS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private MineralSoilStorage(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Registers the Mineral Soil chunk capability.
+     */
+    public static void registerCapability(){
+        CapabilityManager.INSTANCE.register(
+                MineralSoilChunk.class, new MineralSoilChunk.Storage(), MineralSoilChunk::new
+        );
+    }
+
+    /**
+     * @return {@code true} if Mineral Soil blocks store their
+     * Mineral Content in a tile entity.
+     */
+    public static boolean usesTileEntities(){
+        return !CHUNK_STORAGE;
+    }
+
+    /**
+     * @param world the world the Mineral Soil block is in.
+     * @param pos the position of the Mineral Soil block.
+     * @return the Mineral Content of the Mineral Soil block at
+     * the given position. Will be 0 if the Mineral Content
+     * can't be found.
+     */
+    public static float getMineralContent(World world, BlockPos pos){
+        return toMineralPercentage(getMineralTenths(world, pos));
+    }
+
+    /**
+     * @param world the world the Mineral Soil block is in.
+     * @param pos the position of the Mineral Soil block.
+     * @return the Mineral Content of the Mineral Soil block at
+     * the given position, in tenths of a percent. Will be 0
+     * if the Mineral Content can't be found.
+     */
+    public static int getMineralTenths(World world, BlockPos pos){
+        if(!CHUNK_STORAGE){
+            TileEntity tileEntity = world.getTileEntity(pos);
+            return tileEntity instanceof TileEntityMineralSoil
+                    ? ((TileEntityMineralSoil) tileEntity).getMineralTenths() : 0;
+        }
+
+        MineralSoilChunk chunk = getChunk(world, pos);
+        if(chunk == null)
+            return 0;
+
+        int tenths = chunk.get(pos);
+        if(tenths != MineralSoilChunk.UNSET)
+            return tenths;
+
+        //Mineral Soil placed without a Mineral Content (e.g. by world edit tools) has the starting content.
+        return world.getBlockState(pos).getBlock() instanceof BlockMineralSoil
+                ? toMineralTenths((float) CONFIG.getStartingMineralContent()) : 0;
+    }
+
+    /**
+     * Sets the Mineral Content of the Mineral Soil block
+     * at the given position.
+     *
+     * @param world the world the Mineral Soil block is in.
+     * @param pos the position of the Mineral Soil block.
+     * @param content the Mineral Content to set.
+     * Range: {@code 0.1 < x < 50.0}.
+     */
+    public static void setMineralContent(World world, BlockPos pos, float content){
+        setMineralTenths(world, pos, toMineralTenths(content));
+    }
+
+    /**
+     * Sets the Mineral Content of the Mineral Soil block
+     * at the given position, in tenths of a percent.
+     *
+     * @param world the world the Mineral Soil block is in.
+     * @param pos the position of the Mineral Soil block.
+     * @param tenths the Mineral Content to set, in tenths.
+     * Range: {@code 1 <= x <= 500}.
+     */
+    public static void setMineralTenths(World world, BlockPos pos, int tenths){
+        if(!CHUNK_STORAGE){
+            TileEntity tileEntity = world.getTileEntity(pos);
+            if(tileEntity instanceof TileEntityMineralSoil)
+                ((TileEntityMineralSoil) tileEntity).setMineralTenths(tenths);
+            return;
+        }
+
+        MineralSoilChunk chunk = getChunk(world, pos);
+        if(chunk == null)
+            return;
+
+        chunk.set(pos, clampMineralTenths(tenths));
+        world.getChunkAt(pos).markDirty();
+
+        //The chance of the plant on top growing has changed.
+        GrowthChanceCache.invalidate(world, pos.up());
+    }
+
+    /**
+     * @param world the world the Mineral Soil block is in.
+     * @param pos the position of the Mineral Soil block.
+     * @return the tier of the Enhancer under the Mineral Soil
+     * block at the given position, or {@code 0} if there isn't
+     * one. Not cached, as plants only read it when their
+     * {@link GrowthChanceCache} entry is missing, which is
+     * invalidated whenever an Enhancer is placed or removed.
+     */
+    public static int getEnhancerTier(World world, BlockPos pos){
+        return BlockEnhancer.getTier(world.getBlockState(pos.down()));
+    }
+
+    /**
+     * Removes the Mineral Content of a removed Mineral Soil
+     * block. Tile entities are removed with the block.
+     *
+     * @param world the world the Mineral Soil block was in.
+     * @param pos the position of the Mineral Soil block.
+     */
+    public static void removeMineralContent(World world, BlockPos pos){
+        if(!CHUNK_STORAGE)
+            return;
+
+        MineralSoilChunk chunk = getChunk(world, pos);
+        if(chunk == null)
+            return;
+
+        if(chunk.remove(pos))
+            world.getChunkAt(pos).markDirty();
+    }
+
+    /**
+     * Limits the given Mineral Content to the range
+     * Mineral Soil blocks allow.
+     *
+     * @param tenths the Mineral Content, in tenths of a percent.
+     * @return the given Mineral Content, or {@code 10} (1.0%) if
+     * it's below {@code 1} (0.1%) and {@link #MAX_MINERAL_TENTHS}
+     * if it's above.
+     */
+    public static int clampMineralTenths(int tenths){
+        if(tenths < 1)
+            return 10;
+        if(tenths > MAX_MINERAL_TENTHS)
+            return MAX_MINERAL_TENTHS;
+
+        return tenths;
+    }
+
+    /**
+     * @param mineralContent a Mineral Content percentage.
+     * @return the given Mineral Content, in tenths of a
+     * percent, rounded to the nearest tenth.
+     */
+    public static int toMineralTenths(float mineralContent){
+        return Math.round(mineralContent * 10.0F);
+    }
+
+    /**
+     * @param tenths a Mineral Content, in tenths of a percent.
+     * @return the given Mineral Content as a percentage.
+     */
+    public static float toMineralPercentage(int tenths){
+        return tenths / 10.0F;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Attaches the Mineral Soil chunk capability to server
+     * chunks when chunk storage is enabled.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onAttachChunkCapabilities(AttachCapabilitiesEvent<Chunk> event){
+        if(!CHUNK_STORAGE || event.getObject().getWorld() == null || event.getObject().getWorld().isRemote)
+            return;
+
+        event.addCapability(CAPABILITY_KEY, new MineralSoilChunk.Provider());
+    }
+
+    /**
+     * Marks chunks saved with chunk storage as migrated, so
+     * any Mineral Soil tile entities left in their data are
+     * never migrated again.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkSave(ChunkDataEvent.Save event){
+        if(!CHUNK_STORAGE || event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        event.getData().putBoolean(MIGRATED_TAG, true);
+    }
+
+    /**
+     * Collects the Mineral Content saved in the other storage
+     * of chunks as they're read from disk: the Mineral Soil
+     * tile entities with chunk storage enabled (the chunk itself
+     * drops the tile entities, as Mineral Soil no longer has
+     * one), or the chunk capability data with it disabled (which
+     * the chunk drops, as the capability is no longer attached).
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkRead(ChunkDataEvent.Load event){
+        if(event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        Long2ShortMap content = CHUNK_STORAGE ? readTileEntities(event.getData()) : readChunkStorage(event);
+        if(content != null)
+            getMap(READ_CHUNKS, event.getWorld()).put(event.getChunk().getPos().asLong(), content);
+    }
+
+    /**
+     * @param data the data of a chunk read from disk.
+     * @return the Mineral Content of the Mineral Soil tile
+     * entities in the chunk data, or {@code null} if there
+     * are none or the chunk was already migrated.
+     */
+    private static Long2ShortMap readTileEntities(CompoundNBT data){
+        if(data.getBoolean(MIGRATED_TAG))
+            return null;
+
+        ListNBT tileEntities = data.getCompound("Level").getList("TileEntities", 10);
+        Long2ShortMap content = null;
+
+        for(int i = 0; i < tileEntities.size(); i++){
+            CompoundNBT tileEntity = tileEntities.getCompound(i);
+            if(!TILE_ENTITY_ID.equals(tileEntity.getString("id")))
+                continue;
+
+            if(content == null)
+                content = new Long2ShortOpenHashMap();
+
+            content.put(
+                    BlockPos.pack(tileEntity.getInt("x"), tileEntity.getInt("y"), tileEntity.getInt("z")),
+                    (short) TileEntityMineralSoil.readMineralTenths(tileEntity)
+            );
+        }
+
+        return content;
+    }
+
+    /**
+     * @param event the chunk read event.
+     * @return the Mineral Content saved in the chunk capability
+     * data of the chunk read from disk, or {@code null} if it
+     * has none.
+     */
+    private static Long2ShortMap readChunkStorage(ChunkDataEvent.Load event){
+        ListNBT sections = event.getData().getCompound("Level").getCompound("ForgeCaps")
+                .getList(CAPABILITY_KEY.toString(), 10);
+        if(sections.isEmpty())
+            return null;
+
+        MineralSoilChunk soil = new MineralSoilChunk();
+        soil.read(sections);
+
+        Long2ShortMap content = new Long2ShortOpenHashMap();
+        soil.forEach(
+                event.getChunk().getPos().x, event.getChunk().getPos().z,
+                (x, y, z, tenths) -> content.put(BlockPos.pack(x, y, z), (short) tenths)
+        );
+
+        return content.isEmpty() ? null : content;
+    }
+
+    /**
+     * Migrates the collected Mineral Soil tile entities of
+     * chunks into their capability once they're fully loaded,
+     * or queues the collected chunk data to be migrated back
+     * into the tile entities on the next tick.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkLoad(ChunkEvent.Load event){
+        if(!(event.getChunk() instanceof Chunk))
+            return;
+
+        Long2ObjectMap<Long2ShortMap> readChunks = READ_CHUNKS.get(event.getWorld());
+        if(readChunks == null)
+            return;
+
+        long chunkKey = event.getChunk().getPos().asLong();
+        Long2ShortMap content = readChunks.remove(chunkKey);
+        if(content == null)
+            return;
+
+        //The tile entities are created by the world, which isn't safe while loading.
+        if(!CHUNK_STORAGE){
+            getMap(LOADED_CHUNKS, event.getWorld()).put(chunkKey, content);
+            return;
+        }
+
+        Chunk chunk = (Chunk) event.getChunk();
+        MineralSoilChunk soil = chunk.getCapability(MineralSoilChunk.CAPABILITY).orElse(null);
+        if(soil == null)
+            return;
+
+        //Never overwrites content already stored in the chunk.
+        for(Long2ShortMap.Entry entry : content.long2ShortEntrySet()){
+            BlockPos pos = BlockPos.fromLong(entry.getLongKey());
+            if(soil.get(pos) == MineralSoilChunk.UNSET)
+                soil.set(pos, entry.getShortValue());
+        }
+
+        chunk.markDirty();
+    }
+
+    /**
+     * Migrates the chunk data of the chunks loaded since the
+     * last tick back into their Mineral Soil tile entities.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.START || event.world.isRemote)
+            return;
+
+        Long2ObjectMap<Long2ShortMap> loadedChunks = LOADED_CHUNKS.remove(event.world);
+        if(loadedChunks == null)
+            return;
+
+        World world = event.world;
+        for(Long2ShortMap content : loadedChunks.values()){
+            for(Long2ShortMap.Entry entry : content.long2ShortEntrySet()){
+                BlockPos pos = BlockPos.fromLong(entry.getLongKey());
+                if(!world.isBlockLoaded(pos))
+                    continue;
+
+                //Created by the world, as Mineral Soil has a tile entity again.
+                TileEntity tileEntity = world.getTileEntity(pos);
+                if(tileEntity instanceof TileEntityMineralSoil)
+                    ((TileEntityMineralSoil) tileEntity).setMineralTenths(entry.getShortValue());
+            }
+        }
+
+        LOG.info("Migrated the Mineral Content of " + loadedChunks.size()
+                + " chunk(s) in " + world.getDimension().getType() + " back into tile entities");
+    }
+
+    /**
+     * Removes the collected Mineral Content of chunks that are
+     * unloaded before they're migrated (e.g. chunks that were
+     * read from disk, but never fully loaded).
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        long chunkKey = event.getChunk().getPos().asLong();
+
+        Long2ObjectMap<Long2ShortMap> readChunks = READ_CHUNKS.get(event.getWorld());
+        if(readChunks != null)
+            readChunks.remove(chunkKey);
+
+        Long2ObjectMap<Long2ShortMap> loadedChunks = LOADED_CHUNKS.get(event.getWorld());
+        if(loadedChunks != null)
+            loadedChunks.remove(chunkKey);
+    }
+
+    /**
+     * Removes the collected Mineral Content of an unloaded world.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        READ_CHUNKS.remove(event.getWorld());
+        LOADED_CHUNKS.remove(event.getWorld());
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * @return the map of chunk keys to collected Mineral
+     * Content for the given world from the given map.
+     */
+    private static Long2ObjectMap<Long2ShortMap> getMap(Map<IWorld, Long2ObjectMap<Long2ShortMap>> map,
+                                                         IWorld world){
+        return map.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+    }
+
+    /**
+     * @return the Mineral Soil chunk capability of the chunk
+     * containing the given position, or {@code null} if it
+     * doesn't have one (e.g. on the client).
+     */
+    private static MineralSoilChunk getChunk(World world, BlockPos pos){
+        return world.getChunkAt(pos).getCapability(MineralSoilChunk.CAPABILITY).orElse(null);
+    }
+}
@@ -15,15 +15,19 @@
  */
 package com.ki11erwolf.resynth.block.tileEntity;
 
+import com.ki11erwolf.resynth.block.storage.MineralSoilStorage;
 import com.ki11erwolf.resynth.config.ResynthConfig;
 import com.ki11erwolf.resynth.config.categories.MineralSoilConfig;
+import com.ki11erwolf.resynth.plant.growth.GrowthChanceCache;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.tileentity.TileEntity;
 
 /**
  * The tile entity for the block BlockMineralSoil.
  * This class acts as the container for the
- * blocks mineralPercentage value.
+ * blocks mineralPercentage value, unless the
+ * config stores it in chunks instead (see
+ * {@link MineralSoilStorage}).
  */
 public class TileEntityMineralSoil extends TileEntity {
 
@@ -34,19 +38,28 @@ public class TileEntityMineralSoil extends TileEntity {
             = ResynthConfig.GENERAL_CONFIG.getCategory(MineralSoilConfig.class);
 
     /**
-     * The NBT tag key for Mineral Content.
+     * The NBT tag key for Mineral Content, in tenths of a percent.
      */
-    public static final String MINERAL_CONTENT_TAG = "mineralPercentage";
+    public static final String MINERAL_CONTENT_TAG = "mc";
+
+    /**
+     * The NBT tag key Mineral Content was saved under (as a
+     * float percentage) by earlier versions.
+     */
+    public static final String LEGACY_MINERAL_CONTENT_TAG = "mineralPercentage";
 
     /**
      * Registry ID for this tile entity.
      */
-    static final String TE_ID = "te_mineral_soil";
+    public static final String TE_ID = "te_mineral_soil";
 
     /**
-     * The given blocks mineral mineralPercentage. Range: {@code 0.1 < x < 50.0}.
+     * The given blocks mineral percentage, in tenths of a
+     * percent. Range: {@code 1 <= x <= 500}.
      */
-    private float mineralPercentage = (float) CONFIG.getStartingMineralContent();
+    private short mineralTenths = (short) MineralSoilStorage.toMineralTenths(
+            (float) CONFIG.getStartingMineralContent()
+    );
 
     /**
      * Default Constructor.
@@ -60,7 +73,7 @@ public class TileEntityMineralSoil extends TileEntity {
     // **************
 
     /**
-     * Writes the mineralPercentage variable value to NBT.
+     * Writes the mineral percentage (in tenths) to NBT.
      *
      * @param compound the nbt tag compound we will write the variable to.
      * @return the nbt tag compound.
@@ -68,19 +81,37 @@ public class TileEntityMineralSoil extends TileEntity {
     @Override
     public CompoundNBT write(CompoundNBT compound) {
         super.write(compound);
-        compound.putFloat(MINERAL_CONTENT_TAG, mineralPercentage);
+        compound.putShort(MINERAL_CONTENT_TAG, mineralTenths);
         return compound;
     }
 
     /**
-     * Reads the mineralPercentage variable value from NBT.
+     * Reads the mineral percentage from NBT, converting
+     * the float percentage saved by earlier versions.
      *
      * @param compound the nbt tag compound we will read the variable from.
      */
     @Override
     public void read(CompoundNBT compound) {
         super.read(compound);
-        mineralPercentage = compound.getFloat(MINERAL_CONTENT_TAG);
+        mineralTenths = (short) readMineralTenths(compound);
+    }
+
+    /**
+     * Reads the Mineral Content of a saved Mineral Soil
+     * tile entity, in either the current or the legacy
+     * format.
+     *
+     * @param compound the saved tile entity.
+     * @return the saved Mineral Content, in tenths of a percent.
+     */
+    public static int readMineralTenths(CompoundNBT compound){
+        if(compound.contains(LEGACY_MINERAL_CONTENT_TAG) && !compound.contains(MINERAL_CONTENT_TAG))
+            return MineralSoilStorage.clampMineralTenths(
+                    MineralSoilStorage.toMineralTenths(compound.getFloat(LEGACY_MINERAL_CONTENT_TAG))
+            );
+
+        return MineralSoilStorage.clampMineralTenths(compound.getShort(MINERAL_CONTENT_TAG));
     }
 
     // ***
@@ -92,7 +123,15 @@ public class TileEntityMineralSoil extends TileEntity {
      * Range: {@code 0.1 < x < 50.0}.
      */
     public float getMineralPercentage() {
-        return mineralPercentage;
+        return MineralSoilStorage.toMineralPercentage(mineralTenths);
+    }
+
+    /**
+     * @return The given blocks mineral percentage, in
+     * tenths of a percent. Range: {@code 1 <= x <= 500}.
+     */
+    public int getMineralTenths() {
+        return mineralTenths;
     }
 
     /**
@@ -103,13 +142,23 @@ public class TileEntityMineralSoil extends TileEntity {
      */
     @SuppressWarnings("WeakerAccess")
     public void setMineralPercentage(float mineralPercentage) {
-        if(mineralPercentage < 0.1F)
-            mineralPercentage = 1.0F;
-        if(mineralPercentage > 50.0F)
-            mineralPercentage = 50.0F;
+        setMineralTenths(MineralSoilStorage.toMineralTenths(mineralPercentage));
+    }
 
-        this.mineralPercentage = mineralPercentage;
+    /**
+     * Sets the given blocks mineral percentage, in
+     * tenths of a percent.
+     *
+     * @param mineralTenths the mineral percentage to set the value to,
+     * in tenths. Range: {@code 1 <= x <= 500}.
+     */
+    public void setMineralTenths(int mineralTenths) {
+        this.mineralTenths = (short) MineralSoilStorage.clampMineralTenths(mineralTenths);
         markDirty();
+
+        //The chance of the plant on top growing has changed.
+        if(world != null)
+            GrowthChanceCache.invalidate(world, pos.up());
     }
 
     /**
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.command;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.plant.growth.AreaGrowth;
+import com.ki11erwolf.resynth.plant.growth.GrowthJournal;
+import com.ki11erwolf.resynth.util.TickBudget;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.command.arguments.BlockPosArgument;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TranslationTextComponent;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The {@code /resynth} admin command. Subcommands:
+ * <ul>
+ *     <li>{@code /resynth grow radius <radius> [stages]} - grows every
+ *     Resynth plant within the radius of the command source.</li>
+ *     <li>{@code /resynth grow region <from> <to> [stages]} - grows every
+ *     Resynth plant in the region between the two positions. The region
+ *     may be no larger than the area of the largest radius.</li>
+ *     <li>{@code /resynth reload} - reloads the Resynth config files. Values
+ *     that require a restart are left unchanged and listed.</li>
+ *     <li>{@code /resynth journal dump [region <from> <to> | plant <plant>]} - writes
+ *     the {@link GrowthJournal} to a file in the server directory.</li>
+ *     <li>{@code /resynth budget} - shows how much work the {@link TickBudget}
+ *     has waiting and has deferred in the command sources world.</li>
+ * </ul>
+ * Plants are grown to fully grown if no stage count is given.
+ */
+public final class ResynthCommand {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * The permission level required to use the command (cheats).
+     */
+    private static final int PERMISSION_LEVEL = 2;
+
+    /**
+     * The largest radius accepted by {@code /resynth grow radius}.
+     */
+    private static final int MAX_RADIUS = 128;
+
+    /**
+     * The largest volume (in blocks) accepted by {@code /resynth
+     * grow region}: the volume of the largest radius.
+     */
+    private static final long MAX_REGION_VOLUME
+            = (long) (MAX_RADIUS * 2 + 1) * (MAX_RADIUS * 2 + 1) * (MAX_RADIUS * 2 + 1);
+
+    /**Private Constructor.*/
+    private ResynthCommand(){}
+
+    /**
+     * Registers the command with the given dispatcher.
+     *
+     * @param dispatcher the servers command dispatcher.
+     */
+    public static void register(CommandDispatcher<CommandSource> dispatcher){
+        dispatcher.register(Commands.literal("resynth")
+                .requires(source -> source.hasPermissionLevel(PERMISSION_LEVEL))
+                .then(Commands.literal("grow")
+                        .then(Commands.literal("radius")
+                                .then(Commands.argument("radius", IntegerArgumentType.integer(0, MAX_RADIUS))
+                                        .executes(context -> growRadius(
+                                                context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "radius"),
+                                                Integer.MAX_VALUE
+                                        ))
+                                        .then(Commands.argument("stages", IntegerArgumentType.integer(1))
+                                                .executes(context -> growRadius(
+                                                        context.getSource(),
+                                                        IntegerArgumentType.getInteger(context, "radius"),
+                                                        IntegerArgumentType.getInteger(context, "stages")
+                                                ))
+                                        )
+                                )
+                        )
+                        .then(Commands.literal("region")
+                                .then(Commands.argument("from", BlockPosArgument.blockPos())
+                                        .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                                .executes(context -> growRegion(
+                                                        context.getSource(),
+                                                        BlockPosArgument.getLoadedBlockPos(context, "from"),
+                                                        BlockPosArgument.getLoadedBlockPos(context, "to"),
+                                                        Integer.MAX_VALUE
+                                                ))
+                                                .then(Commands.argument("stages", IntegerArgumentType.integer(1))
+                                                        .executes(context -> growRegion(
+                                                                context.getSource(),
+                                                                BlockPosArgument.getLoadedBlockPos(context, "from"),
+                                                                BlockPosArgument.getLoadedBlockPos(context, "to"),
+                                                                IntegerArgumentType.getInteger(context, "stages")
+                                                        ))
+                                                )
+                                        )
+                                )
+                        )
+                )
+                .then(Commands.literal("reload")
+                        .executes(context -> reload(context.getSource()))
+                )
+                .then(Commands.literal("budget")
+                        .executes(context -> budget(context.getSource()))
+                )
+                .then(Commands.literal("journal")
+                        .then(Commands.literal("dump")
+                                .executes(context -> dumpJournal(context.getSource(), null, null, null))
+                                .then(Commands.literal("region")
+                                        .then(Commands.argument("from", BlockPosArgument.blockPos())
+                                                .then(Commands.argument("to", BlockPosArgument.blockPos())
+                                                        .executes(context -> dumpJournal(
+                                                                context.getSource(),
+                                                                BlockPosArgument.getBlockPos(context, "from"),
+                                                                BlockPosArgument.getBlockPos(context, "to"),
+                                                                null
+                                                        ))
+                                                )
+                                        )
+                                )
+                                .then(Commands.literal("plant")
+                                        .then(Commands.argument("plant", StringArgumentType.word())
+                                                .executes(context -> dumpJournal(
+                                                        context.getSource(), null, null,
+                                                        StringArgumentType.getString(context, "plant")
+                                                ))
+                                        )
+                                )
+                        )
+                )
+        );
+    }
+
+    // ***********
+    // Subcommands
+    // ***********
+
+    /**
+     * Grows every plant within the radius of the command source.
+     *
+     * @return the number of plants grown.
+     */
+    private static int growRadius(CommandSource source, int radius, int stages){
+        int grown = AreaGrowth.growRadius(
+                source.getWorld(), new BlockPos(source.getPos()), radius, stages
+        );
+
+        source.sendFeedback(new TranslationTextComponent("commands.resynth.grow.success", grown), true);
+        return grown;
+    }
+
+    /**
+     * Grows every plant in the region between the two positions,
+     * if the region is no larger than {@link #MAX_REGION_VOLUME}.
+     *
+     * @return the number of plants grown.
+     */
+    private static int growRegion(CommandSource source, BlockPos from, BlockPos to, int stages){
+        long volume = (long) (Math.abs(from.getX() - to.getX()) + 1)
+                * (Math.abs(from.getY() - to.getY()) + 1)
+                * (Math.abs(from.getZ() - to.getZ()) + 1);
+
+        if(volume > MAX_REGION_VOLUME){
+            source.sendErrorMessage(new TranslationTextComponent(
+                    "commands.resynth.grow.toobig", MAX_REGION_VOLUME, volume
+            ));
+            return 0;
+        }
+
+        int grown = AreaGrowth.growRegion(source.getWorld(), from, to, stages);
+
+        source.sendFeedback(new TranslationTextComponent("commands.resynth.grow.success", grown), true);
+        return grown;
+    }
+
+    /**
+     * Shows the amount of work waiting for the next tick,
+     * and the total amount of work deferred, by the
+     * {@link TickBudget} in the command sources world.
+     *
+     * @return the amount of work waiting for the next tick.
+     */
+    private static int budget(CommandSource source){
+        int queued = TickBudget.getQueuedCount(source.getWorld());
+
+        source.sendFeedback(new TranslationTextComponent(
+                "commands.resynth.budget", queued, TickBudget.getDeferredCount(source.getWorld())
+        ), false);
+        return queued;
+    }
+
+    /**
+     * Writes the growth journal to a file in the server
+     * directory, optionally filtered by region (in the
+     * command sources dimension) or plant type. The file
+     * is written in the background, the result is sent
+     * to the command source once it's done.
+     *
+     * @return {@code 1} if the journal is being written.
+     */
+    private static int dumpJournal(CommandSource source, @Nullable BlockPos from, @Nullable BlockPos to,
+                                   @Nullable String plant){
+        if(!GrowthJournal.isEnabled()){
+            source.sendErrorMessage(new TranslationTextComponent("commands.resynth.journal.disabled"));
+            return 0;
+        }
+
+        MinecraftServer server = source.getServer();
+        File file = server.getFile("resynth-growth-journal-" + System.currentTimeMillis() + ".csv");
+        int dimension = source.getWorld().getDimension().getType().getId();
+
+        GrowthJournal.dump(file, dimension, from, to, plant).whenComplete((written, error) -> server.execute(() -> {
+            if(error == null){
+                source.sendFeedback(new TranslationTextComponent(
+                        "commands.resynth.journal.dump.success", written, file.getName()
+                ), true);
+                return;
+            }
+
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            LOG.error("Failed to write the growth journal to: " + file, cause);
+            source.sendErrorMessage(new TranslationTextComponent(
+                    "commands.resynth.journal.dump.failed", cause.getMessage()
+            ));
+        }));
+
+        return 1;
+    }
+
+    /**
+     * Reloads the Resynth config files, and lists the changed
+     * values that will only take effect after a restart.
+     *
+     * @return {@code 1}.
+     */
+    private static int reload(CommandSource source){
+        List<String> pendingRestart = ResynthConfig.reloadAll();
+
+        source.sendFeedback(new TranslationTextComponent("commands.resynth.reload.success"), true);
+        if(!pendingRestart.isEmpty())
+            source.sendFeedback(new TranslationTextComponent(
+                    "commands.resynth.reload.restart", String.join(", ", pendingRestart)
+            ), true);
+
+        return 1;
+    }
+}
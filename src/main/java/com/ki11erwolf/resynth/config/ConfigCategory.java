@@ -18,8 +18,10 @@ package com.ki11erwolf.resynth.config;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Represents a category (or group) of config options
@@ -38,6 +40,24 @@ public abstract class ConfigCategory {
      */
     private final List<ConfigValue> values = new ArrayList<>();
 
+    /**
+     * List of listeners called every time the values
+     * of this category are (re)loaded from file.
+     */
+    private final List<Runnable> reloadListeners = new ArrayList<>();
+
+    /**
+     * The config values of this category that are only
+     * read at startup, and are left unchanged on reload.
+     */
+    private final Set<ConfigValue> restartValues = new HashSet<>();
+
+    /**
+     * {@code true} once the values of this category
+     * have been loaded from file.
+     */
+    private boolean loaded = false;
+
     /**
      * Creates a new, unique configuration category
      * grouping.
@@ -57,12 +77,21 @@ public abstract class ConfigCategory {
      *
      * This method will always update the stored value if it's
      * incorrect as well as the comments.
+     * <p/>
+     * When reloading, values that require a restart keep their
+     * current value (the new value is left in the file for the
+     * next start).
      *
      * @param config the config file.
+     * @return the keys of the values that require a restart
+     * and were changed in the file, if this is a reload.
      */
-    void initValues(CommentedFileConfig config){
+    List<String> initValues(CommentedFileConfig config){
+        List<String> pendingRestart = new ArrayList<>();
+
         for(ConfigValue configValue : values){
             String key = getValueKey(uniqueName, configValue.getUniqueName());
+            Object current = configValue.get();
 
             if(config.contains(key))
                 configValue.setValue(config.get(key));
@@ -70,9 +99,45 @@ public abstract class ConfigCategory {
                 configValue.setValue(configValue.getDefaultValue());
             }
 
+            if(loaded && restartValues.contains(configValue) && !Objects.equals(current, configValue.get())){
+                configValue.setValue(current);
+                pendingRestart.add(key);
+                config.setComment(key, configValue.getComment());
+                continue;
+            }
+
             config.set(key, configValue.get());
             config.setComment(key, configValue.getComment());
         }
+
+        loaded = true;
+        for(Runnable listener : reloadListeners)
+            listener.run();
+
+        return pendingRestart;
+    }
+
+    /**
+     * Marks the given config values of this category as only
+     * being read at startup, so reloading the config doesn't
+     * change them.
+     *
+     * @param values the config values that require a restart.
+     */
+    protected void requiresRestart(ConfigValue... values){
+        for(ConfigValue value : values)
+            restartValues.add(Objects.requireNonNull(value));
+    }
+
+    /**
+     * Adds a listener that is called every time the values
+     * of this category are reloaded from file. Used to
+     * rebuild anything derived from the config values.
+     *
+     * @param listener the listener.
+     */
+    public void addReloadListener(Runnable listener){
+        reloadListeners.add(Objects.requireNonNull(listener));
     }
 
     /**
@@ -19,7 +19,9 @@ import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 import com.ki11erwolf.resynth.ResynthMod;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -39,6 +41,12 @@ public class ConfigFile {
      */
     private final Map<Class, ? super ConfigCategory> loadedCategories = new HashMap<>();
 
+    /**
+     * List of every category loaded from this file,
+     * including those loaded by instance.
+     */
+    private final List<ConfigCategory> categories = new ArrayList<>();
+
     /**
      * The toml config file.
      */
@@ -101,6 +109,7 @@ public class ConfigFile {
 
         //Cache
         loadedCategories.put(catClass, category);
+        categories.add(category);
         return category;
     }
 
@@ -119,6 +128,26 @@ public class ConfigFile {
      */
     public <T extends ConfigCategory> T loadCategory(T category){
         Objects.requireNonNull(category).initValues(config);
+        categories.add(category);
         return category;
     }
+
+    /**
+     * Reloads the config file from disk and updates the values
+     * of every category loaded from it, notifying their
+     * reload listeners.
+     *
+     * @return the keys of the changed values that will only
+     * take effect after a restart.
+     */
+    public List<String> reload(){
+        LOG.info("Reloading config file...");
+        config.load();
+
+        List<String> pendingRestart = new ArrayList<>();
+        for(ConfigCategory category : categories)
+            pendingRestart.addAll(category.initValues(config));
+
+        return pendingRestart;
+    }
 }
@@ -16,6 +16,8 @@
 package com.ki11erwolf.resynth.config;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Holds references to the various configuration
@@ -70,6 +72,23 @@ public class ResynthConfig {
      */
     private ResynthConfig(){}
 
+    /**
+     * Reloads every config file from disk, updating the
+     * values of every loaded config category.
+     *
+     * @return the keys of the changed values that will only
+     * take effect after a restart.
+     */
+    public static List<String> reloadAll(){
+        List<String> pendingRestart = new ArrayList<>();
+
+        pendingRestart.addAll(GENERAL_CONFIG.reload());
+        pendingRestart.addAll(VANILLA_PLANTS_CONFIG.reload());
+        pendingRestart.addAll(MODDED_PLANTS_CONFIG.reload());
+
+        return pendingRestart;
+    }
+
     /**
      * Turns a config name into an actual file name including
      * the path.
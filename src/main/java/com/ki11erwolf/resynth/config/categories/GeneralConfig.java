@@ -17,6 +17,8 @@ package com.ki11erwolf.resynth.config.categories;
 
 import com.ki11erwolf.resynth.config.BooleanConfigValue;
 import com.ki11erwolf.resynth.config.ConfigCategory;
+import com.ki11erwolf.resynth.config.DoubleConfigValue;
+import com.ki11erwolf.resynth.config.StringConfigValue;
 
 /**
  * General configuration settings used by Resynth.
@@ -60,6 +62,31 @@ public class GeneralConfig extends ConfigCategory {
             this
     );
 
+    /**
+     * Per-world tick time budget for Resynth work.
+     */
+    private final DoubleConfigValue tickTimeBudget = new DoubleConfigValue(
+            "tick time budget",
+            "The maximum time (in milliseconds) Resynth may spend on plant growth and Mineral Soil\n" +
+                      "updates in a single world every tick. Work over the budget is deferred to the next\n" +
+                      "tick (in order). Set to 0 to disable the budget.",
+            0.0D,
+            0.0D, 50.0D,
+            this
+    );
+
+    /**
+     * Seed for Resynth's random number generators.
+     */
+    private final StringConfigValue randomSeed = new StringConfigValue(
+            "random seed",
+            "Seeds Resynth's random number generators (growth, drops, seeds) when the server starts,\n" +
+                      "making them replay the exact same sequence every time. Intended for benchmarks and\n" +
+                      "testing. Leave empty for normal, non-deterministic randomness.",
+            "",
+            this
+    );
+
     /**
      * Constructor.
      */
@@ -87,6 +114,23 @@ public class GeneralConfig extends ConfigCategory {
         return enableDebugHelp.getValue();
     }
 
+    /**
+     * @return the per-world tick time budget for Resynth
+     * work in nanoseconds, or {@code 0} if there is no budget.
+     */
+    public long getTickTimeBudgetNanos(){
+        return (long) (tickTimeBudget.getValue() * 1_000_000D);
+    }
+
+    /**
+     * @return the configured seed for Resynth's random
+     * number generators, or an empty string if they
+     * shouldn't be seeded.
+     */
+    public String getRandomSeed(){
+        return randomSeed.getValue().trim();
+    }
+
     /**
      * @return {@code true} if the helpful/explanatory/descriptive
      * tooltips are enabled for blocks and items.
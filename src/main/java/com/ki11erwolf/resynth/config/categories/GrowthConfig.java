@@ -0,0 +1,287 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.config.categories;
+
+import com.ki11erwolf.resynth.config.BooleanConfigValue;
+import com.ki11erwolf.resynth.config.ConfigCategory;
+import com.ki11erwolf.resynth.config.IntegerConfigValue;
+import com.ki11erwolf.resynth.config.StringConfigValue;
+import com.ki11erwolf.resynth.plant.growth.GrowthMode;
+
+/**
+ * Configuration settings that control how (and how often)
+ * Resynth plants are grown by the game.
+ */
+public class GrowthConfig extends ConfigCategory {
+
+    // ************************
+    // Config Value Definitions
+    // ************************
+
+    /**
+     * Config value definition that selects the growth
+     * engine used to grow Resynth plants.
+     */
+    private final StringConfigValue growthMode = new StringConfigValue(
+            "growth-mode",
+            "The engine used to grow Resynth plants. Possible values:" +
+                      "\n  random  - plants are grown by vanilla random ticks (default)." +
+                      "\n  batched - plants are tracked per chunk section and grown in a single pass" +
+                      "\n            every few ticks, with the same growth statistics as random ticks." +
+                      "\n            Recommended for servers with very large farms." +
+                      "\n  scheduled - the time until each plants next growth is calculated in advance" +
+                      "\n            and the plant is only ticked once it's due to grow." +
+                      "\nChanges require a restart.",
+            GrowthMode.RANDOM.getName(),
+            this
+    );
+
+    /**
+     * Config value definition that sets the number of ticks
+     * between passes of the batched growth engine.
+     */
+    private final IntegerConfigValue batchedGrowthInterval = new IntegerConfigValue(
+            "batched-growth-interval",
+            "The number of game ticks between each pass of the batched growth engine." +
+                      "\nOnly used when the growth mode is set to batched. Higher values mean" +
+                      "\nless frequent (but larger) passes, the overall growth rate is unaffected.",
+            20,
+            1, 1200,
+            this
+    );
+
+    /**
+     * Config value definition that sets the maximum delay
+     * between scheduled growth ticks.
+     */
+    private final IntegerConfigValue maxScheduledGrowthDelay = new IntegerConfigValue(
+            "max-scheduled-growth-delay",
+            "The maximum number of game ticks a plant will wait before being re-evaluated" +
+                      "\nwhen the growth mode is set to scheduled. Plants that are due to grow later" +
+                      "\nthan this are re-checked after this many ticks. This also bounds how long" +
+                      "\nit can take for a plant to notice its Mineral Soil has been improved.",
+            6000,
+            20, 72000,
+            this
+    );
+
+    /**
+     * Config value definition that enables growing plants
+     * for the time their chunk was unloaded.
+     */
+    private final BooleanConfigValue enableOfflineGrowth = new BooleanConfigValue(
+            "enable-offline-growth",
+            "When enabled, plants will catch up on the growth they missed while their chunk" +
+                      "\nwas unloaded as soon as the chunk is loaded again. This removes the need" +
+                      "\nto keep chunks loaded (e.g. with chunk loaders) just to let plants grow." +
+                      "\nChanges require a restart.",
+            false,
+            this
+    );
+
+    /**
+     * Config value definition that moves the random
+     * tick picks of the batched growth engine off the
+     * server thread.
+     */
+    private final BooleanConfigValue enableAsyncGrowth = new BooleanConfigValue(
+            "enable-async-growth",
+            "When enabled (and the growth mode is set to batched), the random ticks of each pass" +
+                      "\nare picked on worker threads during the tick, and the server thread only" +
+                      "\ngrows the picked plants at the end of the tick.",
+            false,
+            this
+    );
+
+    /**
+     * Config value definition that sets the number of
+     * worker threads used by async growth.
+     */
+    private final IntegerConfigValue asyncGrowthThreads = new IntegerConfigValue(
+            "async-growth-threads",
+            "The number of worker threads used to pick plants to grow when async growth is enabled." +
+                      "\nChanges require a restart.",
+            2,
+            1, 16,
+            this
+    );
+
+    /**
+     * Config value definition that sets the distance
+     * beyond which plants are grown less often.
+     */
+    private final IntegerConfigValue growthLodDistance = new IntegerConfigValue(
+            "growth-lod-distance",
+            "The distance (in blocks) from the nearest player beyond which plants are grown less often," +
+                      "\nmaking up for the skipped growth when they are: the batched growth engine only grows a" +
+                      "\nchunk section's plants every few passes, and random tick growth only uses one in every" +
+                      "\nfew random ticks (see growth-lod-passes). Plants grow at the same overall rate, just in" +
+                      "\nlarger steps. Scheduled growth isn't affected. 0 grows every plant every time. Like" +
+                      "\nvanilla, plants further than 128 blocks from every player aren't grown at all.",
+            0,
+            0, 1024,
+            this
+    );
+
+    /**
+     * Config value definition that sets how often plants
+     * far from players are grown.
+     */
+    private final IntegerConfigValue growthLodPasses = new IntegerConfigValue(
+            "growth-lod-passes",
+            "The number of batched growth passes (or random ticks) between each growth of the plants" +
+                      "\nfurther than growth-lod-distance from every player.",
+            4,
+            1, 100,
+            this
+    );
+
+    /**
+     * Config value definition that sets how long cached
+     * light levels are trusted for.
+     */
+    private final IntegerConfigValue lightCacheTtl = new IntegerConfigValue(
+            "light-cache-ttl",
+            "The maximum number of game ticks the light levels read by plant growth checks are cached" +
+                      "\nfor. Cached light levels are also discarded whenever a nearby block changes, and plants" +
+                      "\nconfirm the live light level before they grow. 0 disables the cache.",
+            200,
+            0, 6000,
+            this
+    );
+
+    /**
+     * Config value definition that sets the number of
+     * growth evaluations kept by the growth journal.
+     */
+    private final IntegerConfigValue growthJournalSize = new IntegerConfigValue(
+            "growth-journal-size",
+            "The number of recent plant growth evaluations (position, plant, Mineral Content, enhancer," +
+                      "\nresult and tick) kept in memory for debugging, which can be written to a file with" +
+                      "\n'/resynth journal dump'. Rounded up to a power of two. 0 disables the journal." +
+                      "\nChanges require a restart.",
+            0,
+            0, 1 << 20,
+            this
+    );
+
+    /**
+     * The parsed value of {@link #growthMode}. Lazily
+     * initialized as it's read on every plant tick, and
+     * never reset, as plants are only set up for the growth
+     * mode when they're placed or their chunk is loaded.
+     */
+    private GrowthMode parsedGrowthMode;
+
+    /**
+     * Creates a new, unique configuration category
+     * grouping.
+     */
+    public GrowthConfig() {
+        super("plant-growth");
+        requiresRestart(growthMode, enableOfflineGrowth, asyncGrowthThreads, growthJournalSize);
+    }
+
+    // ****************
+    // Public Accessors
+    // ****************
+
+    /**
+     * @return the growth engine selected by the config.
+     * Defaults to {@link GrowthMode#RANDOM} if the config
+     * value is not recognized.
+     */
+    public GrowthMode getGrowthMode(){
+        if(parsedGrowthMode == null)
+            parsedGrowthMode = GrowthMode.fromName(growthMode.getValue());
+
+        return parsedGrowthMode;
+    }
+
+    /**
+     * @return the number of game ticks between
+     * each pass of the batched growth engine.
+     */
+    public int getBatchedGrowthInterval(){
+        return batchedGrowthInterval.getValue();
+    }
+
+    /**
+     * @return the maximum number of game ticks between
+     * scheduled growth ticks.
+     */
+    public int getMaxScheduledGrowthDelay(){
+        return maxScheduledGrowthDelay.getValue();
+    }
+
+    /**
+     * @return {@code true} if plants should catch up
+     * on the growth missed while their chunk was unloaded.
+     */
+    public boolean isOfflineGrowthEnabled(){
+        return enableOfflineGrowth.getValue();
+    }
+
+    /**
+     * @return {@code true} if the growth decisions of the
+     * batched growth engine should be made on worker threads.
+     */
+    public boolean isAsyncGrowthEnabled(){
+        return enableAsyncGrowth.getValue();
+    }
+
+    /**
+     * @return the number of worker threads used
+     * to decide plant growth.
+     */
+    public int getAsyncGrowthThreads(){
+        return asyncGrowthThreads.getValue();
+    }
+
+    /**
+     * @return the distance from the nearest player
+     * beyond which plants are grown less often, or
+     * {@code 0} if every plant is grown every pass.
+     */
+    public int getGrowthLodDistance(){
+        return growthLodDistance.getValue();
+    }
+
+    /**
+     * @return the number of batched growth passes
+     * between each growth of plants far from players.
+     */
+    public int getGrowthLodPasses(){
+        return growthLodPasses.getValue();
+    }
+
+    /**
+     * @return the number of growth evaluations kept by
+     * the growth journal, or {@code 0} if it's disabled.
+     */
+    public int getGrowthJournalSize(){
+        return growthJournalSize.getValue();
+    }
+
+    /**
+     * @return the maximum number of game ticks light
+     * levels are cached for, or {@code 0} if light
+     * levels shouldn't be cached.
+     */
+    public int getLightCacheTtl(){
+        return lightCacheTtl.getValue();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.config.categories;
+
+import com.ki11erwolf.resynth.config.BooleanConfigValue;
+import com.ki11erwolf.resynth.config.ConfigCategory;
+
+/**
+ * Configuration settings that control where the produce
+ * of harvested plants (and other Resynth drops) goes.
+ */
+public class HarvestConfig extends ConfigCategory {
+
+    // ************************
+    // Config Value Definitions
+    // ************************
+
+    /**
+     * Config value definition that allows harvesting produce
+     * into a container underneath the Mineral Soil.
+     */
+    private final BooleanConfigValue harvestIntoContainers = new BooleanConfigValue(
+            "harvest-into-containers",
+            "When enabled, the produce of harvested Biochemical plants is put straight into any container" +
+                      "\n(e.g. a chest or hopper) directly underneath the plants Mineral Soil, instead of" +
+                      "\nbeing dropped on the ground. Produce is only dropped when the container is full.",
+            false,
+            this
+    );
+
+    /**
+     * Config value definition that allows harvesting produce
+     * into the harvesting players inventory.
+     */
+    private final BooleanConfigValue harvestIntoPlayerInventory = new BooleanConfigValue(
+            "harvest-into-player-inventory",
+            "When enabled, the produce of harvested Biochemical plants is put straight into the inventory" +
+                      "\nof the player harvesting the plant, instead of being dropped on the ground. Produce" +
+                      "\nis only dropped when the inventory is full.",
+            false,
+            this
+    );
+
+    /**
+     * Config value definition that allows merging the
+     * items dropped at the same position in a tick.
+     */
+    private final BooleanConfigValue mergeDrops = new BooleanConfigValue(
+            "merge-drops",
+            "When enabled, the items Resynth drops at the same position during a tick (e.g. produce, seeds" +
+                      "\nand Mineral Rocks) are merged and spawned together at the end of the tick, so fewer item" +
+                      "\nentities are spawned. Dropped items appear up to a tick later than they otherwise would.",
+            false,
+            this
+    );
+
+    /**
+     * Creates a new, unique configuration category
+     * grouping.
+     */
+    public HarvestConfig() {
+        super("harvest-and-drops");
+    }
+
+    // ****************
+    // Public Accessors
+    // ****************
+
+    /**
+     * @return {@code true} if harvested produce should
+     * be put into containers underneath the soil.
+     */
+    public boolean harvestIntoContainers(){
+        return harvestIntoContainers.getValue();
+    }
+
+    /**
+     * @return {@code true} if harvested produce should
+     * be put into the harvesting players inventory.
+     */
+    public boolean harvestIntoPlayerInventory(){
+        return harvestIntoPlayerInventory.getValue();
+    }
+
+    /**
+     * @return {@code true} if the items dropped at the same
+     * position in a tick should be merged.
+     */
+    public boolean mergeDrops(){
+        return mergeDrops.getValue();
+    }
+}
@@ -97,6 +97,20 @@ public class MineralHoeConfig extends ConfigCategory {
             this
     );
 
+    /**
+     * Config definition that allows setting the radius of
+     * plants grown by a creative player with the Mineral Hoe.
+     */
+    private final IntegerConfigValue creativeGrowthRadius = new IntegerConfigValue(
+            "creative-growth-radius",
+            "The radius (in blocks) of plants grown when a creative mode player sneaks and\n" +
+                      "uses the Mineral Hoe on a plant. Every plant in the area is grown by one stage.\n" +
+                      "0 grows only the plant used on, like bonemeal.",
+            0,
+            0, 32,
+            this
+    );
+
     /**
      * Creates a new, unique configuration category
      * grouping.
@@ -155,4 +169,13 @@ public class MineralHoeConfig extends ConfigCategory {
     public int getMaxCharges(){
         return this.maxCharges.getValue();
     }
+
+    /**
+     * @return the radius of plants grown by a creative
+     * player with the Mineral Hoe, or {@code 0} to grow
+     * only a single plant.
+     */
+    public int getCreativeGrowthRadius(){
+        return this.creativeGrowthRadius.getValue();
+    }
 }
@@ -42,7 +42,8 @@ public class MineralSoilConfig extends ConfigCategory {
     private final DoubleConfigValue startingMineralContent = new DoubleConfigValue(
             "initial-mineral-content",
             "The initial/starting Mineral Content of every Mineral Soil block when it's" +
-                      "\nfirst placed/created.",
+                      "\nfirst placed/created. Mineral Content is stored in tenths of a percent, so" +
+                      "\nthis is rounded to the nearest 0.1.",
             1.0D,
             0.1D, 50.0D,
             this
@@ -63,12 +64,26 @@ public class MineralSoilConfig extends ConfigCategory {
             this
     );
 
+    /**
+     * Config value definition for the chunk storage flag.
+     */
+    private final BooleanConfigValue useChunkStorage = new BooleanConfigValue(
+            "use-chunk-storage",
+            "When enabled, the Mineral Content of Mineral Soil blocks is stored in the chunk they're in" +
+                      "\n(as one packed array per chunk section) instead of a tile entity per block. Existing" +
+                      "\nMineral Soil tile entities are converted as their chunks are loaded. Turning this back" +
+                      "\noff does NOT convert the Mineral Content back, and resets it. Changes require a restart.",
+            false,
+            this
+    );
+
     /**
      * Creates a new, unique configuration category
      * grouping.
      */
     public MineralSoilConfig() {
         super("mineral-soil");
+        requiresRestart(useChunkStorage);
     }
 
     /**
@@ -96,4 +111,13 @@ public class MineralSoilConfig extends ConfigCategory {
     public double getMineralRockWorth(){
         return mineralRockWorth.getValue();
     }
+
+    /**
+     * @return {@code true} if the Mineral Content of
+     * Mineral Soil blocks should be stored in chunks
+     * instead of tile entities.
+     */
+    public boolean isChunkStorageEnabled(){
+        return useChunkStorage.getValue();
+    }
 }
@@ -19,6 +19,8 @@ import com.ki11erwolf.resynth.ResynthMod;
 import com.ki11erwolf.resynth.block.ResynthBlocks;
 import com.ki11erwolf.resynth.config.ResynthConfig;
 import com.ki11erwolf.resynth.config.categories.MineralHoeConfig;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import com.ki11erwolf.resynth.plant.growth.AreaGrowth;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -253,10 +255,20 @@ public class ItemMineralHoe extends ResynthItem<ItemMineralHoe> {
      * Attempts to grow a plant similar to bonemeal,
      * however it ignores {@link IGrowable#canGrow(IBlockReader, BlockPos, BlockState, boolean)}
      * and {@link IGrowable#canUseBonemeal(World, Random, BlockPos, BlockState)}.
+     * <p/>
+     * If the config specifies a creative growth radius, every
+     * Resynth plant in the radius is grown by one stage instead
+     * (see {@link AreaGrowth}).
      *
      * @return {@code true} if the plant could be grown.
      */
     private boolean tryGrowPlant(Block block, ItemUseContext context){
+        if(block instanceof BlockPlant && CONFIG.getCreativeGrowthRadius() > 0){
+            if(!context.getWorld().isRemote)
+                AreaGrowth.growRadius(context.getWorld(), context.getPos(), CONFIG.getCreativeGrowthRadius(), 1);
+            return true;
+        }
+
         if(block instanceof IGrowable){
             if(!context.getWorld().isRemote)
                 ((IGrowable)block).grow(
@@ -15,6 +15,9 @@
  */
 package com.ki11erwolf.resynth.plant.block;
 
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.HarvestConfig;
+import com.ki11erwolf.resynth.plant.growth.GrowthSync;
 import com.ki11erwolf.resynth.plant.set.IBiochemicalSetProperties;
 import com.ki11erwolf.resynth.util.MinecraftUtil;
 import net.minecraft.block.Block;
@@ -22,6 +25,8 @@ import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.state.IntegerProperty;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.Direction;
 import net.minecraft.util.Hand;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvents;
@@ -31,6 +36,8 @@ import net.minecraft.util.math.shapes.VoxelShape;
 import net.minecraft.world.World;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
 
 import java.util.Random;
 
@@ -46,6 +53,34 @@ import java.util.Random;
  */
 public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalPlant> {
 
+    /**
+     * Configuration settings for harvesting.
+     */
+    private static final HarvestConfig HARVEST_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(HarvestConfig.class);
+
+    /**
+     * The growth stage property of Biochemical plant set types.
+     * Shared by every plant type, as the property is
+     * read on every tick and render.
+     */
+    private static final IntegerProperty GROWTH_STAGE = IntegerProperty.create("growth_stage", 0, 7);
+
+    /**
+     * The bounding box shapes for the various growth
+     * stages of Biochemical plant set types.
+     */
+    private static final VoxelShape[] SHAPES_BY_AGE = new VoxelShape[]{
+            Block.makeCuboidShape(7.0D, 0.0D, 7.0D, 9.0D, 2.0D, 9.0D),   //1
+            Block.makeCuboidShape(7.0D, 0.0D, 7.0D, 9.0D, 2.0D, 9.0D),   //2
+            Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 3.0D, 11.0D), //3
+            Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 5.0D, 11.0D), //4
+            Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 7.0D, 13.0D), //5
+            Block.makeCuboidShape(3.0D, 0.5D, 3.0D, 13.0D, 9.0D, 13.0D),//6
+            Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 11.0D, 13.0D),//7
+            Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 14.0D, 13.0D) //8
+    };
+
     /**
      * @param plantTypeName the name of the plant set type (e.g. crystalline).
      * @param plantName the name of the plant type (e.g. diamond).
@@ -66,7 +101,7 @@ public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalP
      */
     @Override
     IntegerProperty getGrowthProperty() {
-        return IntegerProperty.create("growth_stage", 0, 7);
+        return GROWTH_STAGE;
     }
 
     /**
@@ -74,16 +109,7 @@ public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalP
      */
     @Override
     VoxelShape[] getShapeByAge() {
-        return new VoxelShape[]{
-                Block.makeCuboidShape(7.0D, 0.0D, 7.0D, 9.0D, 2.0D, 9.0D),   //1
-                Block.makeCuboidShape(7.0D, 0.0D, 7.0D, 9.0D, 2.0D, 9.0D),   //2
-                Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 3.0D, 11.0D), //3
-                Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 5.0D, 11.0D), //4
-                Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 7.0D, 13.0D), //5
-                Block.makeCuboidShape(3.0D, 0.5D, 3.0D, 13.0D, 9.0D, 13.0D),//6
-                Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 11.0D, 13.0D),//7
-                Block.makeCuboidShape(3.0D, 0.0D, 3.0D, 13.0D, 14.0D, 13.0D) //8
-        };
+        return SHAPES_BY_AGE;
     }
 
     /**
@@ -125,13 +151,7 @@ public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalP
             if(world.setBlockState(pos, world.getBlockState(pos)
                     .with(getGrowthProperty(), postHarvestGrowth), 2)){
                 if(!world.isRemote)
-                    MinecraftUtil.spawnItemStackInWorld(
-                            new ItemStack(
-                                    getProduce().getItem(),
-                                    ((IBiochemicalSetProperties) properties).numberOfProduceDrops()
-                            ),
-                            world, pos
-                    );
+                    deliverProduce(getProduce().copy(), world, pos, player);
                 playPopSound(world, player);
                 return true;
             }
@@ -140,6 +160,37 @@ public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalP
         return false;
     }
 
+    /**
+     * Gives the produce of a harvested plant to (in order, as
+     * enabled by the config) the container underneath the soil,
+     * the harvesting player, or the world as an item entity -
+     * only spawning an entity for produce that didn't fit.
+     *
+     * @param produce the harvested produce.
+     * @param pos the position of the plant.
+     * @param player the player harvesting the plant.
+     */
+    private static void deliverProduce(ItemStack produce, World world, BlockPos pos, PlayerEntity player){
+        ItemStack remaining = produce;
+
+        if(HARVEST_CONFIG.harvestIntoContainers()){
+            TileEntity container = world.getTileEntity(pos.down(2));
+
+            if(container != null){
+                ItemStack toInsert = remaining;
+                remaining = container.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, Direction.UP)
+                        .map(handler -> ItemHandlerHelper.insertItemStacked(handler, toInsert, false))
+                        .orElse(remaining);
+            }
+        }
+
+        if(!remaining.isEmpty() && HARVEST_CONFIG.harvestIntoPlayerInventory())
+            player.inventory.addItemStackToInventory(remaining);
+
+        if(!remaining.isEmpty())
+            MinecraftUtil.spawnItemStackInWorld(remaining, world, pos);
+    }
+
     /**
      * Plays the pop sound when a biochemical
      * plant is harvested.
@@ -169,6 +220,6 @@ public abstract class BlockBiochemicalPlant extends BlockPlant<BlockBiochemicalP
         if(growth > getMaxGrowthStage())
             growth = getMaxGrowthStage();
 
-        world.setBlockState(pos, this.getDefaultState().with(this.getGrowthProperty(), growth), 2);
+        GrowthSync.setGrowthState(world, pos, this.getDefaultState().with(this.getGrowthProperty(), growth));
     }
 }
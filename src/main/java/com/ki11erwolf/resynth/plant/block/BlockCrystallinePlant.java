@@ -15,6 +15,7 @@
  */
 package com.ki11erwolf.resynth.plant.block;
 
+import com.ki11erwolf.resynth.plant.growth.GrowthSync;
 import com.ki11erwolf.resynth.plant.set.ICrystallineSetProperties;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
@@ -35,6 +36,28 @@ import net.minecraft.world.World;
  */
 public abstract class BlockCrystallinePlant extends BlockPlant<BlockCrystallinePlant> {
 
+    /**
+     * The growth stage property of Crystalline plant set types.
+     * Shared by every plant type, as the property is
+     * read on every tick and render.
+     */
+    private static final IntegerProperty GROWTH_STAGE = IntegerProperty.create("growth_stage", 0, 7);
+
+    /**
+     * The bounding box shapes for the various growth
+     * stages of Crystalline plant set types.
+     */
+    private static final VoxelShape[] SHAPES_BY_AGE = new VoxelShape[]{
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 2.0D, 10.0D), //1
+            Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 3.5D, 11.0D), //2
+            Block.makeCuboidShape(4.5D, 0.0D, 4.5D, 11.5D, 5.0D, 11.5D), //3
+            Block.makeCuboidShape(2.5D, 0.0D, 2.5D, 13.5D, 7.5D, 13.5D), //4
+            Block.makeCuboidShape(2.5D, 0.0D, 2.5D, 13.5D, 7.5D, 13.5D), //5
+            Block.makeCuboidShape(0.5D, 0.5D, 0.5D, 15.5D, 11.0D, 15.5D),//6
+            Block.makeCuboidShape(0.5D, 0.0D, 0.5D, 15.5D, 14.0D, 15.5D),//7
+            Block.makeCuboidShape(0.5D, 0.0D, 0.5D, 15.5D, 15.0D, 15.5D) //8
+    };
+
     /**
      * @param plantTypeName the name of the plant set type (e.g. crystalline).
      * @param plantName the name of the plant type (e.g. diamond).
@@ -57,7 +80,7 @@ public abstract class BlockCrystallinePlant extends BlockPlant<BlockCrystallineP
      */
     @Override
     IntegerProperty getGrowthProperty() {
-        return IntegerProperty.create("growth_stage", 0, 7);
+        return GROWTH_STAGE;
     }
 
     /**
@@ -69,16 +92,7 @@ public abstract class BlockCrystallinePlant extends BlockPlant<BlockCrystallineP
      */
     @Override
     VoxelShape[] getShapeByAge() {
-        return new VoxelShape[]{
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 2.0D, 10.0D), //1
-                Block.makeCuboidShape(5.0D, 0.0D, 5.0D, 11.0D, 3.5D, 11.0D), //2
-                Block.makeCuboidShape(4.5D, 0.0D, 4.5D, 11.5D, 5.0D, 11.5D), //3
-                Block.makeCuboidShape(2.5D, 0.0D, 2.5D, 13.5D, 7.5D, 13.5D), //4
-                Block.makeCuboidShape(2.5D, 0.0D, 2.5D, 13.5D, 7.5D, 13.5D), //5
-                Block.makeCuboidShape(0.5D, 0.5D, 0.5D, 15.5D, 11.0D, 15.5D),//6
-                Block.makeCuboidShape(0.5D, 0.0D, 0.5D, 15.5D, 14.0D, 15.5D),//7
-                Block.makeCuboidShape(0.5D, 0.0D, 0.5D, 15.5D, 15.0D, 15.5D) //8
-        };
+        return SHAPES_BY_AGE;
     }
 
     /**
@@ -120,6 +134,6 @@ public abstract class BlockCrystallinePlant extends BlockPlant<BlockCrystallineP
         if(growth > getMaxGrowthStage())
             growth = getMaxGrowthStage();
 
-        world.setBlockState(pos, this.getDefaultState().with(this.getGrowthProperty(), growth), 2);
+        GrowthSync.setGrowthState(world, pos, this.getDefaultState().with(this.getGrowthProperty(), growth));
     }
 }
@@ -15,6 +15,8 @@
  */
 package com.ki11erwolf.resynth.plant.block;
 
+import com.ki11erwolf.resynth.plant.growth.GrowthSync;
+import com.ki11erwolf.resynth.plant.growth.ProduceFaceCache;
 import com.ki11erwolf.resynth.plant.set.PlantSetProperties;
 import com.ki11erwolf.resynth.util.MathUtil;
 import net.minecraft.block.Block;
@@ -49,15 +51,48 @@ public abstract class BlockMetallicPlant extends BlockPlant<BlockMetallicPlant>
      */
     private static final DirectionProperty FACING = HorizontalBlock.HORIZONTAL_FACING;
 
+    /**
+     * The growth stage property of Metallic plant set types.
+     * Shared by every plant type, as the property is
+     * read on every tick and render.
+     */
+    private static final IntegerProperty GROWTH_STAGE = IntegerProperty.create("growth_stage", 0, 8);
+
+    /**
+     * The bounding box shapes for the various growth
+     * stages of Metallic plant set types.
+     */
+    private static final VoxelShape[] SHAPES_BY_AGE = new VoxelShape[]{
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 2.0D, 10.0D),  //1
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 4.0D, 10.0D),  //2
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 6.0D, 10.0D),  //3
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 8.0D, 10.0D),  //4
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 10.0D, 10.0D), //5
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 12.0D, 10.0D), //6
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 14.0D, 10.0D), //7
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 16.0D, 10.0D), //8
+            Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 11.0D, 10.0D)  //9
+    };
+
+    /**
+     * The produce (organic ore) block of the plant type.
+     * Held directly as it's compared against on every
+     * neighbor update.
+     */
+    private final BlockOrganicOre produceBlock;
+
     /**
      * @param plantTypeName the name of the plant set type (e.g. crystalline).
      * @param plantName the name of the plant type (e.g. diamond).
      * @param properties the properties (e.g. growth chances) of the
      *                   plant type.
+     * @param produceBlock the produce (organic ore) block of the plant type.
      */
     @SuppressWarnings("WeakerAccess")//Lies
-    public BlockMetallicPlant(String plantTypeName, String plantName, PlantSetProperties properties) {
+    public BlockMetallicPlant(String plantTypeName, String plantName, PlantSetProperties properties,
+                              BlockOrganicOre produceBlock) {
         super(plantTypeName, plantName, properties);
+        this.produceBlock = produceBlock;
     }
 
     // *************************
@@ -69,7 +104,7 @@ public abstract class BlockMetallicPlant extends BlockPlant<BlockMetallicPlant>
      */
     @Override
     IntegerProperty getGrowthProperty() {
-        return IntegerProperty.create("growth_stage", 0, 8);
+        return GROWTH_STAGE;
     }
 
     /**
@@ -77,17 +112,7 @@ public abstract class BlockMetallicPlant extends BlockPlant<BlockMetallicPlant>
      */
     @Override
     VoxelShape[] getShapeByAge() {
-        return new VoxelShape[]{
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 2.0D, 10.0D),  //1
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 4.0D, 10.0D),  //2
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 6.0D, 10.0D),  //3
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 8.0D, 10.0D),  //4
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 10.0D, 10.0D), //5
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 12.0D, 10.0D), //6
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 14.0D, 10.0D), //7
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 16.0D, 10.0D), //8
-                Block.makeCuboidShape(6.0D, 0.0D, 6.0D, 10.0D, 11.0D, 10.0D)  //9
-        };
+        return SHAPES_BY_AGE;
     }
 
     /**
@@ -125,14 +150,17 @@ public abstract class BlockMetallicPlant extends BlockPlant<BlockMetallicPlant>
      * {@inheritDoc}.
      *
      * Handles updating the plant growth stage
-     * when its produce is broken.
+     * when its produce is broken, and invalidates
+     * the sides its produce can be placed on.
      */
     @Deprecated
     @SuppressWarnings("deprecation")
     public void neighborChanged(BlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos,
                                 boolean isMoving) {
         super.neighborChanged(state, worldIn, pos, blockIn, fromPos, isMoving);
-        if(blockIn == Block.getBlockFromItem(getProduce().getItem())){
+        ProduceFaceCache.invalidate(worldIn, pos);
+
+        if(blockIn == produceBlock){
             if(worldIn.getBlockState(pos).get(getGrowthProperty()) == this.getMaxGrowthStage())
                 //Reset the plant if the player breaks its produce.
                 worldIn.setBlockState(
@@ -165,68 +193,100 @@ public abstract class BlockMetallicPlant extends BlockPlant<BlockMetallicPlant>
                         .with(HorizontalBlock.HORIZONTAL_FACING, facing), 2);
         } else {
             //Grow
-            world.setBlockState(pos, this.getDefaultState().with(this.getGrowthProperty(), growth), 2);
+            GrowthSync.setGrowthState(world, pos, this.getDefaultState().with(this.getGrowthProperty(), growth));
         }
     }
 
     /**
      * Attempts to place the plants produce in the world
-     * on either of the 4 sides.
+     * on a random one of the 4 sides it can be placed on.
+     * <p/>
+     * The sides are read from the {@link ProduceFaceCache},
+     * so a plant with no free side doesn't read the world
+     * again until a block around it changes.
      *
      * @return the direction the produce was placed, {@code null}
      * if the produce could not be placed.
      */
     @Nullable
     private Direction placeProduce(World world, BlockPos pos){
-        //Random direction.
-        int random = MathUtil.getRandomIntegerInRange(0, 4);
-
-        for(int i = 0; i < 4; i++){
-            //For each side
-            BlockPos pos1 = null;
-            BlockState block = null;
-            Direction facing = null;
-
-            if(random > 3)
-                random = 0;
-
-            switch (random){
-                case 0:
-                    pos1 = pos.north();
-                    facing = Direction.NORTH;
-                    block = world.getBlockState(pos1);
-                    break;
-                case 1:
-                    pos1 = pos.south();
-                    facing = Direction.SOUTH;
-                    block = world.getBlockState(pos1);
-                    break;
-                case 2:
-                    pos1 = pos.east();
-                    facing = Direction.EAST;
-                    block = world.getBlockState(pos1);
-                    break;
-                case 3:
-                    pos1 = pos.west();
-                    facing = Direction.WEST;
-                    block = world.getBlockState(pos1);
-                    break;
-            }
+        int faces = getProduceFaces(world, pos);
+        int count = Integer.bitCount(faces);
+        if(count == 0)
+            return null;
+
+        //Random free side, then the others in order.
+        int start = count == 1 ? 0 : MathUtil.getRandom().nextInt(count);
+        boolean stale = false;
 
-            if(block == null)
-                return null;
+        for(int i = 0; i < count; i++){
+            Direction facing = Direction.byHorizontalIndex(getSetBit(faces, (start + i) % count));
+            BlockPos producePos = pos.offset(facing);
 
-            //Place produce block.
-            if(block.getBlock() == Blocks.AIR && world.getBlockState(pos1.down()).isSolid()){
-                if(world.setBlockState(pos1, Block.getBlockFromItem(getProduce().getItem()).getDefaultState()))
-                    return facing;
-                else return null;
+            //Changes that don't notify neighbours aren't seen by the
+            //cache, so the chosen side is checked before it's replaced.
+            if(!canPlaceProduce(world, producePos)){
+                stale = true;
+                continue;
             }
 
-            random++;
+            if(stale)
+                ProduceFaceCache.invalidate(world, pos);
+
+            if(world.setBlockState(producePos, produceBlock.getDefaultState()))
+                return facing;
+            else return null;
         }
 
-        //Could not place on any side.
+        ProduceFaceCache.invalidate(world, pos);
         return null;
     }
+
+    /**
+     * @param mask a bit mask.
+     * @param n the index of the set bit to find, counting
+     *          from the lowest set bit.
+     * @return the position of the {@code n}th set bit in the mask.
+     */
+    private static int getSetBit(int mask, int n){
+        for(int i = 0; i < n; i++)
+            mask &= mask - 1;
+
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Used to get the sides of the plant its produce can be
+     * placed on, reading them from the world if they're not
+     * cached.
+     *
+     * @return a mask of the sides (bits indexed by
+     * {@link Direction#getHorizontalIndex()}) the produce
+     * can be placed on.
+     */
+    private static int getProduceFaces(World world, BlockPos pos){
+        int faces = ProduceFaceCache.get(world, pos);
+
+        if(faces == ProduceFaceCache.UNKNOWN){
+            faces = 0;
+
+            for(int i = 0; i < 4; i++){
+                if(canPlaceProduce(world, pos.offset(Direction.byHorizontalIndex(i))))
+                    faces |= 1 << i;
+            }
+
+            ProduceFaceCache.put(world, pos, faces);
+        }
+
+        return faces;
+    }
+
+    /**
+     * @param pos the position to place the produce at.
+     * @return {@code true} if the position is empty and
+     * has a solid block underneath it.
+     */
+    private static boolean canPlaceProduce(World world, BlockPos pos){
+        return world.getBlockState(pos).getBlock() == Blocks.AIR && world.getBlockState(pos.down()).isSolid();
+    }
 }
@@ -16,14 +16,31 @@
 package com.ki11erwolf.resynth.plant.block;
 
 import com.ki11erwolf.resynth.block.BlockEnhancer;
+import com.ki11erwolf.resynth.block.BlockMineralSoil;
 import com.ki11erwolf.resynth.block.ResynthBlock;
 import com.ki11erwolf.resynth.block.ResynthBlocks;
-import com.ki11erwolf.resynth.block.tileEntity.TileEntityMineralSoil;
+import com.ki11erwolf.resynth.block.storage.MineralSoilStorage;
+import com.ki11erwolf.resynth.config.ConfigCategory;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
 import com.ki11erwolf.resynth.item.ItemMineralHoe.InfoProvider;
+import com.ki11erwolf.resynth.plant.growth.CropGrowthHooks;
+import com.ki11erwolf.resynth.plant.growth.GrowthChanceCache;
+import com.ki11erwolf.resynth.plant.growth.GrowthChanceTable;
+import com.ki11erwolf.resynth.plant.growth.GrowthJournal;
+import com.ki11erwolf.resynth.plant.growth.GrowthLod;
+import com.ki11erwolf.resynth.plant.growth.GrowthMode;
+import com.ki11erwolf.resynth.plant.growth.LightCache;
+import com.ki11erwolf.resynth.plant.growth.PlantRegistry;
+import com.ki11erwolf.resynth.plant.growth.ProduceFaceCache;
+import com.ki11erwolf.resynth.plant.growth.ScheduledGrowth;
 import com.ki11erwolf.resynth.plant.item.ItemSeeds;
 import com.ki11erwolf.resynth.plant.set.PlantSetProperties;
+import com.ki11erwolf.resynth.simulation.GrowthForecast;
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
 import com.ki11erwolf.resynth.util.MathUtil;
 import com.ki11erwolf.resynth.util.MinecraftUtil;
+import com.ki11erwolf.resynth.util.TickBudget;
 import mcp.mobius.waila.api.IComponentProvider;
 import mcp.mobius.waila.api.IDataAccessor;
 import mcp.mobius.waila.api.IPluginConfig;
@@ -46,10 +63,10 @@ import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.IBlockReader;
 import net.minecraft.world.IWorld;
 import net.minecraft.world.IWorldReader;
+import net.minecraft.world.GameRules;
 import net.minecraft.world.World;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import net.minecraftforge.common.ForgeHooks;
 import net.minecraftforge.common.IPlantable;
 import net.minecraftforge.fml.loading.FMLEnvironment;
 
@@ -74,12 +91,41 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      */
     private static final String PLANT_PREFIX = "plant";
 
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig GROWTH_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The number of blocks in a chunk section - the odds
+     * of a single vanilla random tick picking a specific block.
+     */
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
     /**
      * The unique properties of this specific plant type instance. Should
      * be config specified.
      */
     final PlantSetProperties properties;
 
+    /**
+     * The precomputed growth chances of this plant type.
+     * Lazily built, and discarded when the config is reloaded.
+     */
+    private volatile GrowthChanceTable growthChanceTable;
+
+    /**
+     * The id of this plant type in the {@link GrowthJournal}.
+     */
+    private final int journalId;
+
+    /**
+     * {@link #growStages(World, BlockPos, int)} as work for the
+     * {@link TickBudget}, held so growing doesn't allocate it.
+     */
+    private final TickBudget.PositionWork growWork = this::growInLight;
+
     /**
      * Resynth plant block constructor.
      *
@@ -99,7 +145,11 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
         );
 
         this.properties = properties;
+        this.journalId = GrowthJournal.registerPlant(plantTypeName + "_" + PLANT_PREFIX + "_" + plantName);
         this.setDefaultState(this.stateContainer.getBaseState().with(this.getGrowthProperty(), 0));
+
+        if(properties instanceof ConfigCategory)
+            ((ConfigCategory) properties).addReloadListener(this::onConfigReloaded);
     }
 
     // *********
@@ -134,6 +184,48 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
                 && this.isValidGround(worldIn.getBlockState(pos.down()));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Adds the plant to the {@link PlantRegistry} when it's
+     * kept, and schedules its next growth when it's grown by
+     * the scheduled growth engine.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onBlockAdded(BlockState state, World worldIn, BlockPos pos, BlockState oldState, boolean isMoving) {
+        super.onBlockAdded(state, worldIn, pos, oldState, isMoving);
+
+        if(worldIn.isRemote)
+            return;
+
+        if(PlantRegistry.isTracking() && oldState.getBlock() != this)
+            PlantRegistry.add(worldIn, pos);
+
+        if(GROWTH_CONFIG.getGrowthMode() == GrowthMode.SCHEDULED)
+            scheduleGrowth(worldIn, state, pos, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Removes the plant from the {@link PlantRegistry},
+     * the {@link GrowthChanceCache} and the
+     * {@link ProduceFaceCache}.
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public void onReplaced(BlockState state, World worldIn, BlockPos pos, BlockState newState, boolean isMoving) {
+        if(!worldIn.isRemote && newState.getBlock() != this){
+            PlantRegistry.remove(worldIn, pos);
+            ScheduledGrowth.remove(worldIn, pos);
+            GrowthChanceCache.invalidate(worldIn, pos);
+            ProduceFaceCache.invalidate(worldIn, pos);
+        }
+
+        super.onReplaced(state, worldIn, pos, newState, isMoving);
+    }
+
     /**
      * Handles removing the plant from the world
      * if it is no longer in a valid position.
@@ -273,19 +365,11 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      *
      * @param pos position of the soil block.
      * @return the Mineral Concentration of the Mineral Soil
-     * block below the plant. Will be 0 if no soil block
-     * is below the plant.
+     * block below the plant, in tenths of a percent. Will
+     * be 0 if no soil block is below the plant.
      */
-    private float getMineralPercent(World world, BlockPos pos){
-        TileEntityMineralSoil te = null;
-
-        if(world.getTileEntity(pos.down()) instanceof TileEntityMineralSoil)
-            te = (TileEntityMineralSoil) world.getTileEntity(pos.down());
-
-        if(te == null)
-            return 0;
-
-        return te.getMineralPercentage();
+    private int getMineralTenths(World world, BlockPos pos){
+        return MineralSoilStorage.getMineralTenths(world, pos.down());
     }
 
     /**
@@ -298,13 +382,19 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * blocks enhancer block.
      */
     private float getMineralPercentIncrease(World world, BlockPos pos){
-        BlockState enhancer = world.getBlockState(pos.down().down());
-
-        if(enhancer.getBlock() instanceof BlockEnhancer){
-            return ((BlockEnhancer)enhancer.getBlock()).getIncrease();
-        }
+        return BlockEnhancer.getIncrease(getEnhancerTier(world, pos));
+    }
 
-        return 0;
+    /**
+     * Used to get the tier of any Enhancer block
+     * underneath the Mineral Soil.
+     *
+     * @param pos position of the plant block.
+     * @return the tier of the Enhancer block under the
+     * soil, or {@code 0} if there isn't one.
+     */
+    private int getEnhancerTier(World world, BlockPos pos){
+        return MineralSoilStorage.getEnhancerTier(world, pos.down());
     }
 
     /**
@@ -323,10 +413,27 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * @return the integer growth stage
      * of the given plant block.
      */
-    int getGrowthStage(BlockState state){
+    public int getGrowthStage(BlockState state){
         return state.get(getGrowthProperty());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Plants only random tick when they're grown by
+     * random ticks ({@link GrowthMode#RANDOM}). Other
+     * growth engines call the plant directly.
+     * <p/>
+     * Fully grown plants are dormant and never random
+     * tick, as there's nothing left for them to do. This
+     * also lets chunk sections containing only fully grown
+     * plants skip random ticks entirely.
+     */
+    @Override
+    public boolean ticksRandomly(BlockState state) {
+        return GROWTH_CONFIG.getGrowthMode() == GrowthMode.RANDOM && !isFullyGrown(state);
+    }
+
     /**
      * Called randomly to grow the plant. Takes plant
      * growth chance and Mineral Soil Mineral Concentration
@@ -334,17 +441,77 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * This then allows the implementing class to specify how
      * the plant should grow without worrying about growth
      * chances.
+     * <p/>
+     * Plants far from every player only use one in every
+     * few random ticks, which stands for all of them
+     * (see {@link GrowthLod}).
+     * <p/>
+     * Also called by scheduled ticks when the plant is
+     * grown by the scheduled growth engine.
      */
     @Override
     @SuppressWarnings("deprecation")
     public void tick(BlockState state, World worldIn, BlockPos pos, Random random) {
         super.tick(state, worldIn, pos, random);
 
-        if(canGrow(worldIn, pos)){
-            callGrowPlant(worldIn, state, pos, 1);
+        if(GROWTH_CONFIG.getGrowthMode() == GrowthMode.SCHEDULED){
+            tickScheduled(worldIn, state, pos);
+            return;
+        }
+
+        int weight = GrowthLod.getRandomTickWeight(worldIn, pos);
+        if(weight > 1){
+            growByWeightedRandomTick(worldIn, state, pos, weight);
+            return;
+        }
+
+        if(weight == 1 && canGrow(worldIn, pos)){
+            callGrowPlant(worldIn, pos, 1);
         }
     }
 
+    /**
+     * Called by the batched growth engine to grow the plant
+     * exactly like a single vanilla random tick landing on it.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     */
+    public void growByRandomTick(World world, BlockState state, BlockPos pos){
+        if(!isFullyGrown(state) && canGrow(world, pos))
+            callGrowPlant(world, pos, 1);
+    }
+
+    /**
+     * Grows the plant by a random tick that stands for the given
+     * number of random ticks landing on it (see {@link GrowthLod}):
+     * the growth environment is checked once, and each of the
+     * random ticks draws its growth chance.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     * @param weight the number of random ticks the tick stands for.
+     */
+    private void growByWeightedRandomTick(World world, BlockState state, BlockPos pos, int weight){
+        if(isFullyGrown(state))
+            return;
+
+        if(!isGrowthEnvironment(world, pos)){
+            journal(world, pos, GrowthJournal.BAD_ENVIRONMENT);
+            return;
+        }
+
+        int stages = MathUtil.getSuccesses(
+                weight, getGrowthChance(world, pos) / 100.0D, getRemainingGrowthStages(state)
+        );
+        journal(world, pos, stages);
+
+        if(stages > 0)
+            callGrowPlant(world, pos, stages);
+    }
+
     // ************
     // Growth Check
     // ************
@@ -359,19 +526,317 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * @return {@code true} if the plant can grow.
      */
     private boolean canGrow(World world, BlockPos pos){
-        if (!world.isAreaLoaded(pos, 1))
+        if(!isGrowthEnvironment(world, pos)){
+            journal(world, pos, GrowthJournal.BAD_ENVIRONMENT);
             return false;
+        }
+
+        boolean grows = MathUtil.thresholdChance(getGrowthThreshold(world, pos));
+        journal(world, pos, grows ? 1 : 0);
+        return grows;
+    }
 
-        if (!(world.getLightSubtracted(pos.up(), 0) >= 9))
+    /**
+     * Records a growth evaluation of the plant in the
+     * {@link GrowthJournal}, if it's enabled.
+     *
+     * @param pos the position of the plant.
+     * @param result the number of stages the plant grew,
+     *               or {@link GrowthJournal#BAD_ENVIRONMENT}.
+     */
+    private void journal(World world, BlockPos pos, int result){
+        if(!GrowthJournal.isEnabled())
+            return;
+
+        GrowthJournal.record(
+                world.getDimension().getType().getId(), pos, journalId, getMineralTenths(world, pos),
+                getEnhancerTier(world, pos), result, world.getGameTime()
+        );
+    }
+
+    /**
+     * Used to check if conditions are right for the plant
+     * to grow (chunk load/light), without taking growth
+     * chances into account.
+     *
+     * @param pos position of the plant block.
+     * @return {@code true} if the plant is in a loaded area
+     * with enough light to grow.
+     */
+    private boolean isGrowthEnvironment(World world, BlockPos pos){
+        if (!world.isAreaLoaded(pos, 1))
             return false;
 
-        float mineralPercentChance = getMineralPercent(world, pos);
-        float mineralPercentIncrease = getMineralPercentIncrease(world, pos);
+        return LightCache.getLight(world, pos.getX(), pos.getY() + 1, pos.getZ()) >= 9;
+    }
+
+    /**
+     * Used to get the combined percentage chance of the plant
+     * growing on a single random tick, based on plant growth
+     * chance, mineral content and any enhancer blocks.
+     *
+     * @param pos position of the plant block.
+     * @return the chance (0.0 - 100.0) of the plant growing
+     * on a single random tick.
+     * @see #getGrowthThreshold(World, BlockPos)
+     */
+    private double getGrowthChance(World world, BlockPos pos){
+        return GrowthChanceTable.toPercentage(getGrowthThreshold(world, pos));
+    }
+
+    /**
+     * Used to get the combined chance of the plant growing on a
+     * single random tick, as a fixed-point threshold for
+     * {@link MathUtil#thresholdChance(int)}.
+     * <p/>
+     * The chance is the product of the Mineral Content chance
+     * (plus the enhancer increase if the Mineral Content is
+     * above 49.9) and the plant types growth chance, looked up
+     * from the plant types {@link GrowthChanceTable}.
+     * <p/>
+     * The chance is cached in the {@link GrowthChanceCache}
+     * until the soil or enhancer underneath the plant changes.
+     *
+     * @param pos position of the plant block.
+     * @return the growth chance threshold of the plant.
+     */
+    private int getGrowthThreshold(World world, BlockPos pos){
+        int threshold = GrowthChanceCache.get(world, pos);
+
+        if(threshold == GrowthChanceCache.UNKNOWN){
+            threshold = getGrowthChanceTable().getThreshold(
+                    getMineralTenths(world, pos), getEnhancerTier(world, pos)
+            );
+
+            GrowthChanceCache.put(world, pos, threshold);
+        }
+
+        return threshold;
+    }
+
+    /**
+     * @return the growth chance table of this plant type,
+     * building it if needed.
+     */
+    private GrowthChanceTable getGrowthChanceTable(){
+        GrowthChanceTable table = growthChanceTable;
+
+        if(table == null)
+            growthChanceTable = table = new GrowthChanceTable(getPlantGrowthChance());
+
+        return table;
+    }
+
+    /**
+     * Called when the plant types config is reloaded. Discards
+     * the growth chance table (and every cached growth chance)
+     * so they're rebuilt from the new config values.
+     */
+    private void onConfigReloaded(){
+        growthChanceTable = null;
+        GrowthChanceCache.clear();
+    }
+
+    // *******************
+    // Random Tick Batches
+    // *******************
+
+    /**
+     * Called by the growth engines to grow the plant in
+     * place of vanilla random ticks (e.g. by the batched
+     * growth engine, or to catch up on growth missed while
+     * the plant was unloaded).
+     * <p/>
+     * Vanilla picks a number of random blocks in every chunk
+     * section every tick ({@code randomTickSpeed}), so each
+     * pick lands on this plant with a chance of 1 in 4096.
+     * The growth chance (and environment) is evaluated once,
+     * after which the number of successful random ticks is
+     * drawn from the same distribution the individual random
+     * ticks would have produced. The plant is then grown once
+     * by the total number of successful ticks.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     * @param sectionRandomTicks the number of random blocks vanilla
+     *                           would have picked in the plants
+     *                           chunk section.
+     */
+    public void growByRandomTicks(World world, BlockState state, BlockPos pos, long sectionRandomTicks){
+        double randomTickChance = getRandomTickChance(world, state, pos);
+        if(randomTickChance <= 0)
+            return;
+
+        int stages = MathUtil.getSuccesses(sectionRandomTicks, randomTickChance, getRemainingGrowthStages(state));
+        journal(world, pos, stages);
+
+        if(stages > 0)
+            callGrowPlant(world, pos, stages);
+    }
+
+    /**
+     * Used to get the chance (0.0 - 1.0) of a single vanilla random
+     * tick in the plants chunk section growing the plant. Takes the
+     * growth environment into account.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     * @return the chance of a single random tick in the plants chunk
+     * section growing the plant, or {@code 0} if the plant is
+     * fully grown or can't grow where it is.
+     */
+    public double getRandomTickChance(World world, BlockState state, BlockPos pos){
+        if(isFullyGrown(state) || !isGrowthEnvironment(world, pos))
+            return 0;
+
+        return getGrowthChance(world, pos) / 100.0D / SECTION_VOLUME;
+    }
+
+    /**
+     * @param state the current state of the plant.
+     * @return the number of growth stages the
+     * plant can still grow before it's fully grown.
+     */
+    public int getRemainingGrowthStages(BlockState state){
+        return Math.max(0, getMaxGrowthStage() - getGrowthStage(state));
+    }
+
+    // ****************
+    // Scheduled Growth
+    // ****************
+
+    /**
+     * Handles a scheduled tick when the plant is grown by the
+     * scheduled growth engine. Grows the plant if it's due to
+     * grow, otherwise waits until it is.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     */
+    private void tickScheduled(World world, BlockState state, BlockPos pos){
+        long now = world.getGameTime();
+        long due = ScheduledGrowth.getDueTime(world, pos);
+
+        //A tick restored with the chunk before the plant was resumed.
+        if(due == ScheduledGrowth.UNKNOWN)
+            due = sampleDueTime(world, pos);
+
+        //Re-evaluation point (or outdated tick) - not due yet.
+        if(due > now){
+            world.getPendingBlockTicks().scheduleTick(pos, this, getScheduledTickDelay(due - now));
+            return;
+        }
+
+        ScheduledGrowth.remove(world, pos);
+        if(isGrowthEnvironment(world, pos))
+            callGrowPlant(world, pos, 1);
+
+        scheduleGrowth(world, world.getBlockState(pos), pos, false);
+    }
+
+    /**
+     * Samples the number of ticks until the plant next grows,
+     * from the same combined chance used by random ticks, and
+     * schedules a tick for when it's due.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     * @param resample {@code true} to sample a new due time even if
+     *                 the plant already has a tick scheduled (e.g.
+     *                 when the growth chance has changed).
+     */
+    private void scheduleGrowth(World world, BlockState state, BlockPos pos, boolean resample){
+        if(state.getBlock() != this || isFullyGrown(state)){
+            ScheduledGrowth.remove(world, pos);
+            return;
+        }
+
+        boolean scheduled = world.getPendingBlockTicks().isTickScheduled(pos, this);
+        if(scheduled && !resample)
+            return;
+
+        long due = sampleDueTime(world, pos);
+
+        //A scheduled tick can't be brought forward, the existing
+        //tick will pick up the new due time when it runs.
+        if(!scheduled)
+            world.getPendingBlockTicks().scheduleTick(
+                    pos, this, getScheduledTickDelay(due == Long.MAX_VALUE ? Long.MAX_VALUE : due - world.getGameTime())
+            );
+    }
+
+    /**
+     * Samples and stores the game time the plant is next due
+     * to grow, from the same combined chance used by random ticks.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @return the sampled due time, or {@link Long#MAX_VALUE}
+     * if the plant can't grow.
+     */
+    private long sampleDueTime(World world, BlockPos pos){
+        double tickChance = (getGrowthChance(world, pos) / 100.0D / SECTION_VOLUME)
+                * world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED);
+
+        long failures = MathUtil.getFailuresBeforeSuccess(tickChance);
+        long due = (failures == Long.MAX_VALUE) ? Long.MAX_VALUE : world.getGameTime() + failures + 1;
+
+        ScheduledGrowth.setDueTime(world, pos, due);
+        return due;
+    }
+
+    /**
+     * @param ticksUntilDue the number of ticks until the plant is due to grow.
+     * @return the delay of the next scheduled tick, limited to
+     * the configured maximum delay.
+     */
+    private static int getScheduledTickDelay(long ticksUntilDue){
+        return (int) Math.max(1, Math.min(ticksUntilDue, GROWTH_CONFIG.getMaxScheduledGrowthDelay()));
+    }
+
+    /**
+     * Called when the Mineral Content of the Mineral Soil
+     * block underneath the plant, or the Enhancer block
+     * underneath the soil, changes. Invalidates the cached
+     * growth chance of the plant and samples a new due
+     * time for the next growth of the plant when it's
+     * grown by the scheduled growth engine.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public void onSoilChanged(World world, BlockPos pos){
+        GrowthChanceCache.invalidate(world, pos);
 
-        //With percentage increase if mineral percent is above 49.9
-        float combined = mineralPercentChance + ((mineralPercentChance > 49.9) ? mineralPercentIncrease : 0);
+        if(world.isRemote || GROWTH_CONFIG.getGrowthMode() != GrowthMode.SCHEDULED)
+            return;
 
-        return MathUtil.chance(combined) && MathUtil.chance(getPlantGrowthChance());
+        scheduleGrowth(world, world.getBlockState(pos), pos, true);
+    }
+
+    /**
+     * Called by the growth engines when a plant is found in a
+     * newly loaded chunk. Ensures the next growth of the plant
+     * is scheduled when it's grown by the scheduled growth engine.
+     * <p/>
+     * Due times aren't saved, so a plant whose tick was restored
+     * with the chunk still samples a new due time - otherwise the
+     * restored tick would only find out when it runs, which may
+     * be up to the maximum scheduled growth delay later.
+     *
+     * @param world the world the plant is in.
+     * @param state the current state of the plant.
+     * @param pos the position of the plant.
+     */
+    public void resumeGrowth(World world, BlockState state, BlockPos pos){
+        if(GROWTH_CONFIG.getGrowthMode() == GrowthMode.SCHEDULED)
+            scheduleGrowth(
+                    world, state, pos, ScheduledGrowth.getDueTime(world, pos) == ScheduledGrowth.UNKNOWN
+            );
     }
 
     // **********
@@ -387,7 +852,7 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
         MinecraftUtil.spawnItemInWorld(getSeedsItem(), worldIn, pos);
 
         if(getGrowthStage(state) == getMaxGrowthStage() && dropsProduceWhenGrown() && getProduce() != null)
-            MinecraftUtil.spawnItemStackInWorld(getProduce(), worldIn, pos);
+            MinecraftUtil.spawnItemStackInWorld(getProduce().copy(), worldIn, pos);
     }
 
     /**
@@ -460,12 +925,13 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
     }
 
     /**
-     * Called when bonemeal is used on the plant.
-     * Grows the plant.
+     * Called when bonemeal (or the Mineral Hoe) is used on
+     * the plant. Grows the plant immediately - player actions
+     * aren't deferred by the {@link TickBudget}.
      */
     @Override
     public void grow(World worldIn, Random rand, BlockPos pos, BlockState state) {
-        callGrowPlant(worldIn, state, pos, getBonemealIncrease());
+        growStages(worldIn, pos, getBonemealIncrease());
     }
 
     // *****
@@ -475,18 +941,72 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
     /**
      * {@inheritDoc}
      * <p/>
-     * Handles displaying the plants growth (in stages) in the
-     * Hwyla tooltip.
+     * Handles displaying the plants growth (in stages), and the
+     * estimated time until it's fully grown, in the Hwyla tooltip.
      */
     @Override
     public void appendBody(List<ITextComponent> tooltip, IDataAccessor accessor, IPluginConfig config) {
-        if(tooltip.isEmpty())
-            tooltip.add(new StringTextComponent(
-                    getGrowthStageMessage(
-                            getGrowthStage(accessor.getWorld().getBlockState(accessor.getPosition())),
-                            getMaxGrowthStage(), true
-                    )
-            ));
+        if(!tooltip.isEmpty())
+            return;
+
+        BlockState state = accessor.getWorld().getBlockState(accessor.getPosition());
+        tooltip.add(new StringTextComponent(getGrowthStageMessage(getGrowthStage(state), getMaxGrowthStage(), true)));
+
+        String eta = getGrowthEtaMessage(accessor.getWorld(), state, accessor.getPosition());
+        if(eta != null)
+            tooltip.add(new StringTextComponent(eta));
+    }
+
+    /**
+     * Gets the estimated time until the plant is fully
+     * grown message from the lang file, forecast by the
+     * {@link GrowthForecast}. Uses the client visible state
+     * of the soil, as the Mineral Content isn't synced, and
+     * the default random tick speed, as the clients copy of
+     * the game rules isn't synced either. So the message is
+     * labeled as an estimate.
+     *
+     * @return the formatted localized message, or {@code null}
+     * if the plant is fully grown or can't grow.
+     */
+    private String getGrowthEtaMessage(World world, BlockState state, BlockPos pos){
+        int stages = getRemainingGrowthStages(state);
+        BlockState soil = world.getBlockState(pos.down());
+
+        if(stages <= 0 || !isValidGround(soil))
+            return null;
+
+        GrowthParameters parameters = new GrowthParameters(
+                getPlantGrowthChance(),
+                BlockMineralSoil.getEstimatedMineralContent(soil),
+                getMineralPercentIncrease(world, pos)
+        );
+
+        double expected = GrowthForecast.getExpectedTicks(parameters, stages);
+        if(Double.isInfinite(expected))
+            return null;
+
+        return TextFormatting.GREEN + I18n.format(
+                "misc.resynth.growth_eta",
+                TextFormatting.GOLD + formatTicks(expected) + TextFormatting.GREEN,
+                TextFormatting.GOLD + formatTicks(GrowthForecast.getPercentileTicks(parameters, stages, 0.9D))
+        );
+    }
+
+    /**
+     * @param ticks a number of game ticks.
+     * @return the given number of ticks as a short
+     * human readable time (e.g. {@code 1h 5m}).
+     */
+    private static String formatTicks(double ticks){
+        long seconds = (long) Math.ceil(ticks / 20.0D);
+
+        if(seconds >= 3600)
+            return (seconds / 3600) + "h " + ((seconds % 3600) / 60) + "m";
+        if(seconds >= 60)
+            return (seconds / 60) + "m " + (seconds % 60) + "s";
+
+        return seconds + "s";
     }
 
     // *************
@@ -533,7 +1053,8 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      *
      * @return the {@link IntegerProperty} that
      * defines the growth stages of the specific
-     * plant set type.
+     * plant set type. Called on every tick and
+     * render, so should return a shared constant.
      */
     abstract IntegerProperty getGrowthProperty();
 
@@ -543,7 +1064,9 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * during its growth stages.
      *
      * @return an array of the plant bounding
-     * box shapes for all the growth stages.
+     * box shapes for all the growth stages. Called
+     * on every frame, so should return a shared
+     * constant array that must not be modified.
      */
     abstract VoxelShape[] getShapeByAge();
 
@@ -589,19 +1112,75 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
 
     /**
      * Used to call {@link #growPlant(World, BlockState, BlockPos, int)}
-     * while notifying forge hooks of a plant growth. Also ensures the plant
+     * while notifying forge hooks of a plant growth (only if anything is
+     * listening, see {@link CropGrowthHooks}). Also ensures the plant
      * is not already fully grown.
+     * <p/>
+     * The growth is run within the worlds {@link TickBudget}, so may
+     * be deferred to a later tick - in which case the plant is
+     * re-read from the world when it's grown (or dropped if its
+     * chunk has unloaded since), and posted with the next batch
+     * if it was deferred out of one. Growth that
+     * isn't deferred doesn't allocate.
      */
-    private void callGrowPlant(World world, BlockState state, BlockPos pos, int increase){
-        //Don't grow if fully grown.
-        if(
-                ((BlockPlant)world.getBlockState(pos).getBlock()).getGrowthStage(world.getBlockState(pos))
-                >= ((BlockPlant)world.getBlockState(pos).getBlock()).getMaxGrowthStage()
-        ) return;
+    private void callGrowPlant(World world, BlockPos pos, int increase){
+        if(TickBudget.tryRun(world, pos, increase, growWork))
+            return;
+
+        boolean batched = CropGrowthHooks.isBatching(world);
+        TickBudget.run(world, () -> {
+            //The chunk may have unloaded while the growth waited.
+            if(!world.isBlockLoaded(pos))
+                return;
+
+            if(growInLight(world, pos, increase) && batched)
+                CropGrowthHooks.onDeferredGrowPost(world, pos);
+        });
+    }
+
+    /**
+     * Grows the plant by natural growth, provided it still has
+     * enough light. Growth checks read the {@link LightCache},
+     * which can lag behind the lighting engine (it updates light
+     * asynchronously), so the live light level is confirmed before
+     * the plant changes.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param stages the number of stages to grow.
+     * @return {@code true} if the plant grew.
+     */
+    private boolean growInLight(World world, BlockPos pos, int stages){
+        return world.getLightSubtracted(pos.up(), 0) >= 9 && growStages(world, pos, stages);
+    }
+
+    /**
+     * Immediately grows the plant at the given position by the
+     * given number of growth stages (capped at fully grown),
+     * notifying forge hooks of the growth. Ignores growth
+     * chances and the {@link TickBudget}.
+     * <p/>
+     * Used by {@link com.ki11erwolf.resynth.plant.growth.AreaGrowth},
+     * bonemeal and the Mineral Hoe and, through the tick budget,
+     * by every other growth path.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param stages the number of growth stages to grow the plant by.
+     * @return {@code true} if the plant was grown, {@code false}
+     * if the position isn't this plant or it's already fully grown.
+     */
+    public boolean growStages(World world, BlockPos pos, int stages){
+        BlockState state = world.getBlockState(pos);
+
+        //Don't grow if replaced or fully grown.
+        if(state.getBlock() != this || isFullyGrown(state) || stages <= 0)
+            return false;
 
-        ForgeHooks.onCropsGrowPre(world, pos, state, false);
-        growPlant(world, state, pos, increase);
-        ForgeHooks.onCropsGrowPost(world, pos, state);
+        CropGrowthHooks.onGrowPre(world, pos, state);
+        growPlant(world, state, pos, Math.min(stages, getRemainingGrowthStages(state)));
+        CropGrowthHooks.onGrowPost(world, pos, state);
+        return true;
     }
 
     // ***************************
@@ -623,6 +1202,8 @@ public abstract class BlockPlant<T extends BlockPlant<T>> extends ResynthBlock<T
      * as it's only known when creating the plant set.
      *
      * @return the produce block/item for this specific plant type.
+     * The returned stack is shared and must not be modified -
+     * {@link ItemStack#copy()} it before giving it to the world.
      */
     protected abstract ItemStack getProduce();
 }
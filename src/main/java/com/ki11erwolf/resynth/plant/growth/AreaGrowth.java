@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * Grows every Resynth plant in an area of the world by a
+ * number of growth stages at once. Used by the creative
+ * Mineral Hoe and the {@code /resynth grow} command to
+ * stage (test) farms.
+ * <p/>
+ * The area is processed one chunk section (16x16x16) at a
+ * time. The growth changes are written with {@link GrowthSync},
+ * and vanilla sends the changes of each chunk made in a tick
+ * to clients together.
+ */
+public final class AreaGrowth {
+
+    /**
+     * The size (in blocks) of a chunk section on each axis.
+     */
+    private static final int SECTION_SIZE = 16;
+
+    /**Private Constructor.*/
+    private AreaGrowth(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Grows every Resynth plant within the given (cubic)
+     * radius of a position.
+     *
+     * @param world the world the plants are in.
+     * @param center the center of the area.
+     * @param radius the radius of the area, in blocks.
+     * @param stages the number of growth stages to grow each plant by.
+     * @return the number of plants grown.
+     */
+    public static int growRadius(World world, BlockPos center, int radius, int stages){
+        return growRegion(world, center.add(-radius, -radius, -radius), center.add(radius, radius, radius), stages);
+    }
+
+    /**
+     * Grows every Resynth plant within the region between
+     * two corner positions (inclusive). Plants in unloaded
+     * chunks are ignored.
+     *
+     * @param world the world the plants are in.
+     * @param from one corner of the region.
+     * @param to the opposite corner of the region.
+     * @param stages the number of growth stages to grow each plant by.
+     * @return the number of plants grown.
+     */
+    public static int growRegion(World world, BlockPos from, BlockPos to, int stages){
+        if(world.isRemote || stages <= 0)
+            return 0;
+
+        int minX = Math.min(from.getX(), to.getX()), maxX = Math.max(from.getX(), to.getX());
+        int minY = Math.max(0, Math.min(from.getY(), to.getY()));
+        int maxY = Math.min(world.getHeight() - 1, Math.max(from.getY(), to.getY()));
+        int minZ = Math.min(from.getZ(), to.getZ()), maxZ = Math.max(from.getZ(), to.getZ());
+        int grown = 0;
+
+        for(int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++){
+            for(int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++){
+                if(!world.getChunkProvider().chunkExists(chunkX, chunkZ))
+                    continue;
+
+                Chunk chunk = world.getChunk(chunkX, chunkZ);
+
+                for(int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++){
+                    ChunkSection section = chunk.getSections()[sectionY];
+                    if(ChunkSection.isEmpty(section))
+                        continue;
+
+                    grown += growSection(
+                            world,
+                            Math.max(minX, chunkX << 4), Math.min(maxX, (chunkX << 4) + SECTION_SIZE - 1),
+                            Math.max(minY, sectionY << 4), Math.min(maxY, (sectionY << 4) + SECTION_SIZE - 1),
+                            Math.max(minZ, chunkZ << 4), Math.min(maxZ, (chunkZ << 4) + SECTION_SIZE - 1),
+                            stages
+                    );
+                }
+            }
+        }
+
+        return grown;
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Grows every Resynth plant within the given bounds
+     * (inclusive), which must be inside a single chunk
+     * section.
+     *
+     * @return the number of plants grown.
+     */
+    private static int growSection(World world, int minX, int maxX, int minY, int maxY,
+                                   int minZ, int maxZ, int stages){
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int grown = 0;
+
+        for(int y = minY; y <= maxY; y++){
+            for(int x = minX; x <= maxX; x++){
+                for(int z = minZ; z <= maxZ; z++){
+                    BlockState state = world.getBlockState(pos.setPos(x, y, z));
+
+                    if(!(state.getBlock() instanceof BlockPlant))
+                        continue;
+
+                    if(((BlockPlant<?>) state.getBlock()).growStages(world, pos.toImmutable(), stages))
+                        grown++;
+                }
+            }
+        }
+
+        return grown;
+    }
+}
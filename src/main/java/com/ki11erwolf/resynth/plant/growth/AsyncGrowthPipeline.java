@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a pass of the batched growth engine across the
+ * server thread and a pool of worker threads (config enabled).
+ * <p/>
+ * At the start of the tick, the server thread copies the
+ * registered plant positions of each chunk section, without
+ * reading the world. Worker threads then make the random tick
+ * picks of each section while the world ticks (exactly like
+ * {@link BatchedGrowthEngine}, mapping the picked block index onto
+ * the plants), and at the end of the tick the server thread
+ * grows only the picked plants - one random tick per pick. The
+ * server thread reads the same plants as the synchronous engine,
+ * without drawing the picks.
+ * <p/>
+ * Each slice of sections draws from its own generator, split
+ * from the server threads generator in slice order, so passes
+ * are repeatable when the random number generators are seeded -
+ * regardless of which worker decides which slice.
+ */
+final class AsyncGrowthPipeline {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The number of chunk sections picked from
+     * by a single worker task.
+     */
+    private static final int SLICE_SIZE = 64;
+
+    /**
+     * The pass of each world that is currently being decided.
+     */
+    private static final Map<IWorld, Pass> PASSES = new HashMap<>();
+
+    /**
+     * The worker thread pool. Lazily created as
+     * it's only needed when async growth is enabled.
+     */
+    private static ExecutorService executor;
+
+    /**Private Constructor.*/
+    private AsyncGrowthPipeline(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Snapshots the registered plants of the given world and
+     * starts picking the plants to grow on the worker threads.
+     * Called at the start of the tick.
+     *
+     * @param world the world to grow the plants in.
+     * @param randomTickSpeed the number of random ticks vanilla does in
+     *                        each chunk section per tick.
+     * @param interval the number of ticks since the last pass.
+     * @return the number of plants in the snapshot.
+     */
+    static int submit(World world, int randomTickSpeed, int interval){
+        Pass pass = snapshot(world, randomTickSpeed, interval);
+        CompletableFuture<?>[] slices = new CompletableFuture<?>[pass.picks.length];
+
+        for(int i = 0; i < slices.length; i++){
+            int slice = i;
+            SplittableRandom random = MathUtil.getRandom().split();
+
+            slices[i] = CompletableFuture.runAsync(() -> pass.pick(slice, random), getExecutor());
+        }
+
+        pass.decisions = CompletableFuture.allOf(slices);
+        PASSES.put(world, pass);
+        return pass.plants;
+    }
+
+    /**
+     * Waits for the picks of the given world's pass (if any)
+     * and grows the picked plants. Called at the end of the tick.
+     *
+     * @param world the world to grow the plants in.
+     */
+    static void apply(World world){
+        Pass pass = PASSES.remove(world);
+        if(pass == null)
+            return;
+
+        try {
+            pass.decisions.join();
+        } catch (CompletionException e){
+            LOG.error("Failed to pick plants to grow, skipping growth pass", e);
+            return;
+        }
+
+        for(long[] picks : pass.picks){
+            for(long position : picks)
+                BatchedGrowthEngine.growPlant(world, BlockPos.fromLong(position));
+        }
+    }
+    /**
+     * @param world the world to check.
+     * @return {@code true} if a pass was started in the
+     * given world and hasn't been applied yet.
+     */
+    static boolean isPending(IWorld world){
+        return PASSES.containsKey(world);
+    }
+
+    /**
+     * Discards the pass (if any) of an unloaded world.
+     *
+     * @param world the unloaded world.
+     */
+    static void discard(IWorld world){
+        PASSES.remove(world);
+    }
+
+    /**
+     * Discards every pass and shuts down the worker thread
+     * pool (if it was created). Called when the server stops,
+     * so single player doesn't keep a pool per world loaded.
+     */
+    static void shutdown(){
+        PASSES.clear();
+
+        if(executor != null){
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Copies the registered plant positions of each
+     * chunk section in the given world into a new pass.
+     *
+     * @param world the world the plants are in.
+     * @param randomTickSpeed the number of random ticks in each
+     *                        chunk section per tick.
+     * @param interval the number of ticks since the last pass.
+     * @return the new pass.
+     */
+    private static Pass snapshot(World world, int randomTickSpeed, int interval){
+        Long2ObjectMap<LongSet> sections = PlantRegistry.getSections(world);
+        long[] sectionKeys = sections.keySet().toLongArray();
+        long[][] plants = new long[sectionKeys.length][];
+        long[] randomTicks = new long[sectionKeys.length];
+        int count = 0, plantCount = 0;
+
+        for(long sectionKey : sectionKeys){
+            LongSet section = sections.get(sectionKey);
+            if(section == null)
+                continue;
+
+            long elapsed = GrowthLod.getElapsedTicks(world, sectionKey, interval);
+            if(elapsed <= 0)
+                continue;
+
+            plants[count] = section.toLongArray();
+            randomTicks[count++] = randomTickSpeed * elapsed;
+            plantCount += section.size();
+        }
+
+        return new Pass(plants, randomTicks, count, plantCount);
+    }
+
+    /**
+     * @return the worker thread pool, creating it if needed.
+     */
+    private static ExecutorService getExecutor(){
+        if(executor == null){
+            AtomicInteger threadCount = new AtomicInteger();
+
+            executor = Executors.newFixedThreadPool(CONFIG.getAsyncGrowthThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "Resynth-Growth-Worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executor;
+    }
+
+    // ****
+    // Pass
+    // ****
+
+    /**
+     * The snapshotted plant positions of each chunk section,
+     * and the plants picked to grow, in a single growth pass.
+     * Sections are stored by index across the arrays.
+     */
+    private static class Pass {
+
+        /**
+         * The packed positions of the plants in each section.
+         */
+        private final long[][] sections;
+
+        /**
+         * The number of random ticks in each section
+         * since its plants were last grown.
+         */
+        private final long[] randomTicks;
+
+        /**
+         * The number of sections in the pass.
+         */
+        private final int size;
+
+        /**
+         * The number of plants in the pass.
+         */
+        private final int plants;
+
+        /**
+         * The packed positions of the picked plants of each
+         * slice, once picked, in pick order. Each worker only
+         * writes to its own slice.
+         */
+        private final long[][] picks;
+
+        /**
+         * Completes once every slice has been picked.
+         */
+        private CompletableFuture<Void> decisions;
+
+        /**
+         * Creates a new pass from snapshotted sections.
+         */
+        private Pass(long[][] sections, long[] randomTicks, int size, int plants){
+            this.sections = sections;
+            this.randomTicks = randomTicks;
+            this.size = size;
+            this.plants = plants;
+            this.picks = new long[(size + SLICE_SIZE - 1) / SLICE_SIZE][];
+        }
+
+        /**
+         * Picks the plants to grow in the sections of the given
+         * slice: each random tick picks a block index in its
+         * section, which is mapped onto the plants. Only uses
+         * the snapshotted positions, so is safe to call from
+         * any thread.
+         *
+         * @param slice the index of the slice.
+         * @param random the generator of the slice.
+         */
+        private void pick(int slice, SplittableRandom random){
+            LongArrayList picked = new LongArrayList();
+
+            for(int i = slice * SLICE_SIZE; i < Math.min(size, (slice + 1) * SLICE_SIZE); i++){
+                long[] plants = sections[i];
+
+                for(long tick = 0; tick < randomTicks[i]; tick++){
+                    int block = random.nextInt(GrowthParameters.SECTION_VOLUME);
+
+                    if(block < plants.length)
+                        picked.add(plants[block]);
+                }
+            }
+
+            picks[slice] = picked.toLongArray();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.eventbus.api.Event;
+
+/**
+ * Fired on the forge event bus once per pass of the batched
+ * growth engine, with the positions of every Resynth plant
+ * that grew during the pass.
+ * <p/>
+ * Lets mods that track crop growth handle a whole pass
+ * at once, instead of listening to the individual
+ * {@link net.minecraftforge.event.world.BlockEvent.CropGrowEvent}s.
+ * Only fired when at least one plant grew and the event has
+ * listeners. Not cancelable - the plants have already grown.
+ */
+public class BatchedCropGrowEvent extends Event {
+
+    /**
+     * The world the plants grew in.
+     */
+    private final World world;
+
+    /**
+     * The packed positions ({@link BlockPos#toLong()}) of the plants.
+     */
+    private final long[] positions;
+
+    /**
+     * @param world the world the plants grew in.
+     * @param positions the packed positions of the plants that grew.
+     */
+    BatchedCropGrowEvent(World world, long[] positions){
+        this.world = world;
+        this.positions = positions;
+    }
+
+    /**
+     * @return the world the plants grew in.
+     */
+    public World getWorld(){
+        return world;
+    }
+
+    /**
+     * @return the number of plants that grew.
+     */
+    public int getCount(){
+        return positions.length;
+    }
+
+    /**
+     * @param index the index of the plant (0 to {@link #getCount()} - 1).
+     * @return the position of the plant at the given index.
+     */
+    public BlockPos getPos(int index){
+        return BlockPos.fromLong(positions[index]);
+    }
+
+    /**
+     * @return a copy of the packed positions
+     * ({@link BlockPos#toLong()}) of the plants that grew.
+     */
+    public long[] getPackedPositions(){
+        return positions.clone();
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GeneralConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+import org.apache.logging.log4j.Logger;
+
+import java.util.SplittableRandom;
+
+/**
+ * The batched growth engine ({@link GrowthMode#BATCHED}).
+ * <p/>
+ * Instead of relying on vanilla random ticks (which pick
+ * blocks in every chunk section each tick, mostly missing
+ * the plants), this engine grows the plants in the
+ * {@link PlantRegistry} in a single pass, one chunk section
+ * at a time, every few ticks (config specified). The random
+ * ticks since the last pass are picked at once, and only the
+ * plants they land on are read and grown, exactly like a
+ * random tick would - keeping the growth statistics
+ * identical to random ticks.
+ * <p/>
+ * Like vanilla, only plants within random tick range
+ * of a player are grown. Plants far away from every
+ * player can be grown less often (config specified),
+ * see {@link GrowthLod}.
+ * <p/>
+ * The plants grown in each pass are reported together
+ * with a {@link BatchedCropGrowEvent}.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class BatchedGrowthEngine {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * General configuration settings (debug help).
+     */
+    private static final GeneralConfig GENERAL_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(GeneralConfig.class);
+
+    /**
+     * The number of passes to average the pass
+     * timings over when debug help is enabled.
+     */
+    private static final int PROFILE_PASSES = 100;
+
+    /**
+     * The total time (nanoseconds) spent in the profiled passes.
+     */
+    private static long profiledNanos = 0;
+
+    /**
+     * The total number of plants grown in the profiled passes.
+     */
+    private static long profiledPlants = 0;
+
+    /**
+     * The number of passes profiled so far.
+     */
+    private static int profiledPasses = 0;
+
+    /**
+     * The time (nanoseconds) spent snapshotting the
+     * current async pass on the server thread.
+     */
+    private static long asyncNanos = 0;
+
+    /**
+     * The number of plants in the current async pass.
+     */
+    private static int asyncPlants = 0;
+
+    /**Private Constructor.*/
+    private BatchedGrowthEngine(){}
+
+    /**
+     * @return {@code true} if the config has selected
+     * the batched growth engine.
+     */
+    static boolean isEnabled(){
+        return CONFIG.getGrowthMode() == GrowthMode.BATCHED;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Runs a growth pass over the entire world once
+     * every configured number of ticks.
+     * <p/>
+     * With async growth enabled, the pass is started at
+     * the start of the tick and applied at the end of it
+     * (see {@link AsyncGrowthPipeline}).
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.world.isRemote || !isEnabled())
+            return;
+
+        //The game time changes during the tick, so the end of
+        //an async pass is applied regardless of the interval.
+        if(event.phase == TickEvent.Phase.END && AsyncGrowthPipeline.isPending(event.world)){
+            applyAsyncPass(event.world);
+            return;
+        }
+
+        int interval = CONFIG.getBatchedGrowthInterval();
+        if(event.world.getGameTime() % interval != 0)
+            return;
+
+        if(CONFIG.isAsyncGrowthEnabled()){
+            if(event.phase == TickEvent.Phase.START)
+                startAsyncPass(event.world, interval);
+        } else if(event.phase == TickEvent.Phase.END)
+            growWorld(event.world, interval);
+    }
+
+    /**
+     * Removes the growth LOD state of unloaded chunks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        if(event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        GrowthLod.unloadChunk(event.getWorld(), event.getChunk().getPos());
+    }
+
+    /**
+     * Removes the pending passes and growth state of an unloaded world.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        AsyncGrowthPipeline.discard(event.getWorld());
+        GrowthLod.unloadWorld(event.getWorld());
+        CropGrowthHooks.unloadWorld(event.getWorld());
+    }
+
+    /**
+     * Shuts down the async growth worker threads.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onServerStopped(FMLServerStoppedEvent event){
+        AsyncGrowthPipeline.shutdown();
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Grows every registered plant in the given world,
+     * one chunk section at a time.
+     *
+     * @param world the world to grow the plants in.
+     * @param interval the number of ticks since the last pass.
+     */
+    private static void growWorld(World world, int interval){
+        long start = System.nanoTime();
+        int randomTickSpeed = world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED);
+
+        if(randomTickSpeed <= 0)
+            return;
+
+        //Copied as growing plants can add or remove plants.
+        Long2ObjectMap<LongSet> sections = PlantRegistry.getSections(world);
+        int plants = 0;
+
+        CropGrowthHooks.beginBatch(world);
+        for(long sectionKey : sections.keySet().toLongArray()){
+            LongSet section = sections.get(sectionKey);
+            if(section == null)
+                continue;
+
+            long elapsed = GrowthLod.getElapsedTicks(world, sectionKey, interval);
+            if(elapsed <= 0)
+                continue;
+
+            plants += section.size();
+            growSection(world, section.toLongArray(), randomTickSpeed * elapsed);
+        }
+        CropGrowthHooks.endBatch();
+
+        if(GENERAL_CONFIG.isDevHelpEnabled())
+            profile(System.nanoTime() - start, plants);
+    }
+
+    /**
+     * Snapshots the registered plants in the given world
+     * and starts picking the plants to grow on worker threads.
+     *
+     * @param world the world to grow the plants in.
+     * @param interval the number of ticks since the last pass.
+     */
+    private static void startAsyncPass(World world, int interval){
+        long start = System.nanoTime();
+        int randomTickSpeed = world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED);
+
+        if(randomTickSpeed <= 0)
+            return;
+
+        asyncPlants = AsyncGrowthPipeline.submit(world, randomTickSpeed, interval);
+        asyncNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Grows the plants picked by the async pass
+     * started at the beginning of the tick.
+     *
+     * @param world the world to grow the plants in.
+     */
+    private static void applyAsyncPass(World world){
+        long start = System.nanoTime();
+
+        CropGrowthHooks.beginBatch(world);
+        AsyncGrowthPipeline.apply(world);
+        CropGrowthHooks.endBatch();
+
+        //Only the time spent on the server thread is profiled.
+        if(GENERAL_CONFIG.isDevHelpEnabled())
+            profile(asyncNanos + System.nanoTime() - start, asyncPlants);
+    }
+
+    /**
+     * Grows the plants in a single chunk section.
+     * <p/>
+     * Vanilla picks a random block in the section for each
+     * random tick. Here the picked block index is mapped onto
+     * the plants instead (index {@code i} is the {@code i}th
+     * plant), so each plant is still picked with a chance of
+     * 1 in 4096 per random tick, but only the picks that land
+     * on a plant read the world.
+     *
+     * @param world the world the plants are in.
+     * @param plants the packed positions of the plants.
+     * @param sectionRandomTicks the number of random ticks vanilla would
+     *                           have done in the chunk section since the
+     *                           plants were last grown.
+     */
+    private static void growSection(World world, long[] plants, long sectionRandomTicks){
+        SplittableRandom random = MathUtil.getRandom();
+
+        for(long tick = 0; tick < sectionRandomTicks; tick++){
+            int block = random.nextInt(GrowthParameters.SECTION_VOLUME);
+
+            if(block < plants.length)
+                growPlant(world, BlockPos.fromLong(plants[block]));
+        }
+    }
+
+    /**
+     * Grows the single plant at the given position
+     * by one random tick. Also grows the plants picked
+     * by the {@link AsyncGrowthPipeline}.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    static void growPlant(World world, BlockPos pos){
+        if(!world.isBlockLoaded(pos))
+            return;
+
+        BlockState state = world.getBlockState(pos);
+
+        if(!(state.getBlock() instanceof BlockPlant)){
+            PlantRegistry.remove(world, pos);
+            return;
+        }
+
+        ((BlockPlant<?>) state.getBlock()).growByRandomTick(world, state, pos);
+    }
+
+    /**
+     * Logs the average time spent per growth pass, for
+     * comparison against vanilla random ticks, every
+     * {@link #PROFILE_PASSES} passes.
+     *
+     * @param nanos the time spent in the last pass.
+     * @param plants the number of plants grown in the last pass.
+     */
+    private static void profile(long nanos, int plants){
+        profiledNanos += nanos;
+        profiledPlants += plants;
+
+        if(++profiledPasses < PROFILE_PASSES)
+            return;
+
+        LOG.info(String.format(
+                "<Resynth-Development-Help> | Batched growth: %.3fms per pass, %d plants per pass",
+                (profiledNanos / (double) profiledPasses) / 1_000_000D, profiledPlants / profiledPasses
+        ));
+
+        profiledNanos = 0;
+        profiledPlants = 0;
+        profiledPasses = 0;
+    }
+}
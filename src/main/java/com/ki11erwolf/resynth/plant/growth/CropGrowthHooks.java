@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.eventbus.ListenerList;
+import net.minecraftforge.eventbus.api.EventListenerHelper;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventListener;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Posts the forge crop growth events for Resynth plants,
+ * skipping the construction and posting of events nobody
+ * is listening to.
+ * <p/>
+ * Whether an event has listeners is read from the listener
+ * list forge builds for the event on the main event bus. The
+ * list is rebuilt whenever a listener is (un)registered, so
+ * a changed list is noticed the next time a plant grows. If
+ * the listener list can't be read, the events are always posted.
+ * <p/>
+ * Also collects the plants grown during a pass of the batched
+ * growth engine for the {@link BatchedCropGrowEvent}. Plants
+ * whose growth was deferred out of a pass by the tick budget
+ * are posted with the next pass in the same world.
+ */
+public final class CropGrowthHooks {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * The ID of the main forge event bus, used to look up
+     * its listeners. {@code -1} if it couldn't be read.
+     */
+    private static final int BUS_ID = getBusID();
+
+    /**
+     * Listener check for {@link BlockEvent.CropGrowEvent.Pre}.
+     */
+    private static final ListenerCheck PRE = new ListenerCheck(BlockEvent.CropGrowEvent.Pre.class);
+
+    /**
+     * Listener check for {@link BlockEvent.CropGrowEvent.Post}.
+     */
+    private static final ListenerCheck POST = new ListenerCheck(BlockEvent.CropGrowEvent.Post.class);
+
+    /**
+     * Listener check for {@link BatchedCropGrowEvent}.
+     */
+    private static final ListenerCheck BATCHED = new ListenerCheck(BatchedCropGrowEvent.class);
+
+    /**
+     * The world of the batch currently being collected.
+     */
+    private static World batchWorld = null;
+
+    /**
+     * The positions of the plants grown in the current batch.
+     * {@code null} if no batch is being collected.
+     */
+    private static LongArrayList batch = null;
+
+    /**
+     * The positions of the plants in each world whose growth was
+     * deferred out of a batch, waiting to be posted with the next
+     * batch in the world.
+     */
+    private static final Map<IWorld, LongArrayList> DEFERRED = new HashMap<>();
+
+    /**Private Constructor.*/
+    private CropGrowthHooks(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Posts the {@link BlockEvent.CropGrowEvent.Pre} event for
+     * the given plant, if the event has any listeners.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param state the state of the plant before growing.
+     */
+    public static void onGrowPre(World world, BlockPos pos, BlockState state){
+        if(PRE.hasListeners())
+            ForgeHooks.onCropsGrowPre(world, pos, state, false);
+    }
+
+    /**
+     * Posts the {@link BlockEvent.CropGrowEvent.Post} event for
+     * the given plant, if the event has any listeners, and adds
+     * the plant to the current batch (if any).
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param state the state of the plant before growing.
+     */
+    public static void onGrowPost(World world, BlockPos pos, BlockState state){
+        if(POST.hasListeners())
+            ForgeHooks.onCropsGrowPost(world, pos, state);
+
+        if(batch != null && batchWorld == world)
+            batch.add(pos.toLong());
+    }
+
+    /**
+     * @param world the world to check.
+     * @return {@code true} if the plants grown in the given
+     * world are currently being collected into a batch.
+     */
+    public static boolean isBatching(World world){
+        return batch != null && batchWorld == world;
+    }
+
+    /**
+     * Called once a plant whose growth was deferred out of a
+     * batch (see {@link #isBatching(World)}) has grown. Keeps
+     * the plant for the next batch in the world, unless it
+     * grew during a batch and is already in it.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void onDeferredGrowPost(World world, BlockPos pos){
+        if(isBatching(world) || !BATCHED.hasListeners())
+            return;
+
+        DEFERRED.computeIfAbsent(world, w -> new LongArrayList()).add(pos.toLong());
+    }
+
+    /**
+     * Starts collecting the plants grown in the given world,
+     * if the {@link BatchedCropGrowEvent} has any listeners,
+     * starting with the plants deferred out of the last batch.
+     *
+     * @param world the world the batch is in.
+     */
+    static void beginBatch(World world){
+        LongArrayList deferred = DEFERRED.remove(world);
+
+        batchWorld = world;
+        batch = BATCHED.hasListeners() ? (deferred == null ? new LongArrayList() : deferred) : null;
+    }
+
+    /**
+     * Stops collecting plants and posts the
+     * {@link BatchedCropGrowEvent} if any plant grew.
+     */
+    static void endBatch(){
+        World world = batchWorld;
+        LongArrayList grown = batch;
+
+        batchWorld = null;
+        batch = null;
+
+        if(grown != null && !grown.isEmpty())
+            MinecraftForge.EVENT_BUS.post(new BatchedCropGrowEvent(world, grown.toLongArray()));
+    }
+
+    /**
+     * Removes the deferred plants of an unloaded world.
+     *
+     * @param world the unloaded world.
+     */
+    static void unloadWorld(IWorld world){
+        DEFERRED.remove(world);
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * @return the ID of the main forge event bus, read
+     * through reflection, or {@code -1} if it couldn't be read.
+     */
+    private static int getBusID(){
+        try {
+            Field busID = MinecraftForge.EVENT_BUS.getClass().getDeclaredField("busID");
+            busID.setAccessible(true);
+            return busID.getInt(MinecraftForge.EVENT_BUS);
+        } catch (Exception | LinkageError e){
+            LOG.warn("Unable to read the forge event bus ID, crop growth events will always be posted", e);
+            return -1;
+        }
+    }
+
+    // **************
+    // Listener Check
+    // **************
+
+    /**
+     * Checks if a single event type has any listeners on
+     * the main forge event bus. The result is cached until
+     * forge rebuilds the listener list of the event.
+     */
+    private static class ListenerCheck {
+
+        /**
+         * The listener list of the event. {@code null}
+         * if it couldn't be looked up.
+         */
+        private final ListenerList listenerList;
+
+        /**
+         * The listeners the cached result was worked out from.
+         */
+        private IEventListener[] listeners = null;
+
+        /**
+         * The cached result.
+         */
+        private boolean hasListeners = true;
+
+        /**
+         * @param eventClass the class of the event to check.
+         */
+        private ListenerCheck(Class<?> eventClass){
+            ListenerList listenerList = null;
+
+            if(BUS_ID >= 0){
+                try {
+                    listenerList = EventListenerHelper.getListenerList(eventClass);
+                } catch (Exception | LinkageError e){
+                    LOG.warn("Unable to read the listeners of " + eventClass.getName()
+                            + ", the event will always be posted", e);
+                }
+            }
+
+            this.listenerList = listenerList;
+        }
+
+        /**
+         * @return {@code true} if the event has any listeners
+         * on the main forge event bus, or if the listeners
+         * couldn't be read.
+         */
+        private boolean hasListeners(){
+            if(listenerList == null)
+                return true;
+
+            IEventListener[] current = listenerList.getListeners(BUS_ID);
+            if(current == listeners)
+                return hasListeners;
+
+            //Priority markers are stored alongside the listeners.
+            boolean found = false;
+            for(IEventListener listener : current){
+                if(!(listener instanceof EventPriority)){
+                    found = true;
+                    break;
+                }
+            }
+
+            listeners = current;
+            hasListeners = found;
+            return found;
+        }
+    }
+}
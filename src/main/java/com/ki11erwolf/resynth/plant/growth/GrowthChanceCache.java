@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the combined growth chance threshold (see
+ * {@link GrowthChanceTable}) of each plant (plant
+ * growth chance, Mineral Content and Enhancer), per chunk,
+ * so the soil and enhancer underneath a plant don't have
+ * to be looked up every time the plant is ticked.
+ * <p/>
+ * Cached chances are invalidated whenever the Mineral
+ * Content of the soil underneath the plant, or the block
+ * underneath the soil, changes - as well as when the plant
+ * itself is removed.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class GrowthChanceCache {
+
+    /**
+     * The value returned for plants without a cached chance.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * The cached growth chances in each world, mapped to the
+     * packed position of the plant, grouped by chunk.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Long2IntMap>> WORLDS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private GrowthChanceCache(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @return the cached growth chance threshold of the plant at
+     * the given position, or {@link #UNKNOWN} if there isn't one.
+     */
+    public static int get(IWorld world, BlockPos pos){
+        Long2ObjectMap<Long2IntMap> chunks = WORLDS.get(world);
+        if(chunks == null)
+            return UNKNOWN;
+
+        Long2IntMap chances = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if(chances == null)
+            return UNKNOWN;
+
+        return chances.get(pos.toLong());
+    }
+
+    /**
+     * Caches the growth chance of the plant at the given position.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param chance the growth chance threshold of the plant
+     *               (see {@link GrowthChanceTable}).
+     */
+    public static void put(IWorld world, BlockPos pos, int chance){
+        WORLDS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), key -> {
+                    Long2IntMap chances = new Long2IntOpenHashMap();
+                    chances.defaultReturnValue(UNKNOWN);
+                    return chances;
+                })
+                .put(pos.toLong(), chance);
+    }
+
+    /**
+     * Removes the cached growth chance of the plant at the
+     * given position, if any. Should be called whenever anything
+     * that affects the growth chance of the plant changes.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void invalidate(IWorld world, BlockPos pos){
+        Long2ObjectMap<Long2IntMap> chunks = WORLDS.get(world);
+        if(chunks == null)
+            return;
+
+        long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        Long2IntMap chances = chunks.get(chunkKey);
+        if(chances == null)
+            return;
+
+        chances.remove(pos.toLong());
+        if(chances.isEmpty())
+            chunks.remove(chunkKey);
+    }
+
+    /**
+     * Removes every cached growth chance in every world.
+     * Used when the growth chances themselves change
+     * (e.g. the config is reloaded).
+     */
+    public static void clear(){
+        WORLDS.clear();
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Removes the cached chances of unloaded chunks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        Long2ObjectMap<Long2IntMap> chunks = WORLDS.get(event.getWorld());
+
+        if(chunks != null)
+            chunks.remove(event.getChunk().getPos().asLong());
+    }
+
+    /**
+     * Removes the cached chances of unloaded worlds.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        WORLDS.remove(event.getWorld());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.block.BlockEnhancer;
+import com.ki11erwolf.resynth.block.storage.MineralSoilStorage;
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+
+/**
+ * A precomputed table of the combined growth chance of a
+ * single plant type, for every Mineral Content (in tenths
+ * of a percent) and Enhancer tier.
+ * <p/>
+ * Chances are stored as fixed-point thresholds for
+ * {@link MathUtil#thresholdChance(int)}, so a growth check
+ * is a single table lookup and a single random draw.
+ */
+public final class GrowthChanceTable {
+
+    /**
+     * The highest Mineral Content in the table, in tenths.
+     */
+    public static final int MAX_MINERAL_TENTHS = MineralSoilStorage.MAX_MINERAL_TENTHS;
+
+    /**
+     * The number of Mineral Content steps per tier.
+     */
+    private static final int MINERAL_STEPS = MAX_MINERAL_TENTHS + 1;
+
+    /**
+     * The growth chance thresholds, indexed by
+     * {@code tier * MINERAL_STEPS + mineralTenths}.
+     */
+    private final int[] thresholds;
+
+    /**
+     * Builds the table for a plant type with the given
+     * growth chance, using the current Enhancer increases.
+     *
+     * @param plantGrowthChance the growth chance (0 - 100) of the plant type.
+     */
+    public GrowthChanceTable(float plantGrowthChance){
+        this.thresholds = new int[(BlockEnhancer.MAX_TIER + 1) * MINERAL_STEPS];
+
+        for(int tier = 0; tier <= BlockEnhancer.MAX_TIER; tier++){
+            float increase = BlockEnhancer.getIncrease(tier);
+
+            for(int tenths = 0; tenths <= MAX_MINERAL_TENTHS; tenths++){
+                float chance = new GrowthParameters(plantGrowthChance, tenths / 10.0F, increase).getGrowthChance();
+                thresholds[tier * MINERAL_STEPS + tenths] = MathUtil.toChanceThreshold(chance);
+            }
+        }
+    }
+
+    /**
+     * @param mineralTenths the Mineral Content, in tenths of a percent.
+     * @param tier the tier of the Enhancer under the soil (0 for none).
+     * @return the growth chance threshold for {@link MathUtil#thresholdChance(int)}.
+     */
+    public int getThreshold(int mineralTenths, int tier){
+        int clampedTenths = Math.max(0, Math.min(MAX_MINERAL_TENTHS, mineralTenths));
+        int clampedTier = Math.max(0, Math.min(BlockEnhancer.MAX_TIER, tier));
+
+        return thresholds[clampedTier * MINERAL_STEPS + clampedTenths];
+    }
+
+    /**
+     * @param threshold a growth chance threshold.
+     * @return the given threshold as a percentage (0.0 - 100.0).
+     */
+    public static double toPercentage(int threshold){
+        return threshold * 100.0D / MathUtil.CHANCE_THRESHOLD_SCALE;
+    }
+}
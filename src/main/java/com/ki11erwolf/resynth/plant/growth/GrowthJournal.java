@@ -0,0 +1,383 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size, lock-free ring buffer of the most recent plant
+ * growth evaluations (config enabled), used to find out why
+ * plants aren't growing.
+ * <p/>
+ * Each evaluation is stored as primitives across parallel
+ * arrays: the plants dimension id, position, plant type id,
+ * Mineral Content (in tenths), Enhancer tier, result and game
+ * tick. Writers claim a slot with a single atomic increment and
+ * overwrite the oldest entry, so recording never blocks or
+ * allocates. As entries are read without locking, an entry being
+ * overwritten while the journal is copied may be torn.
+ * <p/>
+ * Dumping copies the arrays on the calling thread and formats
+ * and writes the file on a worker thread, so the server thread
+ * isn't held up by large journals.
+ */
+public final class GrowthJournal {
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * Result recorded when the plant couldn't grow where
+     * it is (unloaded area or not enough light).
+     */
+    public static final int BAD_ENVIRONMENT = -1;
+
+    /**
+     * The names of the registered plant types, indexed by id.
+     */
+    private static final List<String> PLANT_NAMES = new ArrayList<>();
+
+    /**
+     * The number of entries in the journal (a power of
+     * two), or {@code 0} if the journal is disabled.
+     */
+    private static final int SIZE = getSize(CONFIG.getGrowthJournalSize());
+
+    /**
+     * Maps an entry sequence number to its slot.
+     */
+    private static final int MASK = SIZE - 1;
+
+    /**
+     * The sequence number of the next entry.
+     */
+    private static final AtomicLong CURSOR = new AtomicLong();
+
+    /**
+     * The worker thread journal dumps are written on.
+     * The thread is only started by the first dump.
+     */
+    private static final ExecutorService DUMP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Resynth-Journal-Dump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The dimension ids of the evaluated plants.
+     */
+    private static final int[] DIMENSIONS = new int[SIZE];
+
+    /**
+     * The packed positions of the evaluated plants.
+     */
+    private static final long[] POSITIONS = new long[SIZE];
+
+    /**
+     * The game tick of each evaluation.
+     */
+    private static final long[] TICKS = new long[SIZE];
+
+    /**
+     * The plant type id of the evaluated plants.
+     */
+    private static final short[] PLANT_IDS = new short[SIZE];
+
+    /**
+     * The Mineral Content (in tenths) under the evaluated plants.
+     */
+    private static final short[] MINERAL_TENTHS = new short[SIZE];
+
+    /**
+     * The Enhancer tier under the evaluated plants.
+     */
+    private static final byte[] ENHANCER_TIERS = new byte[SIZE];
+
+    /**
+     * The result of each evaluation: the number of stages
+     * grown or {@link #BAD_ENVIRONMENT}.
+     */
+    private static final byte[] RESULTS = new byte[SIZE];
+
+    /**Private Constructor.*/
+    private GrowthJournal(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @return {@code true} if the journal is enabled. Evaluations
+     * should only be recorded (and their inputs gathered) if it is.
+     */
+    public static boolean isEnabled(){
+        return SIZE > 0;
+    }
+
+    /**
+     * Registers a plant type with the journal.
+     * Called once by each plant block.
+     *
+     * @param name the name of the plant type.
+     * @return the id of the plant type in the journal.
+     */
+    public static synchronized int registerPlant(String name){
+        PLANT_NAMES.add(name);
+        return PLANT_NAMES.size() - 1;
+    }
+
+    /**
+     * Records a single growth evaluation, overwriting
+     * the oldest entry. Does nothing if the journal
+     * is disabled.
+     *
+     * @param dimension the id of the dimension the evaluated plant is in.
+     * @param pos the position of the evaluated plant.
+     * @param plantId the journal id of the plant type.
+     * @param mineralTenths the Mineral Content under the plant, in tenths.
+     * @param enhancerTier the tier of the Enhancer under the plant (0 for none).
+     * @param result the number of stages grown or {@link #BAD_ENVIRONMENT}.
+     * @param tick the game time of the evaluation.
+     */
+    public static void record(int dimension, BlockPos pos, int plantId, int mineralTenths, int enhancerTier,
+                              int result, long tick){
+        if(SIZE == 0)
+            return;
+
+        int slot = (int) (CURSOR.getAndIncrement() & MASK);
+
+        DIMENSIONS[slot] = dimension;
+        POSITIONS[slot] = pos.toLong();
+        TICKS[slot] = tick;
+        PLANT_IDS[slot] = (short) plantId;
+        MINERAL_TENTHS[slot] = (short) mineralTenths;
+        ENHANCER_TIERS[slot] = (byte) enhancerTier;
+        RESULTS[slot] = (byte) result;
+    }
+
+    /**
+     * Writes the entries in the journal, oldest first, to the given
+     * file as CSV. Entries can be filtered by region and plant type.
+     * <p/>
+     * The entries are copied on the calling thread, the file is
+     * written on a worker thread.
+     *
+     * @param file the file to write to.
+     * @param dimension the id of the dimension the region is in
+     *                  (ignored if every position is dumped).
+     * @param from one corner of the region to dump, or {@code null} for every position.
+     * @param to the opposite corner of the region to dump, or {@code null} for every position.
+     * @param plant the name (or end of the name, e.g. {@code diamond}) of the plant
+     *              type to dump, or {@code null} for every plant type.
+     * @return a future completed with the number of entries written once the file
+     * is written, or completed exceptionally (with an {@link UncheckedIOException})
+     * if the file could not be written.
+     */
+    public static CompletableFuture<Integer> dump(File file, int dimension, @Nullable BlockPos from,
+                                                  @Nullable BlockPos to, @Nullable String plant){
+        Entries entries = new Entries(CURSOR.get());
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return entries.write(file, dimension, from, to, plant);
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }, DUMP_EXECUTOR);
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * @param configSize the journal size from the config.
+     * @return the given size rounded up to a power of two.
+     */
+    private static int getSize(int configSize){
+        if(configSize <= 0)
+            return 0;
+
+        int size = Integer.highestOneBit(configSize);
+        return (size == configSize) ? size : size << 1;
+    }
+
+    /**
+     * @param id a plant type id.
+     * @return the name of the plant type with the given id.
+     */
+    private static synchronized String getPlantName(int id){
+        return (id >= 0 && id < PLANT_NAMES.size()) ? PLANT_NAMES.get(id) : "unknown";
+    }
+
+    /**
+     * @return the given evaluation result as written
+     * to the dump file.
+     */
+    private static String getResultName(int result){
+        if(result == BAD_ENVIRONMENT)
+            return "bad_environment";
+
+        return String.valueOf(result);
+    }
+
+    /**
+     * @return {@code true} if the position is within the
+     * region between the two corners (inclusive).
+     */
+    private static boolean isWithin(BlockPos pos, BlockPos from, BlockPos to){
+        return pos.getX() >= Math.min(from.getX(), to.getX()) && pos.getX() <= Math.max(from.getX(), to.getX())
+                && pos.getY() >= Math.min(from.getY(), to.getY()) && pos.getY() <= Math.max(from.getY(), to.getY())
+                && pos.getZ() >= Math.min(from.getZ(), to.getZ()) && pos.getZ() <= Math.max(from.getZ(), to.getZ());
+    }
+
+    // *******
+    // Entries
+    // *******
+
+    /**
+     * A copy of the entries in the journal,
+     * oldest first, that can be written to
+     * a file off the server thread.
+     */
+    private static final class Entries {
+
+        /**
+         * The dimension ids of the evaluated plants.
+         */
+        private final int[] dimensions;
+
+        /**
+         * The packed positions of the evaluated plants.
+         */
+        private final long[] positions;
+
+        /**
+         * The game tick of each evaluation.
+         */
+        private final long[] ticks;
+
+        /**
+         * The plant type id of the evaluated plants.
+         */
+        private final short[] plantIds;
+
+        /**
+         * The Mineral Content (in tenths) under the evaluated plants.
+         */
+        private final short[] mineralTenths;
+
+        /**
+         * The Enhancer tier under the evaluated plants.
+         */
+        private final byte[] enhancerTiers;
+
+        /**
+         * The result of each evaluation.
+         */
+        private final byte[] results;
+
+        /**
+         * Copies the entries in the journal.
+         *
+         * @param end the sequence number of the next entry.
+         */
+        private Entries(long end){
+            int count = (int) Math.min(end, SIZE);
+            int first = count == 0 ? 0 : (int) ((end - count) & MASK);
+
+            dimensions = copy(DIMENSIONS, new int[count], first);
+            positions = copy(POSITIONS, new long[count], first);
+            ticks = copy(TICKS, new long[count], first);
+            plantIds = copy(PLANT_IDS, new short[count], first);
+            mineralTenths = copy(MINERAL_TENTHS, new short[count], first);
+            enhancerTiers = copy(ENHANCER_TIERS, new byte[count], first);
+            results = copy(RESULTS, new byte[count], first);
+        }
+
+        /**
+         * Writes the copied entries to the given file as CSV.
+         *
+         * @see #dump(File, int, BlockPos, BlockPos, String)
+         * @return the number of entries written.
+         * @throws IOException if the file could not be written.
+         */
+        private int write(File file, int dimension, @Nullable BlockPos from, @Nullable BlockPos to,
+                          @Nullable String plant) throws IOException {
+            int written = 0;
+
+            try(PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())){
+                writer.println("tick,dimension,x,y,z,plant,mineral_content,enhancer_tier,result");
+
+                for(int i = 0; i < positions.length; i++){
+                    BlockPos pos = BlockPos.fromLong(positions[i]);
+                    String name = getPlantName(plantIds[i]);
+
+                    if(from != null && to != null && (dimensions[i] != dimension || !isWithin(pos, from, to)))
+                        continue;
+
+                    if(plant != null && !(name.equals(plant) || name.endsWith("_" + plant)))
+                        continue;
+
+                    writer.println(
+                            ticks[i] + "," + dimensions[i] + "," + pos.getX() + "," + pos.getY() + ","
+                                    + pos.getZ() + "," + name + "," + (mineralTenths[i] / 10.0F) + ","
+                                    + enhancerTiers[i] + "," + getResultName(results[i])
+                    );
+                    written++;
+                }
+            }
+
+            return written;
+        }
+
+        /**
+         * Copies the entries of a journal column, oldest first.
+         *
+         * @param column the journal column (ring buffer) to copy.
+         * @param copy the array to copy into, sized to the number of entries.
+         * @param first the slot of the oldest entry.
+         * @return the given copy.
+         */
+        @SuppressWarnings("SuspiciousSystemArraycopy")//Always arrays of the same type.
+        private static <T> T copy(Object column, T copy, int first){
+            int count = Array.getLength(copy);
+            int head = Math.min(count, SIZE - first);
+
+            System.arraycopy(column, first, copy, 0, head);
+            System.arraycopy(column, 0, copy, head, count - head);
+            return copy;
+        }
+    }
+}
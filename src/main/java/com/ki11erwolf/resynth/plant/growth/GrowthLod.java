@@ -0,0 +1,285 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.util.MathUtil;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Growth level-of-detail for plants far from every player.
+ * <p/>
+ * Like vanilla random ticks, chunk sections further than
+ * {@link #RANDOM_TICK_DISTANCE} blocks from every (non-spectator)
+ * player aren't grown at all.
+ * <p/>
+ * Chunk sections within the configured distance of a player
+ * are grown every pass. Sections further away, but still
+ * within random tick range, are only grown every few
+ * passes, by the number of ticks that passed since they were
+ * last grown - so their expected growth is unchanged, it just
+ * happens in larger steps.
+ * <p/>
+ * With random tick growth, far away plants only check their
+ * growth on one in every few random ticks, and grow by the
+ * random ticks they skipped when they do. Scheduled growth
+ * only does work when a plant is due to grow, so it has
+ * nothing to skip and isn't affected.
+ */
+public final class GrowthLod {
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The horizontal distance (in blocks) from the center of a
+     * chunk to the nearest player within which vanilla random
+     * ticks the chunk.
+     */
+    static final int RANDOM_TICK_DISTANCE = 128;
+
+    /**
+     * The value of sections without a recorded growth time.
+     */
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * The game time each far away section in each world
+     * was last grown, mapped to the key of the section.
+     */
+    private static final Map<IWorld, Long2LongMap> WORLDS = new HashMap<>();
+
+    /**
+     * The number of ticks the distance of a chunk to the
+     * players is trusted for by random tick growth.
+     */
+    private static final int FAR_CHECK_TICKS = 20;
+
+    /**
+     * The game time each chunk in each world was last checked
+     * for nearby players by random tick growth, shifted left once,
+     * with the lowest bit set if the chunk was far from them.
+     */
+    private static final Map<IWorld, Long2LongMap> FAR_CHUNKS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private GrowthLod(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Decides if the plants in a chunk section should be grown
+     * in the current pass and, if so, by how many ticks.
+     *
+     * @param world the world the section is in.
+     * @param sectionKey the key of the section
+     *                   (see {@link PlantRegistry#getSectionKey(int, int, int)}).
+     * @param interval the number of ticks between passes.
+     * @return the number of ticks the section's plants should be
+     * grown by, or {@code 0} if they should be skipped this pass.
+     */
+    static long getElapsedTicks(World world, long sectionKey, int interval){
+        if(!isRandomTicked(world, BlockPos.fromLong(sectionKey))){
+            //Vanilla doesn't make up for the time spent out of range either.
+            Long2LongMap sections = WORLDS.get(world);
+            if(sections != null)
+                sections.remove(sectionKey);
+
+            return 0;
+        }
+
+        int distance = CONFIG.getGrowthLodDistance();
+        long maxElapsed = (long) interval * CONFIG.getGrowthLodPasses();
+
+        if(distance <= 0 || maxElapsed <= interval)
+            return interval;
+
+        Long2LongMap sections = WORLDS.computeIfAbsent(world, w -> {
+            Long2LongMap map = new Long2LongOpenHashMap();
+            map.defaultReturnValue(UNKNOWN);
+            return map;
+        });
+
+        long now = world.getGameTime();
+        long last = sections.get(sectionKey);
+        long elapsed = (last == UNKNOWN) ? interval : Math.max(0, Math.min(now - last, maxElapsed));
+
+        if(isNearPlayer(world, BlockPos.fromLong(sectionKey), distance)){
+            sections.remove(sectionKey);
+            return elapsed;
+        }
+
+        if(last == UNKNOWN){
+            //Newly far away - wait a full LOD period.
+            sections.put(sectionKey, now - interval);
+            return 0;
+        }
+
+        if(elapsed < maxElapsed)
+            return 0;
+
+        sections.put(sectionKey, now);
+        return elapsed;
+    }
+
+    /**
+     * Decides how many random ticks a single random tick of the
+     * plant at the given position stands for. Plants within the
+     * configured distance of a player stay on the exact per tick
+     * path. Further away, only one in every configured number of
+     * random ticks is used, and stands for all of them.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @return {@code 1} if the random tick should be used as is,
+     * {@code 0} if it should be skipped, or the number of random
+     * ticks it stands for.
+     */
+    public static int getRandomTickWeight(World world, BlockPos pos){
+        int distance = CONFIG.getGrowthLodDistance();
+        int passes = CONFIG.getGrowthLodPasses();
+
+        if(distance <= 0 || passes <= 1 || !isFar(world, pos, distance))
+            return 1;
+
+        return MathUtil.getRandom().nextInt(passes) == 0 ? passes : 0;
+    }
+
+    /**
+     * Removes the recorded growth and player check
+     * times of the sections in an unloaded chunk.
+     *
+     * @param world the world the chunk was in.
+     * @param chunk the position of the unloaded chunk.
+     */
+    static void unloadChunk(IWorld world, ChunkPos chunk){
+        Long2LongMap farChunks = FAR_CHUNKS.get(world);
+        if(farChunks != null)
+            farChunks.remove(chunk.asLong());
+
+        Long2LongMap sections = WORLDS.get(world);
+        if(sections == null || sections.isEmpty())
+            return;
+
+        for(int y = 0; y < 256; y += 16)
+            sections.remove(PlantRegistry.getSectionKey(chunk.getXStart(), y, chunk.getZStart()));
+    }
+
+    /**
+     * Removes the recorded growth and player check
+     * times of an unloaded world.
+     *
+     * @param world the unloaded world.
+     */
+    static void unloadWorld(IWorld world){
+        WORLDS.remove(world);
+        FAR_CHUNKS.remove(world);
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Mirrors the vanilla check for chunks that are random ticked
+     * ({@code ChunkManager#isOutsideSpawningRadius}): a non-spectator
+     * player within {@link #RANDOM_TICK_DISTANCE} blocks of the
+     * center of the chunk.
+     *
+     * @param corner the lowest corner of the section.
+     * @return {@code true} if vanilla would random tick the
+     * chunk the section is in.
+     */
+    static boolean isRandomTicked(World world, BlockPos corner){
+        double centerX = corner.getX() + 8, centerZ = corner.getZ() + 8;
+        double maxDistanceSq = (double) RANDOM_TICK_DISTANCE * RANDOM_TICK_DISTANCE;
+
+        for(PlayerEntity player : world.getPlayers()){
+            double x = player.posX - centerX, z = player.posZ - centerZ;
+
+            if(!player.isSpectator() && x * x + z * z < maxDistanceSq)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if the chunk the given plant is in is further than
+     * the LOD distance from every player. The result is kept for
+     * {@link #FAR_CHECK_TICKS} ticks, as random ticks ask for it
+     * far more often than players move between chunks.
+     *
+     * @param pos the position of the plant.
+     * @param distance the LOD distance.
+     * @return {@code true} if no player is within the
+     * given distance of the chunk.
+     */
+    private static boolean isFar(World world, BlockPos pos, int distance){
+        Long2LongMap chunks = FAR_CHUNKS.computeIfAbsent(world, w -> {
+            Long2LongMap map = new Long2LongOpenHashMap();
+            map.defaultReturnValue(UNKNOWN);
+            return map;
+        });
+
+        long now = world.getGameTime();
+        long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        long check = chunks.get(key);
+
+        if(check != UNKNOWN && now - (check >> 1) < FAR_CHECK_TICKS)
+            return (check & 1) == 1;
+
+        boolean far = !isNearPlayer(world, new BlockPos(pos.getX() & ~15, 0, pos.getZ() & ~15), distance);
+        chunks.put(key, now << 1 | (far ? 1 : 0));
+        return far;
+    }
+
+    /**
+     * @param corner the lowest corner of the section.
+     * @param distance the LOD distance.
+     * @return {@code true} if any player is within the given
+     * (horizontal) distance of the center of the section.
+     * Spectators are ignored, as vanilla ignores them for
+     * random ticks.
+     */
+    private static boolean isNearPlayer(World world, BlockPos corner, int distance){
+        double centerX = corner.getX() + 8, centerZ = corner.getZ() + 8;
+        double maxDistanceSq = (double) distance * distance;
+
+        for(PlayerEntity player : world.getPlayers()){
+            double x = player.posX - centerX, z = player.posZ - centerZ;
+
+            if(!player.isSpectator() && x * x + z * z <= maxDistanceSq)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+/**
+ * The different engines that can be used to grow
+ * Resynth plants. Selected by config.
+ */
+public enum GrowthMode {
+
+    /**
+     * Plants are grown by vanilla random ticks - the
+     * default and original behaviour.
+     */
+    RANDOM("random"),
+
+    /**
+     * Plants are tracked per chunk section and grown
+     * in a single pass every few ticks by the
+     * {@link BatchedGrowthEngine}.
+     */
+    BATCHED("batched"),
+
+    /**
+     * The time until each plants next growth is sampled
+     * in advance and the plant is only ticked (using a
+     * scheduled block tick) once it's due to grow.
+     */
+    SCHEDULED("scheduled");
+
+    /**
+     * The name of the growth mode as written in config.
+     */
+    private final String name;
+
+    /**
+     * @param name the name of the growth mode as written in config.
+     */
+    GrowthMode(String name){
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the growth mode as written in config.
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * Gets the growth mode with the given config name.
+     *
+     * @param name the config name of the growth mode.
+     * @return the matching growth mode, or {@link #RANDOM}
+     * if no growth mode matches the given name.
+     */
+    public static GrowthMode fromName(String name){
+        for(GrowthMode mode : values()){
+            if(mode.name.equalsIgnoreCase(String.valueOf(name).trim()))
+                return mode;
+        }
+
+        return RANDOM;
+    }
+}
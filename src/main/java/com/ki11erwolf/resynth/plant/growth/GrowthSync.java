@@ -0,0 +1,266 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GeneralConfig;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.IPacket;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.server.SChangeBlockPacket;
+import net.minecraft.network.play.server.SChunkDataPacket;
+import net.minecraft.network.play.server.SMultiBlockChangePacket;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes plant growth stage changes to the world and sends
+ * them to clients.
+ * <p/>
+ * Vanilla already collects the block changes made in each
+ * chunk during a tick and sends them to clients as a single
+ * (multi) block change packet at the end of the tick, or
+ * resends the changed chunk sections in full once a chunk has
+ * more than {@link #MAX_MULTI_BLOCK_CHANGES} changes. So growth
+ * changes are written with the normal client update, and with
+ * debug help enabled the packets vanilla sends for them are
+ * counted and measured.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class GrowthSync {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * General configuration settings (debug help).
+     */
+    private static final GeneralConfig GENERAL_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(GeneralConfig.class);
+
+    /**
+     * Block update flag: send the change to clients.
+     */
+    private static final int SEND_TO_CLIENTS = 2;
+
+    /**
+     * The most changes in a single chunk vanilla sends as a
+     * multi block change packet in one tick. At 64 changes it
+     * resends the changed sections instead.
+     */
+    private static final int MAX_MULTI_BLOCK_CHANGES = 63;
+
+    /**
+     * The number of ticks between sync reports
+     * when debug help is enabled.
+     */
+    private static final int REPORT_INTERVAL = 1200;
+
+    /**
+     * The plant positions changed and sent this tick in each
+     * world, grouped by chunk. Only collected with debug help
+     * enabled, to count the packets sent for them.
+     */
+    private static final Map<IWorld, Long2ObjectMap<LongSet>> SENT = new HashMap<>();
+
+    /**
+     * The number of growth stage changes since the last report.
+     */
+    private static long changes = 0;
+
+    /**
+     * The number of block change packets (per watching player)
+     * since the last report.
+     */
+    private static long packets = 0;
+
+    /**
+     * The size in bytes of the block change packets (per
+     * watching player) since the last report.
+     */
+    private static long packetBytes = 0;
+
+    /**Private Constructor.*/
+    private GrowthSync(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Writes the grown state of a plant to the world
+     * and sends it to clients.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param state the new state of the plant.
+     * @return {@code true} if the state was written.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static boolean setGrowthState(World world, BlockPos pos, BlockState state){
+        if(!world.setBlockState(pos, state, SEND_TO_CLIENTS))
+            return false;
+
+        if(!world.isRemote && GENERAL_CONFIG.isDevHelpEnabled()){
+            changes++;
+            getChunk(SENT, world, pos).add(pos.toLong());
+        }
+
+        return true;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Counts the packets sent for the growth changes
+     * made in the world this tick, and reports them
+     * every {@link #REPORT_INTERVAL} ticks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.END || event.world.isRemote)
+            return;
+
+        Long2ObjectMap<LongSet> sent = SENT.remove(event.world);
+        if(sent != null){
+            for(Long2ObjectMap.Entry<LongSet> chunk : sent.long2ObjectEntrySet())
+                countPackets(event.world, chunk.getLongKey(), chunk.getValue());
+        }
+
+        if(GENERAL_CONFIG.isDevHelpEnabled() && event.world.getGameTime() % REPORT_INTERVAL == 0)
+            report();
+    }
+
+    /**
+     * Removes the collected changes of unloaded worlds.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        SENT.remove(event.getWorld());
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Counts the packet vanilla sends for the given changes
+     * in a single chunk, and measures its size by writing an
+     * identical packet. Only used with debug help enabled.
+     *
+     * @param world the world the chunk is in.
+     * @param chunkKey the packed position of the chunk.
+     * @param changed the packed positions of the changes in the chunk.
+     */
+    private static void countPackets(World world, long chunkKey, LongSet changed){
+        if(changed.isEmpty() || !world.getChunkProvider().chunkExists(
+                ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey)))
+            return;
+
+        Chunk chunk = world.getChunk(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey));
+        IPacket<?> packet;
+
+        if(changed.size() == 1){
+            packet = new SChangeBlockPacket(world, BlockPos.fromLong(changed.iterator().nextLong()));
+        } else if(changed.size() <= MAX_MULTI_BLOCK_CHANGES){
+            short[] offsets = new short[changed.size()];
+            int i = 0;
+
+            for(LongIterator iterator = changed.iterator(); iterator.hasNext();){
+                BlockPos pos = BlockPos.fromLong(iterator.nextLong());
+                offsets[i++] = (short) ((pos.getX() & 15) << 12 | (pos.getZ() & 15) << 8 | pos.getY());
+            }
+
+            packet = new SMultiBlockChangePacket(offsets.length, offsets, chunk);
+        } else {
+            int sections = 0;
+            for(LongIterator iterator = changed.iterator(); iterator.hasNext();)
+                sections |= 1 << (BlockPos.fromLong(iterator.nextLong()).getY() >> 4);
+
+            packet = new SChunkDataPacket(chunk, sections);
+        }
+
+        PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        try {
+            packet.writePacketData(buffer);
+            packets++;
+            //Plus the packet ID.
+            packetBytes += buffer.writerIndex() + 1;
+        } catch (IOException e){
+            LOG.debug("Failed to measure block change packet", e);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * @return the collected positions of the chunk containing the
+     * given position in the given world, from the given map.
+     */
+    private static LongSet getChunk(Map<IWorld, Long2ObjectMap<LongSet>> map, IWorld world, BlockPos pos){
+        return map.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), chunk -> new LongOpenHashSet());
+    }
+
+    /**
+     * Logs the number of growth stage changes, and the
+     * number and size of the packets sent for them.
+     */
+    private static void report(){
+        if(changes == 0)
+            return;
+
+        LOG.info(String.format(
+                "<Resynth-Development-Help> | Growth sync: %d growth changes sent in %d packets totalling %d " +
+                        "bytes per watching player (%.2f changes per packet, %.1f bytes per change)",
+                changes, packets, packetBytes, changes / (double) Math.max(1, packets),
+                packetBytes / (double) changes
+        ));
+
+        changes = 0;
+        packets = 0;
+        packetBytes = 0;
+    }
+}
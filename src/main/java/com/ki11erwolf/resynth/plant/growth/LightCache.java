@@ -0,0 +1,254 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the light level of the positions read by plant
+ * growth checks, as a lazily filled snapshot per chunk
+ * section (16x16x16).
+ * <p/>
+ * Forge has no light update event, so a snapshot is discarded
+ * whenever a block in its section, or close enough to it for
+ * the change to spread light into it, changes, and after a
+ * maximum age (config specified) - which also covers light
+ * updates the lighting engine finishes after the block change.
+ * <p/>
+ * As the lighting engine updates light asynchronously, a cached
+ * light level is only trusted to skip growth: plants confirm the
+ * live light level before they actually grow, and placement checks
+ * never read the cache.
+ * <p/>
+ * Only server worlds are cached.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class LightCache {
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The value of positions without a cached light level.
+     */
+    private static final byte UNKNOWN = -1;
+
+    /**
+     * The furthest (in blocks, counted along each axis) a block
+     * change can spread a light change.
+     */
+    private static final int LIGHT_RANGE = 15;
+
+    /**
+     * The light snapshots in each world, mapped to
+     * the key of their chunk section.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Snapshot>> WORLDS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private LightCache(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Equivalent to {@code world.getLightSubtracted(new BlockPos(x, y, z), 0)},
+     * without creating a position unless the light level has to be
+     * read from the world.
+     *
+     * @param world the world the position is in.
+     * @param x the x coordinate of the position.
+     * @param y the y coordinate of the position.
+     * @param z the z coordinate of the position.
+     * @return the (possibly cached) light level at the position,
+     * ignoring the time of day.
+     */
+    public static int getLight(World world, int x, int y, int z){
+        int ttl = CONFIG.getLightCacheTtl();
+        if(world.isRemote || ttl <= 0)
+            return read(world, x, y, z);
+
+        long now = world.getGameTime();
+        Long2ObjectMap<Snapshot> sections = WORLDS.get(world);
+        if(sections == null)
+            WORLDS.put(world, sections = new Long2ObjectOpenHashMap<>());
+
+        long key = PlantRegistry.getSectionKey(x, y, z);
+        Snapshot snapshot = sections.get(key);
+        if(snapshot == null)
+            sections.put(key, snapshot = new Snapshot(now));
+        else if(now - snapshot.created > ttl || now < snapshot.created)
+            snapshot.reset(now);
+
+        int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+        int value = snapshot.values[index];
+
+        if(value == UNKNOWN)
+            snapshot.values[index] = (byte) (value = read(world, x, y, z));
+
+        return value;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Discards the snapshots of the section of a changed block,
+     * and of the neighboring sections within light range of
+     * the block, as the change may have changed their light
+     * levels.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event){
+        Long2ObjectMap<Snapshot> sections = WORLDS.get(event.getWorld());
+        if(sections == null || sections.isEmpty())
+            return;
+
+        BlockPos pos = event.getPos();
+        int localX = pos.getX() & 15, localY = pos.getY() & 15, localZ = pos.getZ() & 15;
+
+        for(int x = -1; x <= 1; x++){
+            int distanceX = getDistanceToSection(localX, x);
+
+            for(int y = -1; y <= 1; y++){
+                int distanceY = distanceX + getDistanceToSection(localY, y);
+                if(distanceY > LIGHT_RANGE)
+                    continue;
+
+                for(int z = -1; z <= 1; z++){
+                    if(distanceY + getDistanceToSection(localZ, z) > LIGHT_RANGE)
+                        continue;
+
+                    sections.remove(PlantRegistry.getSectionKey(
+                            pos.getX() + (x << 4), pos.getY() + (y << 4), pos.getZ() + (z << 4)
+                    ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the snapshots of unloaded chunks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        Long2ObjectMap<Snapshot> sections = WORLDS.get(event.getWorld());
+        if(sections == null || sections.isEmpty())
+            return;
+
+        ChunkPos chunk = event.getChunk().getPos();
+        for(int y = 0; y < 256; y += 16)
+            sections.remove(PlantRegistry.getSectionKey(chunk.getXStart(), y, chunk.getZStart()));
+    }
+
+    /**
+     * Removes the snapshots of unloaded worlds.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        WORLDS.remove(event.getWorld());
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * @param local the coordinate (0 - 15) of a block within
+     *              its section along a single axis.
+     * @param offset the offset (-1, 0 or 1) of a section from
+     *               the blocks section along the same axis.
+     * @return the distance along the axis from the block to the
+     * nearest block of the offset section ({@code 0} for its
+     * own section).
+     */
+    private static int getDistanceToSection(int local, int offset){
+        return offset == 0 ? 0 : offset < 0 ? local + 1 : 16 - local;
+    }
+
+    /**
+     * Reads the light level of the given position from the world.
+     */
+    private static int read(World world, int x, int y, int z){
+        return world.getLightSubtracted(new BlockPos(x, y, z), 0);
+    }
+
+    /**
+     * The cached values of a single chunk section.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The cached values, indexed by {@code y << 8 | z << 4 | x}
+         * within the section.
+         */
+        private final byte[] values = new byte[16 * 16 * 16];
+
+        /**
+         * The game time the snapshot was (re)started.
+         */
+        private long created;
+
+        /**
+         * Creates a new, empty snapshot.
+         *
+         * @param now the current game time.
+         */
+        private Snapshot(long now){
+            reset(now);
+        }
+
+        /**
+         * Discards every cached value.
+         *
+         * @param now the current game time.
+         */
+        private void reset(long now){
+            Arrays.fill(values, UNKNOWN);
+            created = now;
+        }
+    }
+}
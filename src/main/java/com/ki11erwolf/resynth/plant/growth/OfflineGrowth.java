@@ -0,0 +1,296 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lets plants catch up on the growth they missed while
+ * their chunk was unloaded (config enabled).
+ * <p/>
+ * The game time a chunk is unloaded at is written to the
+ * chunk (see {@link OfflineGrowthChunk}). When the chunk is
+ * loaded again, every plant in it (as found in the
+ * {@link PlantRegistry}) is grown by the number of stages
+ * it would have grown from the random ticks it missed in the
+ * meantime - calculated in one go (see
+ * {@link BlockPlant#growByRandomTicks(World, BlockState, BlockPos, long)})
+ * and applied with a single state write per plant.
+ * <p/>
+ * Plants whose neighboring chunks aren't loaded yet are
+ * retried every tick until they are, or until their own
+ * chunk is unloaded again.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class OfflineGrowth {
+
+    /**
+     * The key the offline growth chunk capability is attached under.
+     */
+    private static final ResourceLocation CAPABILITY_KEY = new ResourceLocation(ResynthMod.MOD_ID, "offline_growth");
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The number of ticks each fully loaded chunk was unloaded
+     * for, waiting to be caught up on the next tick.
+     */
+    private static final Map<IWorld, Long2LongMap> LOADED_CHUNKS = new HashMap<>();
+
+    /**
+     * The number of section random ticks each plant that couldn't
+     * be caught up yet missed, waiting for its neighboring chunks
+     * to be loaded.
+     */
+    private static final Map<IWorld, Long2LongMap> WAITING_PLANTS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private OfflineGrowth(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Registers the offline growth chunk capability.
+     */
+    public static void registerCapability(){
+        CapabilityManager.INSTANCE.register(
+                OfflineGrowthChunk.class, new OfflineGrowthChunk.Storage(), () -> new OfflineGrowthChunk(null)
+        );
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Attaches the offline growth chunk capability to
+     * server chunks when offline growth is enabled.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onAttachChunkCapabilities(AttachCapabilitiesEvent<Chunk> event){
+        if(!CONFIG.isOfflineGrowthEnabled() || event.getObject().getWorld() == null
+                || event.getObject().getWorld().isRemote)
+            return;
+
+        event.addCapability(CAPABILITY_KEY, new OfflineGrowthChunk.Provider(event.getObject()));
+    }
+
+    /**
+     * Queues chunks read from disk for catch up once they're
+     * fully loaded, with the number of ticks they were
+     * unloaded for.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkLoad(ChunkEvent.Load event){
+        if(!(event.getChunk() instanceof Chunk) || event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        OfflineGrowthChunk chunk = ((Chunk) event.getChunk()).getCapability(OfflineGrowthChunk.CAPABILITY)
+                .orElse(null);
+        if(chunk == null)
+            return;
+
+        long savedTime = chunk.takeSavedTime();
+        if(savedTime == OfflineGrowthChunk.UNKNOWN)
+            return;
+
+        long elapsed = event.getWorld().getWorld().getGameTime() - savedTime;
+        if(elapsed > 0)
+            getMap(LOADED_CHUNKS, event.getWorld()).put(event.getChunk().getPos().asLong(), elapsed);
+    }
+
+    /**
+     * Records the time chunks are unloaded at, and drops the
+     * plants of unloaded chunks still waiting for their
+     * neighboring chunks to be loaded.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        if(event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        if(event.getChunk() instanceof Chunk)
+            ((Chunk) event.getChunk()).getCapability(OfflineGrowthChunk.CAPABILITY)
+                    .ifPresent(OfflineGrowthChunk::unload);
+
+        Long2LongMap waitingPlants = WAITING_PLANTS.get(event.getWorld());
+        if(waitingPlants == null || waitingPlants.isEmpty())
+            return;
+
+        ChunkPos chunkPos = event.getChunk().getPos();
+        waitingPlants.keySet().removeIf(position -> {
+            BlockPos pos = BlockPos.fromLong(position);
+            return (pos.getX() >> 4) == chunkPos.x && (pos.getZ() >> 4) == chunkPos.z;
+        });
+    }
+
+    /**
+     * Grows the plants in the chunks loaded since the last tick.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.START || event.world.isRemote)
+            return;
+
+        retryWaitingPlants(event.world);
+
+        Long2LongMap loadedChunks = LOADED_CHUNKS.remove(event.world);
+        if(loadedChunks == null)
+            return;
+
+        for(Long2LongMap.Entry entry : loadedChunks.long2LongEntrySet()){
+            catchUp(event.world, new ChunkPos(entry.getLongKey()), entry.getLongValue());
+        }
+    }
+
+    /**
+     * Removes the pending chunks and plants of an unloaded world.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        LOADED_CHUNKS.remove(event.getWorld());
+        WAITING_PLANTS.remove(event.getWorld());
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Grows every plant in the given chunk by the growth
+     * it missed while the chunk was unloaded.
+     *
+     * @param world the world the chunk is in.
+     * @param chunkPos the position of the chunk.
+     * @param elapsed the number of ticks the chunk was unloaded for.
+     */
+    private static void catchUp(World world, ChunkPos chunkPos, long elapsed){
+        Chunk chunk = world.getChunkProvider().getChunk(chunkPos.x, chunkPos.z, false);
+        if(chunk == null)
+            return;
+
+        long sectionRandomTicks = world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED) * elapsed;
+        if(sectionRandomTicks <= 0)
+            return;
+
+        //A copy, as growing can change the chunk.
+        for(long plant : PlantRegistry.getPlants(world, chunkPos)){
+            catchUp(world, BlockPos.fromLong(plant), sectionRandomTicks);
+        }
+    }
+
+    /**
+     * Grows the given plant by the growth it missed while its
+     * chunk was unloaded, or leaves it waiting for the next
+     * tick if its neighboring chunks aren't loaded yet.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param sectionRandomTicks the number of random ticks the
+     *                           plants chunk section missed.
+     */
+    private static void catchUp(World world, BlockPos pos, long sectionRandomTicks){
+        if(!world.isAreaLoaded(pos, 1)){
+            getMap(WAITING_PLANTS, world).put(pos.toLong(), sectionRandomTicks);
+            return;
+        }
+
+        BlockState state = world.getBlockState(pos);
+        if(state.getBlock() instanceof BlockPlant)
+            ((BlockPlant<?>) state.getBlock()).growByRandomTicks(world, state, pos, sectionRandomTicks);
+    }
+
+    /**
+     * Retries catching up the plants that were waiting
+     * for their neighboring chunks to be loaded.
+     *
+     * @param world the world the plants are in.
+     */
+    private static void retryWaitingPlants(World world){
+        Long2LongMap waitingPlants = WAITING_PLANTS.get(world);
+        if(waitingPlants == null || waitingPlants.isEmpty())
+            return;
+
+        //Collected first as catching up can queue plants again.
+        Long2LongMap ready = new Long2LongOpenHashMap();
+        ObjectIterator<Long2LongMap.Entry> iterator = waitingPlants.long2LongEntrySet().iterator();
+
+        while(iterator.hasNext()){
+            Long2LongMap.Entry entry = iterator.next();
+            if(!world.isAreaLoaded(BlockPos.fromLong(entry.getLongKey()), 1))
+                continue;
+
+            ready.put(entry.getLongKey(), entry.getLongValue());
+            iterator.remove();
+        }
+
+        for(Long2LongMap.Entry entry : ready.long2LongEntrySet()){
+            catchUp(world, BlockPos.fromLong(entry.getLongKey()), entry.getLongValue());
+        }
+    }
+
+    /**
+     * @return the map of chunk keys or positions to
+     * elapsed ticks for the given world from the given map.
+     */
+    private static Long2LongMap getMap(Map<IWorld, Long2LongMap> map, IWorld world){
+        return map.computeIfAbsent(world, w -> new Long2LongOpenHashMap());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import net.minecraft.nbt.INBT;
+import net.minecraft.nbt.LongNBT;
+import net.minecraft.util.Direction;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityInject;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.util.LazyOptional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The game time a chunk was unloaded at, attached to the
+ * chunk as a capability when offline growth is enabled
+ * (see {@link OfflineGrowth}).
+ * <p/>
+ * The game time is recorded when the chunk is unloaded
+ * and written with the chunk, which is marked as changed
+ * so it's always saved - otherwise a chunk unloaded without
+ * changes would keep the time of an older save, and be
+ * caught up for time it spent loaded. Chunks saved while
+ * loaded (e.g. by autosaves or crashes) write the current
+ * game time. The time is kept on the chunk object when
+ * it's read back until the chunk is fully loaded - so
+ * chunks read from disk that are never fully loaded don't
+ * leave anything behind.
+ */
+class OfflineGrowthChunk {
+
+    /**
+     * The offline growth chunk capability. Injected by Forge.
+     */
+    @CapabilityInject(OfflineGrowthChunk.class)
+    static Capability<OfflineGrowthChunk> CAPABILITY = null;
+
+    /**
+     * The saved game time of chunks that haven't been
+     * saved before, or have already been caught up.
+     */
+    static final long UNKNOWN = -1;
+
+    /**
+     * The chunk the capability is attached to, or
+     * {@code null} for the default instance.
+     */
+    @Nullable
+    private final Chunk chunk;
+
+    /**
+     * The game time the chunk was last saved at, as
+     * read from disk, or {@link #UNKNOWN}.
+     */
+    private long savedTime = UNKNOWN;
+
+    /**
+     * The game time the chunk was unloaded at, or
+     * {@link #UNKNOWN} while it's loaded.
+     */
+    private long unloadTime = UNKNOWN;
+
+    /**
+     * @param chunk the chunk the capability is attached to.
+     */
+    OfflineGrowthChunk(@Nullable Chunk chunk){
+        this.chunk = chunk;
+    }
+
+    /**
+     * Takes the game time the chunk was last saved at,
+     * so it's only ever caught up once.
+     *
+     * @return the game time the chunk was last saved
+     * at, or {@link #UNKNOWN}.
+     */
+    long takeSavedTime(){
+        long savedTime = this.savedTime;
+        this.savedTime = UNKNOWN;
+        return savedTime;
+    }
+
+    /**
+     * Records the current game time as the time the chunk
+     * was unloaded at, and marks the chunk as changed so
+     * it's saved with it.
+     */
+    void unload(){
+        if(chunk == null || chunk.getWorld() == null)
+            return;
+
+        unloadTime = chunk.getWorld().getGameTime();
+        chunk.markDirty();
+    }
+
+    /**
+     * @return the game time the chunk was unloaded at, or
+     * the current game time of the chunks world if it's
+     * still loaded, saved with the chunk.
+     */
+    private LongNBT write(){
+        if(unloadTime != UNKNOWN)
+            return new LongNBT(unloadTime);
+
+        return new LongNBT(chunk == null || chunk.getWorld() == null ? UNKNOWN : chunk.getWorld().getGameTime());
+    }
+
+    /**
+     * @param nbt the game time saved with the chunk.
+     */
+    private void read(LongNBT nbt){
+        savedTime = nbt.getLong();
+    }
+
+    // **********
+    // Capability
+    // **********
+
+    /**
+     * Saves and loads the offline growth chunk capability
+     * with the chunk it's attached to.
+     */
+    static class Provider implements ICapabilitySerializable<LongNBT> {
+
+        /**
+         * The saved game time of the chunk.
+         */
+        private final OfflineGrowthChunk chunk;
+
+        /**
+         * The saved game time of the chunk, as returned
+         * to capability queries.
+         */
+        private final LazyOptional<OfflineGrowthChunk> optional;
+
+        /**
+         * @param chunk the chunk the capability is attached to.
+         */
+        Provider(Chunk chunk){
+            this.chunk = new OfflineGrowthChunk(chunk);
+            this.optional = LazyOptional.of(() -> this.chunk);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nonnull
+        @Override
+        public <T> LazyOptional<T> getCapability(@Nonnull Capability<T> cap, @Nullable Direction side) {
+            return cap == CAPABILITY ? optional.cast() : LazyOptional.empty();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public LongNBT serializeNBT() {
+            return chunk.write();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void deserializeNBT(LongNBT nbt) {
+            chunk.read(nbt);
+        }
+    }
+
+    /**
+     * The default storage of the offline growth chunk
+     * capability, required when registering it.
+     */
+    static class Storage implements Capability.IStorage<OfflineGrowthChunk> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Nullable
+        @Override
+        public INBT writeNBT(Capability<OfflineGrowthChunk> capability, OfflineGrowthChunk instance,
+                             Direction side) {
+            return instance.write();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void readNBT(Capability<OfflineGrowthChunk> capability, OfflineGrowthChunk instance,
+                            Direction side, INBT nbt) {
+            if(nbt instanceof LongNBT)
+                instance.read((LongNBT) nbt);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of the positions of every Resynth plant
+ * in the loaded chunks of each world, grouped by the
+ * chunk section (16x16x16) they are in.
+ * <p/>
+ * Used by the growth engines that don't rely on vanilla
+ * random ticks to find the plants they need to grow, and
+ * only kept while one of them is selected (see
+ * {@link #isTracking()}). Positions are stored as packed
+ * longs ({@link BlockPos#toLong()}).
+ * <p/>
+ * The registered plants of each chunk are saved with the
+ * chunk, so loading a chunk doesn't need to read every block
+ * in it. Only chunks saved without the list (i.e. before the
+ * registry was kept) are scanned for plants.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class PlantRegistry {
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The plant positions in each world, mapped to the
+     * key of the chunk section they're in.
+     */
+    private static final Map<IWorld, Long2ObjectMap<LongSet>> WORLDS = new HashMap<>();
+
+    /**
+     * The NBT tag the registered plant positions
+     * of a chunk are saved under.
+     */
+    private static final String PLANTS_TAG = "resynthPlants";
+
+    /**
+     * The value of chunks read from disk without a saved
+     * plant list, which have to be scanned for plants.
+     */
+    private static final long[] UNTRACKED = new long[0];
+
+    /**
+     * The saved plant positions of the chunks read from disk
+     * that aren't fully loaded yet, mapped to the chunk key.
+     */
+    private static final Map<IWorld, Long2ObjectMap<long[]>> READ_CHUNKS = new HashMap<>();
+
+    /**
+     * The plant positions of the last unloaded chunk in each world,
+     * mapped to the section key. Vanilla saves a chunk right after
+     * unloading it, by which point it's no longer in the registry.
+     */
+    private static final Map<IWorld, Long2ObjectMap<LongSet>> UNLOADED_SECTIONS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private PlantRegistry(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @return {@code true} if the registry is kept: when the
+     * batched or scheduled growth engine is selected, or
+     * offline growth is enabled.
+     */
+    public static boolean isTracking(){
+        return CONFIG.getGrowthMode() != GrowthMode.RANDOM || CONFIG.isOfflineGrowthEnabled();
+    }
+
+    /**
+     * Adds the plant at the given position to the registry.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void add(IWorld world, BlockPos pos){
+        getSections(world)
+                .computeIfAbsent(getSectionKey(pos.getX(), pos.getY(), pos.getZ()), key -> new LongOpenHashSet())
+                .add(pos.toLong());
+    }
+
+    /**
+     * Removes the plant at the given position from the registry.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void remove(IWorld world, BlockPos pos){
+        Long2ObjectMap<LongSet> sections = WORLDS.get(world);
+        if(sections == null)
+            return;
+
+        long key = getSectionKey(pos.getX(), pos.getY(), pos.getZ());
+        LongSet plants = sections.get(key);
+
+        if(plants != null && plants.remove(pos.toLong()) && plants.isEmpty())
+            sections.remove(key);
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Collects the plant positions saved with chunks read from disk.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkRead(ChunkDataEvent.Load event){
+        if(event.getWorld() == null || event.getWorld().isRemote() || !isTracking())
+            return;
+
+        readChunk(event.getWorld(), event.getChunk().getPos(), event.getData());
+    }
+
+    /**
+     * Adds the plants in newly loaded chunks to the registry.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkLoad(ChunkEvent.Load event){
+        if(event.getWorld() == null || event.getWorld().isRemote() || !isTracking())
+            return;
+
+        loadChunk(event.getWorld(), event.getChunk());
+    }
+
+    /**
+     * Saves the registered plant positions with chunks written to disk.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkSave(ChunkDataEvent.Save event){
+        if(event.getWorld() == null || event.getWorld().isRemote() || !isTracking())
+            return;
+
+        saveChunk(event.getWorld(), event.getChunk().getPos(), event.getData());
+    }
+
+    /**
+     * Removes the plants in unloaded chunks from the registry.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        if(event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        unloadChunk(event.getWorld(), event.getChunk().getPos());
+    }
+
+    /**
+     * Removes the plants in an unloaded world from the registry.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        unloadWorld(event.getWorld());
+    }
+
+    // *********
+    // Internals
+    // *********
+
+    /**
+     * @param world the world.
+     * @return the (modifiable) map of chunk section keys
+     * to the plant positions within them for the given world.
+     */
+    static Long2ObjectMap<LongSet> getSections(IWorld world){
+        return WORLDS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+    }
+
+    /**
+     * @param world the world the chunk is in.
+     * @param chunkPos the position of the chunk.
+     * @return a new list of the registered plant
+     * positions in the given chunk.
+     */
+    static LongArrayList getPlants(IWorld world, ChunkPos chunkPos){
+        LongArrayList plants = new LongArrayList();
+        collectPlants(WORLDS.get(world), chunkPos, plants);
+        return plants;
+    }
+
+    /**
+     * Collects the saved plant positions of a chunk read
+     * from disk, to be registered once it's fully loaded.
+     *
+     * @param world the world the chunk is in.
+     * @param chunkPos the position of the chunk.
+     * @param data the data the chunk was read from.
+     */
+    private static void readChunk(IWorld world, ChunkPos chunkPos, CompoundNBT data){
+        READ_CHUNKS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>()).put(
+                chunkPos.asLong(), data.contains(PLANTS_TAG, 12) ? data.getLongArray(PLANTS_TAG) : UNTRACKED
+        );
+    }
+
+    /**
+     * Adds the plants in a newly loaded chunk to the registry:
+     * the plant positions saved with the chunk or, for chunks
+     * saved without them, the plants found by scanning the chunk.
+     * Newly generated chunks have no plants.
+     *
+     * @param world the world the chunk is in.
+     * @param chunk the newly loaded chunk.
+     */
+    private static void loadChunk(IWorld world, IChunk chunk){
+        if(!(chunk instanceof Chunk))
+            return;
+
+        Long2ObjectMap<long[]> readChunks = READ_CHUNKS.get(world);
+        long[] plants = readChunks == null ? null : readChunks.remove(chunk.getPos().asLong());
+
+        if(plants == null && ((Chunk) chunk).getInhabitedTime() == 0)
+            return;
+
+        if(plants == null || plants == UNTRACKED){
+            forEachPlant(chunk, pos -> add(world, pos));
+            return;
+        }
+
+        for(long plant : plants){
+            add(world, BlockPos.fromLong(plant));
+        }
+    }
+
+    /**
+     * Saves the registered plant positions of a chunk
+     * with the chunk data written to disk.
+     *
+     * @param world the world the chunk is in.
+     * @param chunkPos the position of the chunk.
+     * @param data the data the chunk is written to.
+     */
+    private static void saveChunk(IWorld world, ChunkPos chunkPos, CompoundNBT data){
+        LongArrayList plants = new LongArrayList();
+        collectPlants(WORLDS.get(world), chunkPos, plants);
+        collectPlants(UNLOADED_SECTIONS.get(world), chunkPos, plants);
+
+        data.putLongArray(PLANTS_TAG, plants.toLongArray());
+    }
+
+    /**
+     * Scans every non-empty section of the given chunk
+     * for Resynth plants and performs the given action
+     * on each of them.
+     *
+     * @param chunk the chunk to scan.
+     * @param action the action to perform with the position
+     *               of each plant found.
+     */
+    static void forEachPlant(IChunk chunk, Consumer<BlockPos> action){
+        ChunkPos chunkPos = chunk.getPos();
+
+        for(ChunkSection section : chunk.getSections()){
+            if(ChunkSection.isEmpty(section))
+                continue;
+
+            int baseY = section.getYLocation();
+            for(int y = 0; y < 16; y++){
+                for(int z = 0; z < 16; z++){
+                    for(int x = 0; x < 16; x++){
+                        if(section.getBlockState(x, y, z).getBlock() instanceof BlockPlant)
+                            action.accept(
+                                    new BlockPos(chunkPos.getXStart() + x, baseY + y, chunkPos.getZStart() + z)
+                            );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every plant in the given chunk from the registry,
+     * keeping them until the chunk is saved.
+     *
+     * @param world the world the chunk is in.
+     * @param chunkPos the position of the unloaded chunk.
+     */
+    private static void unloadChunk(IWorld world, ChunkPos chunkPos){
+        Long2ObjectMap<LongSet> sections = WORLDS.get(world);
+        if(sections == null)
+            return;
+
+        Long2ObjectMap<LongSet> unloaded = UNLOADED_SECTIONS.computeIfAbsent(
+                world, w -> new Long2ObjectOpenHashMap<>()
+        );
+        unloaded.clear();
+
+        for(int y = 0; y < 256; y += 16){
+            long key = getSectionKey(chunkPos.getXStart(), y, chunkPos.getZStart());
+            LongSet plants = sections.remove(key);
+
+            if(plants != null)
+                unloaded.put(key, plants);
+        }
+    }
+
+    /**
+     * Removes every plant in the given world from the registry.
+     *
+     * @param world the unloaded world.
+     */
+    private static void unloadWorld(IWorld world){
+        WORLDS.remove(world);
+        READ_CHUNKS.remove(world);
+        UNLOADED_SECTIONS.remove(world);
+    }
+
+    /**
+     * Adds the plant positions in the given chunk
+     * to the given list.
+     *
+     * @param sections the plant positions mapped to section keys.
+     * @param chunkPos the position of the chunk.
+     * @param plants the list to add the positions to.
+     */
+    private static void collectPlants(Long2ObjectMap<LongSet> sections, ChunkPos chunkPos, LongArrayList plants){
+        if(sections == null)
+            return;
+
+        for(int y = 0; y < 256; y += 16){
+            LongSet section = sections.get(getSectionKey(chunkPos.getXStart(), y, chunkPos.getZStart()));
+
+            if(section != null)
+                plants.addAll(section);
+        }
+    }
+
+    /**
+     * Gets the key of the chunk section the given
+     * block position is in. The key is the packed
+     * position of the lowest corner of the section.
+     *
+     * @return the key of the chunk section.
+     */
+    static long getSectionKey(int x, int y, int z){
+        return BlockPos.pack(x & ~15, y & ~15, z & ~15);
+    }
+}
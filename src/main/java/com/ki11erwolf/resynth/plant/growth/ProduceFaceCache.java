@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import it.unimi.dsi.fastutil.longs.Long2ByteMap;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches, per chunk, the horizontal faces of each Metallic
+ * plant its produce can be placed on, as a 4-bit mask indexed
+ * by {@link net.minecraft.util.Direction#getHorizontalIndex()}.
+ * <p/>
+ * Masks are invalidated whenever a block next to the plant, or
+ * next to the soil underneath it, changes - as the produce
+ * needs an empty block with a solid block underneath it.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class ProduceFaceCache {
+
+    /**
+     * The value returned for plants without a cached mask.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * The cached face masks in each world, mapped to the
+     * packed position of the plant, grouped by chunk.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Long2ByteMap>> WORLDS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private ProduceFaceCache(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @return the cached face mask of the plant at the given
+     * position, or {@link #UNKNOWN} if there isn't one.
+     */
+    public static int get(IWorld world, BlockPos pos){
+        Long2ObjectMap<Long2ByteMap> chunks = WORLDS.get(world);
+        if(chunks == null)
+            return UNKNOWN;
+
+        Long2ByteMap faces = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if(faces == null)
+            return UNKNOWN;
+
+        return faces.get(pos.toLong());
+    }
+
+    /**
+     * Caches the face mask of the plant at the given position.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param mask the faces (bits 0 - 3) the plants produce
+     *             can be placed on.
+     */
+    public static void put(IWorld world, BlockPos pos, int mask){
+        WORLDS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>())
+                .computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), key -> {
+                    Long2ByteMap faces = new Long2ByteOpenHashMap();
+                    faces.defaultReturnValue((byte) UNKNOWN);
+                    return faces;
+                })
+                .put(pos.toLong(), (byte) mask);
+    }
+
+    /**
+     * Removes the cached face mask of the plant at the given
+     * position, if any. Should be called whenever a block
+     * next to the plant or its soil changes.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void invalidate(IWorld world, BlockPos pos){
+        Long2ObjectMap<Long2ByteMap> chunks = WORLDS.get(world);
+        if(chunks == null)
+            return;
+
+        long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        Long2ByteMap faces = chunks.get(chunkKey);
+        if(faces == null)
+            return;
+
+        faces.remove(pos.toLong());
+        if(faces.isEmpty())
+            chunks.remove(chunkKey);
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Removes the cached masks of unloaded chunks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        Long2ObjectMap<Long2ByteMap> chunks = WORLDS.get(event.getWorld());
+
+        if(chunks != null)
+            chunks.remove(event.getChunk().getPos().asLong());
+    }
+
+    /**
+     * Removes the cached masks of unloaded worlds.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        WORLDS.remove(event.getWorld());
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GrowthConfig;
+import com.ki11erwolf.resynth.plant.block.BlockPlant;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of when each plant grown by the scheduled
+ * growth engine ({@link GrowthMode#SCHEDULED}) is next
+ * due to grow.
+ * <p/>
+ * Vanilla scheduled ticks can neither be cancelled nor
+ * brought forward, and have a limited delay, so plants
+ * schedule a tick at either their due time or the
+ * configured maximum delay, whichever comes first, and
+ * the due time itself is kept here. Due times are kept
+ * in memory only - as the time until the next growth is
+ * memoryless, a plant without a known due time (e.g.
+ * after its chunk is reloaded) simply samples a new one.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class ScheduledGrowth {
+
+    /**
+     * Returned when a plant does not have a known due time.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * Configuration settings for plant growth.
+     */
+    private static final GrowthConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GrowthConfig.class);
+
+    /**
+     * The due time of each plant in each world, grouped by chunk.
+     */
+    private static final Map<IWorld, Long2ObjectMap<Long2LongMap>> DUE_TIMES = new HashMap<>();
+
+    /**
+     * The keys of the newly loaded chunks in each world whose
+     * plants are waiting to have their growth scheduled on
+     * the next tick.
+     */
+    private static final Map<IWorld, LongArrayList> LOADED_CHUNKS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private ScheduledGrowth(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @return the game time the plant is next due to
+     * grow, or {@link #UNKNOWN} if it's not known.
+     */
+    public static long getDueTime(IWorld world, BlockPos pos){
+        Long2LongMap plants = getChunk(world, pos, false);
+
+        if(plants == null)
+            return UNKNOWN;
+
+        return plants.getOrDefault(pos.toLong(), UNKNOWN);
+    }
+
+    /**
+     * Sets the game time the plant is next due to grow.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     * @param dueTime the game time the plant is next due to grow.
+     */
+    public static void setDueTime(IWorld world, BlockPos pos, long dueTime){
+        //noinspection ConstantConditions //Created when missing.
+        getChunk(world, pos, true).put(pos.toLong(), dueTime);
+    }
+
+    /**
+     * Removes the due time of the given plant.
+     *
+     * @param world the world the plant is in.
+     * @param pos the position of the plant.
+     */
+    public static void remove(IWorld world, BlockPos pos){
+        Long2LongMap plants = getChunk(world, pos, false);
+
+        if(plants != null)
+            plants.remove(pos.toLong());
+    }
+
+    /**
+     * @param create {@code true} if the map should be created
+     *               if it does not yet exist.
+     * @return the due times of the plants in the chunk the
+     * given position is in.
+     */
+    private static Long2LongMap getChunk(IWorld world, BlockPos pos, boolean create){
+        Long2ObjectMap<Long2LongMap> chunks = DUE_TIMES.get(world);
+
+        if(chunks == null){
+            if(!create)
+                return null;
+
+            DUE_TIMES.put(world, chunks = new Long2ObjectOpenHashMap<>());
+        }
+
+        long chunkKey = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        Long2LongMap plants = chunks.get(chunkKey);
+
+        if(plants == null && create)
+            chunks.put(chunkKey, plants = new Long2LongOpenHashMap());
+
+        return plants;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Queues newly loaded chunks so their plants can have
+     * their growth scheduled on the next tick. Required for
+     * plants whose due times were lost with their chunk, or
+     * that were placed before the scheduled growth engine
+     * was enabled.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkLoad(ChunkEvent.Load event){
+        if(event.getWorld() == null || event.getWorld().isRemote()
+                || CONFIG.getGrowthMode() != GrowthMode.SCHEDULED)
+            return;
+
+        LOADED_CHUNKS.computeIfAbsent(event.getWorld(), world -> new LongArrayList())
+                .add(event.getChunk().getPos().asLong());
+    }
+
+    /**
+     * Schedules the growth of the plants in chunks loaded
+     * since the last tick. The plants are looked up in the
+     * {@link PlantRegistry}, which has them by then.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.START || event.world.isRemote)
+            return;
+
+        LongArrayList chunks = LOADED_CHUNKS.remove(event.world);
+        if(chunks == null)
+            return;
+
+        World world = event.world;
+        for(long chunk : chunks){
+            for(long position : PlantRegistry.getPlants(world, new ChunkPos(chunk))){
+                BlockPos pos = BlockPos.fromLong(position);
+                if(!world.isBlockLoaded(pos))
+                    continue;
+
+                BlockState state = world.getBlockState(pos);
+                if(state.getBlock() instanceof BlockPlant)
+                    ((BlockPlant<?>) state.getBlock()).resumeGrowth(world, state, pos);
+            }
+        }
+    }
+
+    /**
+     * Removes the due times of the plants in unloaded chunks.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onChunkUnload(ChunkEvent.Unload event){
+        if(event.getWorld() == null || event.getWorld().isRemote())
+            return;
+
+        Long2ObjectMap<Long2LongMap> chunks = DUE_TIMES.get(event.getWorld());
+        if(chunks != null)
+            chunks.remove(event.getChunk().getPos().asLong());
+    }
+
+    /**
+     * Removes the due times of the plants in an unloaded world.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        DUE_TIMES.remove(event.getWorld());
+        LOADED_CHUNKS.remove(event.getWorld());
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.ki11erwolf.resynth.plant.set;
 
+import com.ki11erwolf.resynth.config.ConfigCategory;
 import com.ki11erwolf.resynth.plant.block.BlockBiochemicalPlant;
 import com.ki11erwolf.resynth.plant.item.ItemBulb;
 import com.ki11erwolf.resynth.plant.item.ItemSeeds;
@@ -67,9 +68,20 @@ abstract class BiochemicalSet extends PlantSet<BlockBiochemicalPlant> {
                 return seedsItem;
             }
 
+            private ItemStack produce;
+
+            {
+                //Rebuilt with the new number of drops on reload.
+                if(properties instanceof ConfigCategory)
+                    ((ConfigCategory) properties).addReloadListener(() -> produce = null);
+            }
+
             @Override
             protected ItemStack getProduce() {
-                return new ItemStack(produceItemOrBlock.getItem(), properties.numberOfProduceDrops());
+                if(produce == null)
+                    produce = new ItemStack(produceItemOrBlock.getItem(), properties.numberOfProduceDrops());
+
+                return produce;
             }
         };
         this.seedsItem = new ItemSeeds(SET_TYPE_NAME, setName, plantBlock, properties);
@@ -15,6 +15,7 @@
  */
 package com.ki11erwolf.resynth.plant.set;
 
+import com.ki11erwolf.resynth.config.ConfigCategory;
 import com.ki11erwolf.resynth.plant.block.BlockCrystallinePlant;
 import com.ki11erwolf.resynth.plant.item.ItemSeeds;
 import com.ki11erwolf.resynth.plant.item.ItemShard;
@@ -72,9 +73,20 @@ abstract class CrystallineSet extends PlantSet<BlockCrystallinePlant> {
                 return seedsItem;
             }
 
+            private ItemStack produce;
+
+            {
+                //Rebuilt with the new number of drops on reload.
+                if(properties instanceof ConfigCategory)
+                    ((ConfigCategory) properties).addReloadListener(() -> produce = null);
+            }
+
             @Override
             protected ItemStack getProduce(){
-                return new ItemStack(produceItemOrBlock.getItem(), properties.numberOfProduceDrops());
+                if(produce == null)
+                    produce = new ItemStack(produceItemOrBlock.getItem(), properties.numberOfProduceDrops());
+
+                return produce;
             }
         };
         this.seedsItem = new ItemSeeds(SET_TYPE_NAME, setName, plantBlock, properties);
@@ -61,16 +61,22 @@ abstract class MetallicSet extends PlantSet<BlockMetallicPlant> {
         super(SET_TYPE_NAME, setName, SEED_HOOKS, properties);
         this.properties = properties;
 
-        this.produceItemOrBlock = new ItemOrBlock(new BlockOrganicOre(SET_TYPE_NAME, setName, properties));
-        this.plantBlock = new BlockMetallicPlant(SET_TYPE_NAME, setName, properties) {
+        BlockOrganicOre produceBlock = new BlockOrganicOre(SET_TYPE_NAME, setName, properties);
+        this.produceItemOrBlock = new ItemOrBlock(produceBlock);
+        this.plantBlock = new BlockMetallicPlant(SET_TYPE_NAME, setName, properties, produceBlock) {
             @Override
             protected ItemSeeds getSeedsItem() {
                 return seedsItem;
             }
 
+            private ItemStack produce;
+
             @Override
             protected ItemStack getProduce() {
-                return new ItemStack(produceItemOrBlock.getBlock(), 1);
+                if(produce == null)
+                    produce = new ItemStack(produceBlock, 1);
+
+                return produce;
             }
         };
         this.seedsItem = new ItemSeeds(SET_TYPE_NAME, setName, plantBlock, properties);
@@ -19,13 +19,18 @@ import com.ki11erwolf.resynth.ResynthMod;
 import com.ki11erwolf.resynth.analytics.ConnectEvent;
 import com.ki11erwolf.resynth.analytics.NewUserEvent;
 import com.ki11erwolf.resynth.analytics.ResynthAnalytics;
+import com.ki11erwolf.resynth.block.storage.MineralSoilStorage;
+import com.ki11erwolf.resynth.command.ResynthCommand;
 import com.ki11erwolf.resynth.config.ResynthConfig;
 import com.ki11erwolf.resynth.config.categories.GeneralConfig;
 import com.ki11erwolf.resynth.features.ResynthFeatures;
+import com.ki11erwolf.resynth.plant.growth.OfflineGrowth;
+import com.ki11erwolf.resynth.util.MathUtil;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartingEvent;
 import net.minecraftforge.registries.ForgeRegistries;
 import org.apache.logging.log4j.Logger;
 
@@ -57,6 +62,46 @@ public class ServerProxy implements Proxy {
         sendConnectEvent();
         printItemAndBlockRegisters();
         ResynthFeatures.init();
+        MineralSoilStorage.registerCapability();
+        OfflineGrowth.registerCapability();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p/>
+     *
+     * Seeds the random number generators if
+     * the config specifies a seed and registers
+     * the {@code /resynth} command.
+     *
+     * @param event forge provided event.
+     */
+    @Override
+    public void onServerStarting(FMLServerStartingEvent event) {
+        seedRandom();
+        ResynthCommand.register(event.getCommandDispatcher());
+    }
+
+    /**
+     * Seeds Resynth's random number generators with the
+     * seed from the config, if any. Like world seeds,
+     * non-numeric seeds are hashed.
+     */
+    private void seedRandom(){
+        String seed = ResynthConfig.GENERAL_CONFIG.getCategory(GeneralConfig.class).getRandomSeed();
+        if(seed.isEmpty())
+            return;
+
+        long numericSeed;
+        try {
+            numericSeed = Long.parseLong(seed);
+        } catch (NumberFormatException e){
+            numericSeed = seed.hashCode();
+        }
+
+        LOG.info("Seeding random number generators with: " + numericSeed);
+        MathUtil.setSeed(numericSeed);
     }
 
     /**
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo simulation of the time a whole farm (a layout
+ * of plants, each with its own growth parameters) takes to
+ * fully grow.
+ * <p/>
+ * Runs are split across a fork-join pool, each fork using its
+ * own {@link SplittableRandom} split from the seeded root, so
+ * results are reproducible for a given seed regardless of the
+ * number of threads. Each run simulates the individual random
+ * ticks that pick each plant (geometrically skipping the picks
+ * that don't grow it), so the results can be compared against
+ * the closed form {@link GrowthForecast} and the growth engines.
+ */
+public final class FarmSimulation {
+
+    /**
+     * The number of runs simulated by a single fork.
+     */
+    private static final int RUNS_PER_FORK = 256;
+
+    /**
+     * The plants in the farm.
+     */
+    private final List<Plant> plants = new ArrayList<>();
+
+    // ******
+    // Layout
+    // ******
+
+    /**
+     * Adds a plant to the farm layout.
+     *
+     * @param parameters the growth parameters of the plant.
+     * @param stages the number of growth stages the plant has left to grow.
+     * @return this simulation.
+     */
+    public FarmSimulation addPlant(GrowthParameters parameters, int stages){
+        plants.add(new Plant(parameters, stages));
+        return this;
+    }
+
+    /**
+     * Adds a number of identical plants to the farm layout.
+     *
+     * @param parameters the growth parameters of the plants.
+     * @param stages the number of growth stages the plants have left to grow.
+     * @param count the number of plants to add.
+     * @return this simulation.
+     */
+    public FarmSimulation addPlants(GrowthParameters parameters, int stages, int count){
+        plants.addAll(Collections.nCopies(count, new Plant(parameters, stages)));
+        return this;
+    }
+
+    // **********
+    // Simulation
+    // **********
+
+    /**
+     * Simulates the farm the given number of times using
+     * the common fork-join pool.
+     *
+     * @param runs the number of times to simulate the farm.
+     * @param seed the seed of the random number generator.
+     * @return the results of the simulation.
+     */
+    public Result simulate(int runs, long seed){
+        return simulate(runs, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Simulates the farm the given number of times.
+     *
+     * @param runs the number of times to simulate the farm.
+     * @param seed the seed of the random number generator.
+     * @param pool the fork-join pool to simulate on.
+     * @return the results of the simulation.
+     */
+    public Result simulate(int runs, long seed, ForkJoinPool pool){
+        Plant[] layout = plants.toArray(new Plant[0]);
+        double[] farmTicks = new double[Math.max(0, runs)];
+        double[] plantTicks = new double[farmTicks.length];
+
+        pool.invoke(new Fork(layout, farmTicks, plantTicks, 0, farmTicks.length, new SplittableRandom(seed)));
+
+        double plantTicksSum = 0;
+        for(double ticks : plantTicks)
+            plantTicksSum += ticks;
+
+        Arrays.sort(farmTicks);
+        return new Result(farmTicks, farmTicks.length == 0 ? 0 : plantTicksSum / plantTicks.length);
+    }
+
+    /**
+     * Simulates a single run of the farm.
+     *
+     * @param layout the plants in the farm.
+     * @param random the random number generator of the run.
+     * @param plantTicks the array to write the average plant maturity time to.
+     * @param run the index of the run.
+     * @return the number of ticks until every plant in the farm is fully grown.
+     */
+    private static double simulateRun(Plant[] layout, SplittableRandom random, double[] plantTicks, int run){
+        double farm = 0;
+        double sum = 0;
+
+        for(Plant plant : layout){
+            double ticks = simulatePlant(plant, random);
+
+            farm = Math.max(farm, ticks);
+            sum += ticks;
+        }
+
+        plantTicks[run] = layout.length == 0 ? 0 : sum / layout.length;
+        return farm;
+    }
+
+    /**
+     * @return the number of ticks the given plant took to
+     * fully grow in a single simulated run.
+     */
+    private static double simulatePlant(Plant plant, SplittableRandom random){
+        double chance = plant.parameters.getRandomTickChance();
+        int speed = plant.parameters.getRandomTickSpeed();
+
+        if(plant.stages <= 0)
+            return 0;
+        if(chance <= 0 || speed <= 0)
+            return Double.POSITIVE_INFINITY;
+
+        //The random tick picks in the section, the last of which grew the last stage.
+        double picks = 0;
+        double logFailure = Math.log1p(-Math.min(chance, 0.999_999D));
+
+        for(int i = 0; i < plant.stages; i++){
+            picks += Math.floor(Math.log1p(-random.nextDouble()) / logFailure) + 1;
+        }
+
+        return Math.ceil(picks / speed);
+    }
+
+    // *****
+    // Types
+    // *****
+
+    /**
+     * A single plant in the farm layout.
+     */
+    private static final class Plant {
+
+        /**
+         * The growth parameters of the plant.
+         */
+        private final GrowthParameters parameters;
+
+        /**
+         * The number of growth stages the plant has left to grow.
+         */
+        private final int stages;
+
+        /**
+         * @param parameters the growth parameters of the plant.
+         * @param stages the number of growth stages the plant has left to grow.
+         */
+        private Plant(GrowthParameters parameters, int stages){
+            this.parameters = parameters;
+            this.stages = stages;
+        }
+    }
+
+    /**
+     * Simulates a range of runs, forking in half
+     * until the range is small enough.
+     */
+    private static final class Fork extends RecursiveTask<Void> {
+
+        /**
+         * Forks are never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The plants in the farm.
+         */
+        private final Plant[] layout;
+
+        /**
+         * The farm maturity time of each run.
+         */
+        private final double[] farmTicks;
+
+        /**
+         * The average plant maturity time of each run.
+         */
+        private final double[] plantTicks;
+
+        /**
+         * The first run simulated by this fork (inclusive).
+         */
+        private final int from;
+
+        /**
+         * The last run simulated by this fork (exclusive).
+         */
+        private final int to;
+
+        /**
+         * The random number generator of this fork.
+         */
+        private final SplittableRandom random;
+
+        /**
+         * @param layout the plants in the farm.
+         * @param farmTicks the farm maturity time of each run.
+         * @param plantTicks the average plant maturity time of each run.
+         * @param from the first run (inclusive).
+         * @param to the last run (exclusive).
+         * @param random the random number generator of this fork.
+         */
+        private Fork(Plant[] layout, double[] farmTicks, double[] plantTicks, int from, int to,
+                     SplittableRandom random){
+            this.layout = layout;
+            this.farmTicks = farmTicks;
+            this.plantTicks = plantTicks;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Void compute(){
+            if(to - from <= RUNS_PER_FORK){
+                for(int run = from; run < to; run++){
+                    farmTicks[run] = simulateRun(layout, random, plantTicks, run);
+                }
+
+                return null;
+            }
+
+            int middle = (from + to) >>> 1;
+            Fork left = new Fork(layout, farmTicks, plantTicks, from, middle, random.split());
+            Fork right = new Fork(layout, farmTicks, plantTicks, middle, to, random);
+
+            left.fork();
+            right.compute();
+            left.join();
+            return null;
+        }
+    }
+
+    /**
+     * The results of a farm simulation.
+     */
+    public static final class Result {
+
+        /**
+         * The farm maturity time of each run, sorted.
+         */
+        private final double[] farmTicks;
+
+        /**
+         * The average plant maturity time across every run.
+         */
+        private final double meanPlantTicks;
+
+        /**
+         * @param farmTicks the sorted farm maturity time of each run.
+         * @param meanPlantTicks the average plant maturity time across every run.
+         */
+        private Result(double[] farmTicks, double meanPlantTicks){
+            this.farmTicks = farmTicks;
+            this.meanPlantTicks = meanPlantTicks;
+        }
+
+        /**
+         * @return the number of simulated runs.
+         */
+        public int getRuns(){
+            return farmTicks.length;
+        }
+
+        /**
+         * @return the average number of ticks until
+         * every plant in the farm is fully grown.
+         */
+        public double getMeanFarmTicks(){
+            double sum = 0;
+            for(double ticks : farmTicks)
+                sum += ticks;
+
+            return farmTicks.length == 0 ? 0 : sum / farmTicks.length;
+        }
+
+        /**
+         * @param percentile the percentile (0.0 - 1.0).
+         * @return the number of ticks within which every plant in the
+         * farm was fully grown in the given percentile of runs.
+         */
+        public double getPercentileFarmTicks(double percentile){
+            if(farmTicks.length == 0)
+                return 0;
+
+            int index = (int) Math.ceil(Math.max(0, Math.min(1, percentile)) * farmTicks.length) - 1;
+            return farmTicks[Math.max(0, index)];
+        }
+
+        /**
+         * @return the average number of ticks a single
+         * plant in the farm took to fully grow.
+         */
+        public double getMeanPlantTicks(){
+            return meanPlantTicks;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.simulation;
+
+/**
+ * Closed form forecasts of the time a plant takes to
+ * reach maturity.
+ * <p/>
+ * Random ticks pick the plant independently with a tiny
+ * chance each, so growth is modelled as a Poisson process
+ * with the plants growth rate ({@link GrowthParameters#getGrowthRate()}).
+ * The time to grow {@code n} stages then follows a Gamma (Erlang)
+ * distribution with shape {@code n}, which has a closed form
+ * mean and cumulative distribution.
+ */
+public final class GrowthForecast {
+
+    /**
+     * The number of bisection steps used to find percentiles.
+     */
+    private static final int PERCENTILE_ITERATIONS = 64;
+
+    /**Private Constructor.*/
+    private GrowthForecast(){}
+
+    /**
+     * @param parameters the growth parameters of the plant.
+     * @param stages the number of growth stages left to grow.
+     * @return the expected number of game ticks until the plant
+     * has grown the given number of stages, or
+     * {@link Double#POSITIVE_INFINITY} if it can't grow.
+     */
+    public static double getExpectedTicks(GrowthParameters parameters, int stages){
+        if(stages <= 0)
+            return 0;
+
+        double rate = parameters.getGrowthRate();
+        return rate <= 0 ? Double.POSITIVE_INFINITY : stages / rate;
+    }
+
+    /**
+     * @param parameters the growth parameters of the plant.
+     * @param stages the number of growth stages left to grow.
+     * @param ticks the number of game ticks.
+     * @return the probability (0.0 - 1.0) of the plant growing the
+     * given number of stages within the given number of ticks.
+     */
+    public static double getProbabilityWithin(GrowthParameters parameters, int stages, double ticks){
+        if(stages <= 0)
+            return 1;
+
+        double expected = parameters.getGrowthRate() * ticks;
+        if(expected <= 0)
+            return 0;
+
+        //Erlang CDF: 1 - sum(k = 0..n-1) e^-x * x^k / k!
+        double term = Math.exp(-expected);
+        double sum = term;
+
+        for(int k = 1; k < stages; k++){
+            term *= expected / k;
+            sum += term;
+        }
+
+        return Math.max(0, Math.min(1, 1 - sum));
+    }
+
+    /**
+     * @param parameters the growth parameters of the plant.
+     * @param stages the number of growth stages left to grow.
+     * @param percentile the percentile (0.0 - 1.0, exclusive).
+     * @return the number of game ticks within which the plant grows
+     * the given number of stages with the given probability, or
+     * {@link Double#POSITIVE_INFINITY} if it can't grow.
+     */
+    public static double getPercentileTicks(GrowthParameters parameters, int stages, double percentile){
+        if(stages <= 0)
+            return 0;
+
+        double expected = getExpectedTicks(parameters, stages);
+        if(Double.isInfinite(expected))
+            return Double.POSITIVE_INFINITY;
+
+        if(percentile <= 0)
+            return 0;
+        if(percentile >= 1)
+            return Double.POSITIVE_INFINITY;
+
+        double low = 0;
+        double high = expected;
+        while(getProbabilityWithin(parameters, stages, high) < percentile){
+            low = high;
+            high *= 2;
+        }
+
+        for(int i = 0; i < PERCENTILE_ITERATIONS; i++){
+            double middle = (low + high) / 2;
+
+            if(getProbabilityWithin(parameters, stages, middle) < percentile)
+                low = middle;
+            else high = middle;
+        }
+
+        return high;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.simulation;
+
+/**
+ * The inputs that decide how fast a single Resynth plant
+ * grows, without any reference to a Minecraft world.
+ * <p/>
+ * Models the growth chance used by the plant blocks: the
+ * Mineral Content of the soil (plus the Enhancer increase
+ * once the Mineral Content is above 49.9) multiplied by the
+ * growth chance of the plant type, evaluated each time a
+ * vanilla random tick picks the plant (1 in 4096 picks per
+ * chunk section, {@code randomTickSpeed} picks per tick).
+ */
+public final class GrowthParameters {
+
+    /**
+     * The number of blocks in a chunk section - the odds
+     * of a single random tick picking a specific block.
+     */
+    public static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    /**
+     * The vanilla default {@code randomTickSpeed} game rule.
+     */
+    public static final int DEFAULT_RANDOM_TICK_SPEED = 3;
+
+    /**
+     * The Mineral Content above which the Enhancer increase applies.
+     */
+    private static final float ENHANCER_THRESHOLD = 49.9F;
+
+    /**
+     * The growth chance (0 - 100) of the plant type.
+     */
+    private final float plantGrowthChance;
+
+    /**
+     * The Mineral Content (0 - 50) of the soil.
+     */
+    private final float mineralContent;
+
+    /**
+     * The Mineral Content increase of the Enhancer under the soil.
+     */
+    private final float enhancerIncrease;
+
+    /**
+     * The number of random ticks per chunk section per tick.
+     */
+    private final int randomTickSpeed;
+
+    /**
+     * @param plantGrowthChance the growth chance (0 - 100) of the plant type.
+     * @param mineralContent the Mineral Content (0 - 50) of the soil.
+     * @param enhancerIncrease the Mineral Content increase of the Enhancer
+     *                         under the soil ({@code 0} if there isn't one).
+     * @param randomTickSpeed the {@code randomTickSpeed} game rule.
+     */
+    public GrowthParameters(float plantGrowthChance, float mineralContent, float enhancerIncrease,
+                            int randomTickSpeed){
+        this.plantGrowthChance = plantGrowthChance;
+        this.mineralContent = mineralContent;
+        this.enhancerIncrease = enhancerIncrease;
+        this.randomTickSpeed = Math.max(0, randomTickSpeed);
+    }
+
+    /**
+     * Creates parameters using the default random tick speed.
+     *
+     * @param plantGrowthChance the growth chance (0 - 100) of the plant type.
+     * @param mineralContent the Mineral Content (0 - 50) of the soil.
+     * @param enhancerIncrease the Mineral Content increase of the Enhancer
+     *                         under the soil ({@code 0} if there isn't one).
+     */
+    public GrowthParameters(float plantGrowthChance, float mineralContent, float enhancerIncrease){
+        this(plantGrowthChance, mineralContent, enhancerIncrease, DEFAULT_RANDOM_TICK_SPEED);
+    }
+
+    // *******
+    // Getters
+    // *******
+
+    /**
+     * @return the growth chance (0 - 100) of the plant type.
+     */
+    public float getPlantGrowthChance(){
+        return plantGrowthChance;
+    }
+
+    /**
+     * @return the Mineral Content (0 - 50) of the soil.
+     */
+    public float getMineralContent(){
+        return mineralContent;
+    }
+
+    /**
+     * @return the Mineral Content increase of the Enhancer under the soil.
+     */
+    public float getEnhancerIncrease(){
+        return enhancerIncrease;
+    }
+
+    /**
+     * @return the number of random ticks per chunk section per tick.
+     */
+    public int getRandomTickSpeed(){
+        return randomTickSpeed;
+    }
+
+    // ************
+    // Growth Model
+    // ************
+
+    /**
+     * @return the combined chance (0 - 100) of the plant growing
+     * when it's picked by a random tick.
+     */
+    public float getGrowthChance(){
+        float combined = mineralContent + ((mineralContent > ENHANCER_THRESHOLD) ? enhancerIncrease : 0);
+        return (clampPercentage(combined) * clampPercentage(plantGrowthChance)) / 100;
+    }
+
+    /**
+     * @return the chance (0.0 - 1.0) of a single random
+     * tick in the plants chunk section growing the plant.
+     */
+    public double getRandomTickChance(){
+        return getGrowthChance() / 100.0D / SECTION_VOLUME;
+    }
+
+    /**
+     * @return the average number of growth stages
+     * the plant grows per game tick.
+     */
+    public double getGrowthRate(){
+        return getRandomTickChance() * randomTickSpeed;
+    }
+
+    /**
+     * @return the given percentage clamped to the
+     * range of {@code 0.0F - 100.0F}.
+     */
+    private static float clampPercentage(float percentage){
+        return Math.max(0.0F, Math.min(100.0F, percentage));
+    }
+}
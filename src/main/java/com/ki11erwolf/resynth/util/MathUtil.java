@@ -15,23 +15,102 @@
  */
 package com.ki11erwolf.resynth.util;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A set of utilities for assistance in
  * mathematics functions.
+ * <p/>
+ * Random numbers are drawn from a fast, unsynchronized
+ * generator owned by the calling thread, so threads never
+ * contend over a shared seed. The generators can be seeded
+ * ({@link #setSeed(long)}) to replay exact random sequences
+ * (e.g. growth) in benchmarks and tests.
  */
 public final class MathUtil {
 
     /**
-     * Static final instance of {@link Random} to
-     * prevent unneeded object creation.
+     * The threshold equivalent to a 100% chance, for
+     * {@link #thresholdChance(int)}. Thresholds are fixed-point
+     * fractions of this value.
      */
-    private static final Random RANDOM_INSTANCE = new Random();
+    public static final int CHANCE_THRESHOLD_SCALE = 1 << 30;
+
+    /**
+     * The generator of the calling thread.
+     */
+    private static final ThreadLocal<ThreadRandom> THREAD_RANDOM = ThreadLocal.withInitial(ThreadRandom::new);
+
+    /**
+     * Incremented every time the generators are (re)seeded,
+     * letting each thread know to replace its generator.
+     */
+    private static final AtomicInteger SEED_GENERATION = new AtomicInteger();
+
+    /**
+     * The seeded root generator each threads generator is split
+     * from, {@code null} when the generators aren't seeded.
+     * Guarded by the class lock.
+     */
+    private static SplittableRandom seededRoot = null;
 
     //Static class.
     private MathUtil(){}
 
+    // ******
+    // Random
+    // ******
+
+    /**
+     * Seeds the random number generators, making every
+     * subsequent random number deterministic. Each thread
+     * gets a generator split from the seeded root the first
+     * time it draws a number, so sequences are only exactly
+     * repeatable if threads first draw in the same order
+     * (always the case for the server thread on its own).
+     * Work split across threads (e.g. async growth) should
+     * instead draw from generators split on the server
+     * thread, one per unit of work.
+     *
+     * @param seed the seed.
+     */
+    public static synchronized void setSeed(long seed){
+        seededRoot = new SplittableRandom(seed);
+        SEED_GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Returns the random number generators to
+     * non-deterministic (randomly seeded) generators.
+     */
+    @SuppressWarnings("unused")
+    public static synchronized void clearSeed(){
+        seededRoot = null;
+        SEED_GENERATION.incrementAndGet();
+    }
+
+    /**
+     * @return the random number generator of the calling
+     * thread. Must not be shared with other threads.
+     */
+    public static SplittableRandom getRandom(){
+        ThreadRandom random = THREAD_RANDOM.get();
+
+        if(random.generation != SEED_GENERATION.get())
+            random.reseed();
+
+        return random.random;
+    }
+
+    /**
+     * @return a new generator for a thread, split from the seeded
+     * root if the generators are seeded.
+     */
+    private static synchronized SplittableRandom newThreadRandom(){
+        return seededRoot == null ? new SplittableRandom() : seededRoot.split();
+    }
+
     /**
      * Returns a random integer in the range
      * of {@code min} to {@code max}.
@@ -47,7 +126,7 @@ public final class MathUtil {
             throw new IllegalArgumentException("Maximum integer must be greater than minimum integer");
         }
 
-        return RANDOM_INSTANCE.nextInt((max - min) + 1) + min;
+        return getRandom().nextInt(min, max + 1);
     }
 
     /**
@@ -61,13 +140,169 @@ public final class MathUtil {
      * with the given percentage chance.
      */
     public static boolean chance(float percentage){
+        return thresholdChance(toChanceThreshold(percentage));
+    }
+
+    /**
+     * Returns {@code true} randomly with the given fixed-point
+     * chance threshold (see {@link #toChanceThreshold(float)}).
+     * Cheaper than {@link #chance(float)} when the same chance
+     * is used repeatedly, as the threshold can be computed once.
+     *
+     * @param threshold the chance of the method returning true, as
+     *                  a fraction of {@link #CHANCE_THRESHOLD_SCALE}.
+     * @return {@code true} or {@code false} randomly
+     * with the given chance.
+     */
+    public static boolean thresholdChance(int threshold){
         //Hard code 0% and 100%
-        if(percentage >= 100.0)
+        if(threshold >= CHANCE_THRESHOLD_SCALE)
             return true;
-        if(percentage <= 0.0F)
+        if(threshold <= 0)
             return false;
 
-        float random = RANDOM_INSTANCE.nextFloat();
-        return (percentage / 100) > random;
+        //Top 30 bits: uniform in [0, CHANCE_THRESHOLD_SCALE)
+        return (getRandom().nextInt() >>> 2) < threshold;
+    }
+
+    /**
+     * Converts a percentage chance to a fixed-point
+     * chance threshold for {@link #thresholdChance(int)}.
+     *
+     * @param percentage the percentage chance (0.0F - 100.0F).
+     * @return the chance as a fraction of {@link #CHANCE_THRESHOLD_SCALE}.
+     */
+    public static int toChanceThreshold(float percentage){
+        //Hard code 0% and 100%
+        if(percentage >= 100.0F)
+            return CHANCE_THRESHOLD_SCALE;
+        if(percentage <= 0.0F)
+            return 0;
+
+        return (int) (percentage * (CHANCE_THRESHOLD_SCALE / 100.0D));
+    }
+
+    /**
+     * Returns the number of successes in the given number
+     * of independent trials, each with the same given chance
+     * of success. Statistically identical to calling
+     * {@link #chance(float)} once per trial and counting
+     * the number of times it returns {@code true}, however,
+     * only one random number is drawn per success (plus one).
+     *
+     * @param trials the number of trials.
+     * @param probability the chance of a single trial
+     *                    succeeding (0.0D - 1.0D).
+     * @param max the maximum number of successes to count,
+     *            counting stops once this is reached.
+     * @return the number of successful trials, at most
+     * {@code max}.
+     */
+    public static int getSuccesses(long trials, double probability, int max){
+        return getSuccesses(getRandom(), trials, probability, max);
+    }
+
+    /**
+     * Returns the number of successes in the given number
+     * of independent trials, drawn from the given generator
+     * (see {@link #getSuccesses(long, double, int)}).
+     *
+     * @param random the generator to draw from.
+     * @param trials the number of trials.
+     * @param probability the chance of a single trial
+     *                    succeeding (0.0D - 1.0D).
+     * @param max the maximum number of successes to count,
+     *            counting stops once this is reached.
+     * @return the number of successful trials, at most
+     * {@code max}.
+     */
+    public static int getSuccesses(SplittableRandom random, long trials, double probability, int max){
+        int successes = 0;
+        long remaining = trials;
+
+        while(successes < max){
+            long failures = getFailuresBeforeSuccess(random, probability);
+            if(failures >= remaining)
+                break;
+
+            successes++;
+            remaining -= failures + 1;
+        }
+
+        return successes;
+    }
+
+    /**
+     * Returns the number of failed trials before the first
+     * successful trial, where each trial has the given chance
+     * of success (i.e. a geometrically distributed random number).
+     *
+     * @param probability the chance of a single trial
+     *                    succeeding (0.0D - 1.0D).
+     * @return the number of failed trials before the first
+     * success. {@link Long#MAX_VALUE} if the probability is
+     * {@code 0} or less.
+     */
+    public static long getFailuresBeforeSuccess(double probability){
+        return getFailuresBeforeSuccess(getRandom(), probability);
+    }
+
+    /**
+     * Returns the number of failed trials before the first
+     * successful trial, drawn from the given generator
+     * (see {@link #getFailuresBeforeSuccess(double)}).
+     *
+     * @param random the generator to draw from.
+     * @param probability the chance of a single trial
+     *                    succeeding (0.0D - 1.0D).
+     * @return the number of failed trials before the first
+     * success. {@link Long#MAX_VALUE} if the probability is
+     * {@code 0} or less.
+     */
+    public static long getFailuresBeforeSuccess(SplittableRandom random, double probability){
+        //Hard code 0% and 100%
+        if(probability >= 1.0D)
+            return 0;
+        if(probability <= 0.0D)
+            return Long.MAX_VALUE;
+
+        //Saturates to Long.MAX_VALUE for very small probabilities.
+        return (long) Math.floor(Math.log1p(-random.nextDouble()) / Math.log1p(-probability));
+    }
+
+    // *************
+    // Thread Random
+    // *************
+
+    /**
+     * The random number generator of a single thread,
+     * along with the seed generation it was created for.
+     */
+    private static final class ThreadRandom {
+
+        /**
+         * The generator.
+         */
+        private SplittableRandom random;
+
+        /**
+         * The seed generation the generator was created for.
+         */
+        private int generation;
+
+        /**
+         * Creates the generator for the current seed generation.
+         */
+        private ThreadRandom(){
+            reseed();
+        }
+
+        /**
+         * Replaces the generator with one for the current seed generation.
+         */
+        private void reseed(){
+            generation = SEED_GENERATION.get();
+            random = newThreadRandom();
+        }
     }
 }
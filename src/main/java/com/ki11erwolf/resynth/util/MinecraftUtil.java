@@ -15,18 +15,89 @@
  */
 package com.ki11erwolf.resynth.util;
 
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GeneralConfig;
+import com.ki11erwolf.resynth.config.categories.HarvestConfig;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorld;
 import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.ItemHandlerHelper;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * A set of utilities that help with
  * general Minecraft Modding.
+ * <p/>
+ * When enabled in the config, items spawned through this
+ * class on the server are collected per block position
+ * for the rest of the tick,
+ * merged with the other items dropped at the same position,
+ * and spawned together at the end of the tick - so breaking
+ * a block that drops several items spawns as few item
+ * entities as possible. As a result, the items dropped by
+ * blocks players break appear up to a tick later than
+ * vanilla drops would.
+ * <p/>
+ * Waiting drops are also spawned when their world is saved
+ * or unloaded, so they're never lost.
  */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
 public class MinecraftUtil {
 
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * General configuration settings (debug help).
+     */
+    private static final GeneralConfig GENERAL_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(GeneralConfig.class);
+
+    /**
+     * Configuration settings for harvests and drops.
+     */
+    private static final HarvestConfig HARVEST_CONFIG
+            = ResynthConfig.GENERAL_CONFIG.getCategory(HarvestConfig.class);
+
+    /**
+     * The number of ticks between drop reports
+     * when debug help is enabled.
+     */
+    private static final int REPORT_INTERVAL = 1200;
+
+    /**
+     * The items waiting to be spawned in each world,
+     * mapped to the packed position they were dropped at.
+     */
+    private static final Map<IWorld, Long2ObjectMap<List<ItemStack>>> DROPS = new HashMap<>();
+
+    /**
+     * The number of item stacks dropped since the last report.
+     */
+    private static long droppedStacks = 0;
+
+    /**
+     * The number of item entities spawned since the last report.
+     */
+    private static long spawnedEntities = 0;
+
     /**Private Constructor.*/
     private MinecraftUtil(){}
 
@@ -41,15 +112,170 @@ public class MinecraftUtil {
     }
 
     /**
-     * Spawns an ItemStack in the world as an entity.
+     * Spawns an ItemStack in the world as an entity. On the
+     * server, with merged drops enabled, the stack is merged
+     * with the other stacks dropped at the same position this
+     * tick and spawned at the end of the tick.
      *
-     * @return {@code true} if the ItemStack was spawned.
+     * @return {@code true} if the ItemStack was spawned
+     * (or queued to be spawned).
      */
     public static boolean spawnItemStackInWorld(ItemStack stack, World world, BlockPos pos){
+        if(world.isRemote || !HARVEST_CONFIG.mergeDrops())
+            return spawnEntity(stack, world, pos);
+
+        if(stack.isEmpty())
+            return false;
+
+        droppedStacks++;
+        merge(
+                DROPS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>())
+                        .computeIfAbsent(pos.toLong(), key -> new ArrayList<>(2)),
+                stack.copy()
+        );
+
+        return true;
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Spawns the items dropped in the world this tick.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.END || event.world.isRemote)
+            return;
+
+        Long2ObjectMap<List<ItemStack>> drops = DROPS.remove(event.world);
+        if(drops != null)
+            flush(event.world, drops);
+
+        if(GENERAL_CONFIG.isDevHelpEnabled() && event.world.getGameTime() % REPORT_INTERVAL == 0)
+            report();
+    }
+
+    /**
+     * Spawns the waiting drops of a world before its chunks
+     * are saved, so the items are saved with them.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldSave(WorldEvent.Save event){
+        flush(event.getWorld());
+    }
+
+    /**
+     * Spawns the drops of unloaded worlds that are still
+     * waiting (e.g. worlds unloaded without being saved).
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        flush(event.getWorld());
+    }
+
+    // *****
+    // Logic
+    // *****
+
+    /**
+     * Merges the given stack into the first stacks of
+     * the same item with room, adding what's left over
+     * as a new stack. Stacks already over their max
+     * stack size (e.g. many Mineral Rocks) are left as is.
+     *
+     * @param stacks the stacks dropped at a position.
+     * @param stack the newly dropped stack.
+     */
+    static void merge(List<ItemStack> stacks, ItemStack stack){
+        for(ItemStack existing : stacks){
+            if(stack.isEmpty())
+                return;
+
+            if(ItemHandlerHelper.canItemStacksStack(existing, stack)){
+                int room = Math.max(0, existing.getMaxStackSize() - existing.getCount());
+                int moved = Math.min(stack.getCount(), room);
+                existing.grow(moved);
+                stack.shrink(moved);
+            }
+        }
+
+        if(!stack.isEmpty())
+            stacks.add(stack);
+    }
+
+    /**
+     * Removes and spawns the waiting drops of the given
+     * world, if it's a server world with waiting drops.
+     *
+     * @param world the world to spawn the waiting drops of.
+     */
+    private static void flush(IWorld world){
+        Long2ObjectMap<List<ItemStack>> drops = DROPS.remove(world);
+        if(drops != null && world instanceof World && !world.isRemote())
+            flush((World) world, drops);
+    }
+
+    /**
+     * Spawns every waiting drop in the given world.
+     *
+     * @param world the world the items were dropped in.
+     * @param drops the stacks dropped at each position.
+     */
+    private static void flush(World world, Long2ObjectMap<List<ItemStack>> drops){
+        for(Long2ObjectMap.Entry<List<ItemStack>> entry : drops.long2ObjectEntrySet()){
+            BlockPos pos = BlockPos.fromLong(entry.getLongKey());
+
+            for(ItemStack stack : entry.getValue()){
+                //Oversized stacks (e.g. many Mineral Rocks) are split.
+                while(stack.getCount() > stack.getMaxStackSize()){
+                    spawnEntity(stack.split(stack.getMaxStackSize()), world, pos);
+                    spawnedEntities++;
+                }
+
+                spawnEntity(stack, world, pos);
+                spawnedEntities++;
+            }
+        }
+    }
+
+    /**
+     * Spawns an ItemStack in the world as a single entity.
+     *
+     * @return {@code true} if the ItemStack was spawned.
+     */
+    private static boolean spawnEntity(ItemStack stack, World world, BlockPos pos){
         return world.addEntity(new ItemEntity(
                 world,
                 pos.getX(), pos.getY(), pos.getZ(),
                 stack
         ));
     }
+
+    /**
+     * Logs the number of dropped stacks and the
+     * number of item entities spawned for them.
+     */
+    private static void report(){
+        if(droppedStacks == 0)
+            return;
+
+        LOG.info(String.format(
+                "<Resynth-Development-Help> | Item drops: %d stacks dropped as %d item entities " +
+                        "(%d entities saved)", droppedStacks, spawnedEntities, droppedStacks - spawnedEntities
+        ));
+
+        droppedStacks = 0;
+        spawnedEntities = 0;
+    }
 }
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.util;
+
+import com.ki11erwolf.resynth.ResynthMod;
+import com.ki11erwolf.resynth.config.ResynthConfig;
+import com.ki11erwolf.resynth.config.categories.GeneralConfig;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IWorld;
+import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Limits the time Resynth spends on world work (plant growth,
+ * produce placement and Mineral Soil updates) in each world
+ * every tick to a configured budget.
+ * <p/>
+ * Work submitted while the world is over budget is added to
+ * a FIFO queue, which is drained first on the next tick. Work
+ * is also queued while the queue isn't empty, so it always runs
+ * in the order it was submitted. Deferred work should re-read
+ * the world when it runs, as the world may have changed.
+ * <p/>
+ * The queue is limited to {@link #MAX_QUEUED} items. Under
+ * sustained overload, submitting more work runs the oldest
+ * queued work first, so the queue (and the delay of deferred
+ * work) stops growing while the order is kept.
+ */
+@Mod.EventBusSubscriber(modid = ResynthMod.MOD_ID)
+public final class TickBudget {
+
+    /**
+     * Logger for this class.
+     */
+    private static final Logger LOG = ResynthMod.getNewLogger();
+
+    /**
+     * General configuration settings (budget and debug help).
+     */
+    private static final GeneralConfig CONFIG = ResynthConfig.GENERAL_CONFIG.getCategory(GeneralConfig.class);
+
+    /**
+     * The number of ticks between deferred work
+     * reports when debug help is enabled.
+     */
+    private static final int REPORT_INTERVAL = 1200;
+
+    /**
+     * The most work that can wait for the next tick in a
+     * single world.
+     */
+    private static final int MAX_QUEUED = 1 << 16;
+
+    /**
+     * The budget state of each world.
+     */
+    private static final Map<IWorld, Budget> WORLDS = new HashMap<>();
+
+    /**Private Constructor.*/
+    private TickBudget(){}
+
+    // ***
+    // API
+    // ***
+
+    /**
+     * Runs the given work now if the world is within its
+     * budget for this tick, or defers it to the next tick
+     * otherwise. Deferred work must check that the chunks it
+     * reads are still loaded when it's run.
+     *
+     * @param world the world the work is done in.
+     * @param work the work to run.
+     * @return {@code true} if the work was run immediately,
+     * {@code false} if it was deferred.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public static boolean run(World world, Runnable work){
+        if(!canDefer(world)){
+            work.run();
+            return true;
+        }
+
+        long limit = CONFIG.getTickTimeBudgetNanos();
+        Budget budget = WORLDS.get(world);
+        if(budget == null)
+            WORLDS.put(world, budget = new Budget());
+
+        if(!budget.queue.isEmpty() || budget.spent >= limit){
+            //Full - make room by running the oldest work.
+            if(budget.queue.size() >= MAX_QUEUED)
+                budget.run(budget.queue.poll());
+
+            budget.queue.add(work);
+            budget.deferred++;
+            budget.totalDeferred++;
+            return false;
+        }
+
+        budget.run(work);
+        return true;
+    }
+
+    /**
+     * Runs the given work on a single position now if the world
+     * is within its budget for this tick. Unlike
+     * {@link #run(World, Runnable)}, work that can't be run now
+     * isn't deferred - so the work doesn't have to capture the
+     * position, and running it doesn't allocate.
+     *
+     * @param world the world the work is done in.
+     * @param pos the position the work is done on.
+     * @param value a value passed to the work (e.g. an amount).
+     * @param work the work to run.
+     * @return {@code true} if the work was run, {@code false} if
+     * the world is over budget (or has work waiting) and the work
+     * should be deferred with {@link #run(World, Runnable)}.
+     */
+    public static boolean tryRun(World world, BlockPos pos, int value, PositionWork work){
+        if(!canDefer(world)){
+            work.run(world, pos, value);
+            return true;
+        }
+
+        Budget budget = WORLDS.get(world);
+        if(budget == null)
+            WORLDS.put(world, budget = new Budget());
+
+        if(!budget.queue.isEmpty() || budget.spent >= CONFIG.getTickTimeBudgetNanos())
+            return false;
+
+        long start = budget.start();
+        try {
+            work.run(world, pos, value);
+        } finally {
+            budget.finish(start);
+        }
+
+        return true;
+    }
+
+    /**
+     * Used to skip creating work for {@link #run(World, Runnable)}
+     * when it would be run immediately anyway.
+     *
+     * @param world the world the work would be done in.
+     * @return {@code false} if work submitted in the given world
+     * right now is always run immediately (e.g. the budget is
+     * disabled and nothing is queued), {@code true} if it may be
+     * deferred.
+     */
+    public static boolean canDefer(World world){
+        if(world.isRemote)
+            return false;
+
+        Budget budget = WORLDS.get(world);
+
+        //Work submitted by running work is part of the running work.
+        if(budget != null && budget.running)
+            return false;
+
+        return CONFIG.getTickTimeBudgetNanos() > 0 || (budget != null && !budget.queue.isEmpty());
+    }
+
+    /**
+     * @param world the world to check.
+     * @return the total amount of work deferred in the given
+     * world since it was loaded.
+     */
+    public static long getDeferredCount(IWorld world){
+        Budget budget = WORLDS.get(world);
+        return budget == null ? 0 : budget.totalDeferred;
+    }
+
+    /**
+     * @param world the world to check.
+     * @return the amount of work currently waiting
+     * for the next tick in the given world.
+     */
+    public static int getQueuedCount(IWorld world){
+        Budget budget = WORLDS.get(world);
+        return budget == null ? 0 : budget.queue.size();
+    }
+
+    // ******
+    // Events
+    // ******
+
+    /**
+     * Resets the budget of the world and drains the
+     * work deferred from previous ticks first.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldTick(TickEvent.WorldTickEvent event){
+        if(event.phase != TickEvent.Phase.START || event.world.isRemote)
+            return;
+
+        Budget budget = WORLDS.get(event.world);
+        if(budget == null)
+            return;
+
+        budget.spent = 0;
+        long limit = CONFIG.getTickTimeBudgetNanos();
+
+        //Budget disabled since the work was queued - drain everything.
+        while(!budget.queue.isEmpty() && (limit <= 0 || budget.spent < limit)){
+            budget.run(budget.queue.poll());
+        }
+
+        if(CONFIG.isDevHelpEnabled() && event.world.getGameTime() % REPORT_INTERVAL == 0 && budget.deferred > 0){
+            LOG.info(String.format(
+                    "<Resynth-Development-Help> | Tick budget: %d work items deferred in the last %d ticks in %s, " +
+                            "%d still queued", budget.deferred, REPORT_INTERVAL,
+                    event.world.getDimension().getType(), budget.queue.size()
+            ));
+
+            budget.deferred = 0;
+        }
+    }
+
+    /**
+     * Removes the budget (and deferred work) of unloaded worlds.
+     *
+     * @param event forge event.
+     */
+    @SubscribeEvent
+    @SuppressWarnings("unused")//Reflection
+    public static void onWorldUnload(WorldEvent.Unload event){
+        WORLDS.remove(event.getWorld());
+    }
+
+    // ******
+    // Budget
+    // ******
+
+    /**
+     * The time spent, and work deferred, in a single world.
+     */
+    private static class Budget {
+
+        /**
+         * The deferred work, in the order it was submitted.
+         */
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+
+        /**
+         * The time (nanoseconds) spent on work this tick.
+         */
+        private long spent;
+
+        /**
+         * The amount of work deferred since the last report.
+         */
+        private long deferred;
+
+        /**
+         * The total amount of work deferred.
+         */
+        private long totalDeferred;
+
+        /**
+         * {@code true} while work is being run.
+         */
+        private boolean running;
+
+        /**
+         * Runs the given work, adding the time
+         * it took to the time spent this tick.
+         */
+        private void run(Runnable work){
+            long start = start();
+
+            try {
+                work.run();
+            } finally {
+                finish(start);
+            }
+        }
+
+        /**
+         * Marks work as running.
+         *
+         * @return the time (nanoseconds) the work started.
+         */
+        private long start(){
+            running = true;
+            return System.nanoTime();
+        }
+
+        /**
+         * Marks work as finished, adding the time it
+         * took to the time spent this tick.
+         *
+         * @param start the time the work started.
+         */
+        private void finish(long start){
+            running = false;
+            spent += System.nanoTime() - start;
+        }
+    }
+
+    // *************
+    // Position Work
+    // *************
+
+    /**
+     * Work on a single position, run by
+     * {@link #tryRun(World, BlockPos, int, PositionWork)}.
+     */
+    @FunctionalInterface
+    public interface PositionWork {
+
+        /**
+         * Does the work.
+         *
+         * @param world the world the work is done in.
+         * @param pos the position the work is done on.
+         * @param value the value passed with the work.
+         */
+        void run(World world, BlockPos pos, int value);
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the stage transitions of {@link MineralSoilStage}, and
+ * counts the block writes and neighbor updates a piston storm
+ * causes in an emulated world, before and after stage changes
+ * were diffed.
+ */
+public class MineralSoilStageTest {
+
+    /**
+     * The number of times the piston moves the Enhancer
+     * under the soil in or out during a storm.
+     */
+    private static final int PISTON_MOVES = 1000;
+
+    /**
+     * The number of neighbor notifications the soil gets
+     * for every piston move (the moving block, the piston
+     * head and the blocks around them).
+     */
+    private static final int NOTIFICATIONS_PER_MOVE = 6;
+
+    /**
+     * The stage increase of the Enhancer the piston moves.
+     */
+    private static final int STAGE_INCREASE = 2;
+
+    /**
+     * Each stage covers ten percent of Mineral Content.
+     */
+    @Test
+    public void stages(){
+        assertEquals(0, MineralSoilStage.getStage(1, 0));
+        assertEquals(0, MineralSoilStage.getStage(199, 0));
+        assertEquals(1, MineralSoilStage.getStage(200, 0));
+        assertEquals(2, MineralSoilStage.getStage(300, 0));
+        assertEquals(3, MineralSoilStage.getStage(499, 0));
+        assertEquals(4, MineralSoilStage.getStage(500, 0));
+    }
+
+    /**
+     * Enhancers only increase the stage of fully mineralized soil.
+     */
+    @Test
+    public void enhancersOnlyAffectFullSoil(){
+        assertEquals(4 + STAGE_INCREASE, MineralSoilStage.getStage(500, STAGE_INCREASE));
+        assertEquals(3, MineralSoilStage.getStage(499, STAGE_INCREASE));
+    }
+
+    /**
+     * Blocks already on the right stage aren't written to.
+     */
+    @Test
+    public void transitions(){
+        assertEquals(MineralSoilStage.UNCHANGED, MineralSoilStage.getTransition(2, 350, 0));
+        assertEquals(3, MineralSoilStage.getTransition(2, 400, 0));
+        assertEquals(MineralSoilStage.UNCHANGED, MineralSoilStage.getTransition(4, 500, 0));
+        assertEquals(4 + STAGE_INCREASE, MineralSoilStage.getTransition(4, 500, STAGE_INCREASE));
+    }
+
+    /**
+     * A piston storm next to partly mineralized soil never moves
+     * its stage. It used to write the soil on every notification,
+     * which vanilla ignores as the state is the same. Now the soil
+     * isn't written at all.
+     */
+    @Test
+    public void stormNextToPartialSoil(){
+        StormWorld before = new StormWorld(350, false).storm();
+        StormWorld after = new StormWorld(350, true).storm();
+
+        assertEquals(0, before.transitions);
+        assertEquals(0, after.transitions);
+
+        assertEquals(PISTON_MOVES * NOTIFICATIONS_PER_MOVE, before.writes);
+        assertEquals(0, after.writes);
+
+        assertEquals(0, before.neighborUpdates);
+        assertEquals(0, after.neighborUpdates);
+    }
+
+    /**
+     * A piston moving an Enhancer under fully mineralized soil
+     * moves its stage once per move, both before and after. Each
+     * transition used to notify the 6 neighbors and update their
+     * shapes, re-validating the plant on top. The soil next to it
+     * was notified too, and wrote itself back unchanged. Now the
+     * transition notifies nothing.
+     */
+    @Test
+    public void stormUnderFullSoil(){
+        StormWorld before = new StormWorld(500, false).storm();
+        StormWorld after = new StormWorld(500, true).storm();
+
+        assertEquals(PISTON_MOVES, before.transitions);
+        assertEquals(PISTON_MOVES, after.transitions);
+
+        //Every notification of the center, and the two soil blocks next to it once per move.
+        assertEquals(PISTON_MOVES * (NOTIFICATIONS_PER_MOVE + 2), before.writes);
+        assertEquals(PISTON_MOVES, after.writes);
+
+        assertEquals(PISTON_MOVES * 12, before.neighborUpdates);
+        assertEquals(0, after.neighborUpdates);
+
+        assertEquals(PISTON_MOVES, before.plantChecks);
+        assertEquals(0, after.plantChecks);
+    }
+
+    // ***********
+    // Storm World
+    // ***********
+
+    /**
+     * A row of three Mineral Soil blocks, each with a plant on
+     * top, and the position under the center soil block a piston
+     * moves an Enhancer in and out of.
+     * <p/>
+     * Block writes follow the vanilla rules: writing the state a
+     * block already has does nothing, update flag 1 notifies the
+     * 6 neighbors ({@code neighborChanged}), and writes without
+     * flag 16 update the shapes of the 6 neighbors
+     * ({@code updatePostPlacement}, which re-validates plants).
+     * Soil blocks update their stage whenever they're notified,
+     * either the old way (writing the stage every time with the
+     * default flags) or with {@link MineralSoilStage#getTransition}.
+     */
+    private static final class StormWorld {
+
+        /**
+         * A block that reacts to nothing.
+         */
+        private static final int OTHER = 0;
+
+        /**
+         * A Mineral Soil block.
+         */
+        private static final int SOIL = 1;
+
+        /**
+         * A plant on top of Mineral Soil.
+         */
+        private static final int PLANT = 2;
+
+        /**
+         * An Enhancer.
+         */
+        private static final int ENHANCER = 3;
+
+        /**
+         * The default block update flags (1 | 2), used by the
+         * soil before stage changes were diffed.
+         */
+        private static final int DEFAULT_FLAGS = 3;
+
+        /**
+         * The offsets of the 6 neighbors of a block.
+         */
+        private static final int[][] NEIGHBORS = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+        /**
+         * The blocks in the world, mapped to their packed position.
+         */
+        private final Map<Long, Integer> blocks = new HashMap<>();
+
+        /**
+         * The stage of each soil block, mapped to its packed position.
+         */
+        private final Map<Long, Integer> stages = new HashMap<>();
+
+        /**
+         * The Mineral Content of every soil block.
+         */
+        private final int mineralTenths;
+
+        /**
+         * {@code true} to update stages with {@link MineralSoilStage#getTransition},
+         * {@code false} to write the stage on every update.
+         */
+        private final boolean diff;
+
+        /**
+         * The number of soil block writes, including those
+         * that didn't change the block.
+         */
+        private int writes;
+
+        /**
+         * The number of writes that changed the stage of a soil block.
+         */
+        private int transitions;
+
+        /**
+         * The number of neighbor notifications and shape
+         * updates caused by soil block writes.
+         */
+        private int neighborUpdates;
+
+        /**
+         * The number of shape updates that re-validated a plant.
+         */
+        private int plantChecks;
+
+        /**
+         * @param mineralTenths the Mineral Content of every soil block.
+         * @param diff {@code true} to only write stage transitions.
+         */
+        private StormWorld(int mineralTenths, boolean diff){
+            this.mineralTenths = mineralTenths;
+            this.diff = diff;
+
+            for(int x = -1; x <= 1; x++){
+                blocks.put(pack(x, 1, 0), SOIL);
+                blocks.put(pack(x, 2, 0), PLANT);
+                stages.put(pack(x, 1, 0), MineralSoilStage.getStage(mineralTenths, 0));
+            }
+        }
+
+        /**
+         * Replays a piston moving an Enhancer in and out under the
+         * center soil block. Every move notifies the soil
+         * {@link #NOTIFICATIONS_PER_MOVE} times.
+         *
+         * @return this world, with the counts of the storm.
+         */
+        private StormWorld storm(){
+            for(int move = 0; move < PISTON_MOVES; move++){
+                if(move % 2 == 0)
+                    blocks.put(pack(0, 0, 0), ENHANCER);
+                else blocks.remove(pack(0, 0, 0));
+
+                for(int notification = 0; notification < NOTIFICATIONS_PER_MOVE; notification++)
+                    neighborChanged(0, 1, 0);
+            }
+
+            return this;
+        }
+
+        /**
+         * Notifies the block at the given position of a neighbor change.
+         */
+        private void neighborChanged(int x, int y, int z){
+            if(getBlock(x, y, z) != SOIL)
+                return;
+
+            int stageIncrease = getBlock(x, y - 1, z) == ENHANCER ? STAGE_INCREASE : 0;
+            long pos = pack(x, y, z);
+
+            if(!diff){
+                setStage(x, y, z, MineralSoilStage.getStage(mineralTenths, stageIncrease), DEFAULT_FLAGS);
+                return;
+            }
+
+            int stage = MineralSoilStage.getTransition(stages.get(pos), mineralTenths, stageIncrease);
+            if(stage != MineralSoilStage.UNCHANGED)
+                setStage(x, y, z, stage, MineralSoilStage.UPDATE_FLAGS);
+        }
+
+        /**
+         * Writes the stage of the soil block at the given
+         * position with the given block update flags.
+         */
+        private void setStage(int x, int y, int z, int stage, int flags){
+            writes++;
+
+            long pos = pack(x, y, z);
+            if(stages.get(pos) == stage)
+                return;
+
+            stages.put(pos, stage);
+            transitions++;
+
+            if((flags & 1) != 0){
+                for(int[] offset : NEIGHBORS){
+                    neighborUpdates++;
+                    neighborChanged(x + offset[0], y + offset[1], z + offset[2]);
+                }
+            }
+
+            if((flags & 16) == 0){
+                for(int[] offset : NEIGHBORS){
+                    neighborUpdates++;
+                    if(getBlock(x + offset[0], y + offset[1], z + offset[2]) == PLANT)
+                        plantChecks++;
+                }
+            }
+        }
+
+        /**
+         * @return the block at the given position.
+         */
+        private int getBlock(int x, int y, int z){
+            return blocks.getOrDefault(pack(x, y, z), OTHER);
+        }
+
+        /**
+         * @return the given (small) coordinates packed into a key.
+         */
+        private static long pack(int x, int y, int z){
+            return ((long) (x + 128) << 16) | ((y + 128) << 8) | (z + 128);
+        }
+    }
+}
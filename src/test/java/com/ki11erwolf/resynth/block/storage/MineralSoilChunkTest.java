@@ -0,0 +1,353 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block.storage;
+
+import com.ki11erwolf.resynth.util.Allocations;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the section storage and packing of {@link MineralSoilChunk},
+ * and compares its saved size and speed against a section saved
+ * with one float per block, and its sparse and dense layouts.
+ */
+public class MineralSoilChunkTest {
+
+    /**
+     * The number of blocks in a chunk section.
+     */
+    private static final int SECTION_SIZE = 16 * 16 * 16;
+
+    /**
+     * The number of sections written and read per timed run.
+     */
+    private static final int RUNS = 2000;
+
+    /**
+     * Packing and unpacking a section returns every value,
+     * including unset blocks and the maximum Mineral Content.
+     */
+    @Test
+    public void packRoundTrip(){
+        short[] content = new short[SECTION_SIZE];
+        for(int i = 0; i < content.length; i++)
+            content[i] = (short) ((i % 3 == 0) ? MineralSoilChunk.UNSET : i % (MineralSoilStorage.MAX_MINERAL_TENTHS + 1));
+
+        int[] packed = MineralSoilChunk.pack(content);
+
+        assertEquals(SECTION_SIZE / 2, packed.length);
+        assertArrayEquals(content, MineralSoilChunk.unpack(packed));
+    }
+
+    /**
+     * Arrays of the wrong size aren't read as sections.
+     */
+    @Test
+    public void unpackRejectsOtherArrays(){
+        assertNull(MineralSoilChunk.unpack(new int[0]));
+        assertNull(MineralSoilChunk.unpack(new int[SECTION_SIZE]));
+    }
+
+    /**
+     * Every stored block is passed on with its world position.
+     */
+    @Test
+    public void forEachPassesWorldPositions(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        BlockPos first = new BlockPos(-29, 70, 92);
+        BlockPos second = new BlockPos(-18, 3, 95);
+        chunk.set(first, 250);
+        chunk.set(second, 500);
+
+        List<String> found = new ArrayList<>();
+        chunk.forEach(-2, 5, (x, y, z, tenths) -> found.add(x + "," + y + "," + z + "=" + tenths));
+
+        assertEquals(Arrays.asList("-18,3,95=500", "-29,70,92=250"), found);
+    }
+
+    /**
+     * Values are stored per block, and sections are
+     * freed once their last block is removed.
+     */
+    @Test
+    public void setGetRemove(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        BlockPos first = new BlockPos(3, 70, 12);
+        BlockPos second = new BlockPos(4, 70, 12);
+
+        assertEquals(MineralSoilChunk.UNSET, chunk.get(first));
+
+        chunk.set(first, 250);
+        chunk.set(second, 500);
+        chunk.set(second, 499);
+        assertEquals(250, chunk.get(first));
+        assertEquals(499, chunk.get(second));
+
+        assertTrue(chunk.remove(first));
+        assertFalse(chunk.remove(first));
+        assertEquals(499, chunk.get(second));
+
+        assertTrue(chunk.remove(second));
+        assertEquals(MineralSoilChunk.UNSET, chunk.get(second));
+        assertEquals(0, chunk.write().size());
+    }
+
+    /**
+     * Sections keep the sparse layout up to the sparse limit,
+     * then move to the dense layout keeping every value.
+     */
+    @Test
+    public void sectionsMoveToDenseLayoutWhenFull(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        BlockPos[] positions = new BlockPos[MineralSoilChunk.SPARSE_LIMIT + 1];
+
+        //Set in reverse order, so every block is inserted at the start.
+        for(int i = positions.length - 1; i >= 0; i--){
+            positions[i] = new BlockPos(i & 15, 64 + (i >> 8), i >> 4 & 15);
+            chunk.set(positions[i], i % MineralSoilStorage.MAX_MINERAL_TENTHS);
+
+            assertEquals(i == 0, chunk.isDense(positions[i]));
+        }
+
+        for(int i = 0; i < positions.length; i++)
+            assertEquals(i % MineralSoilStorage.MAX_MINERAL_TENTHS, chunk.get(positions[i]));
+
+        assertEquals(MineralSoilChunk.UNSET, chunk.get(new BlockPos(0, 79, 0)));
+    }
+
+    /**
+     * Sections saved as blocks and as packed arrays are
+     * read back as written, in the layout they were in.
+     */
+    @Test
+    public void writeReadRoundTrip(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        Random random = new Random(22);
+
+        //A few blocks in section 0, a farm layer in section 4, a full section 8.
+        for(int i = 0; i < 5; i++)
+            chunk.set(new BlockPos(7, 2 + i, 9), 1 + i);
+        for(int i = 0; i < 256; i++)
+            chunk.set(new BlockPos(i & 15, 64, i >> 4), 1 + random.nextInt(MineralSoilStorage.MAX_MINERAL_TENTHS));
+        for(int i = 0; i < SECTION_SIZE; i++)
+            chunk.set(new BlockPos(i & 15, 128 + (i >> 8), i >> 4 & 15), i % 3 == 0 ? 0 : 333);
+
+        MineralSoilChunk read = new MineralSoilChunk();
+        read.read(chunk.write());
+
+        List<String> written = new ArrayList<>(), readBack = new ArrayList<>();
+        chunk.forEach(1, 1, (x, y, z, tenths) -> written.add(x + "," + y + "," + z + "=" + tenths));
+        read.forEach(1, 1, (x, y, z, tenths) -> readBack.add(x + "," + y + "," + z + "=" + tenths));
+
+        assertEquals(5 + 256 + SECTION_SIZE, written.size());
+        assertEquals(written, readBack);
+        assertFalse(read.isDense(new BlockPos(0, 64, 0)));
+        assertTrue(read.isDense(new BlockPos(0, 128, 0)));
+    }
+
+    /**
+     * Positions outside the build height are ignored.
+     */
+    @Test
+    public void ignoresOutOfRangeHeights(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+
+        chunk.set(new BlockPos(0, -1, 0), 100);
+        chunk.set(new BlockPos(0, 256, 0), 100);
+
+        assertEquals(MineralSoilChunk.UNSET, chunk.get(new BlockPos(0, -1, 0)));
+        assertEquals(MineralSoilChunk.UNSET, chunk.get(new BlockPos(0, 256, 0)));
+        assertFalse(chunk.remove(new BlockPos(0, 256, 0)));
+    }
+
+    /**
+     * Reading the Mineral Content of a block doesn't allocate.
+     */
+    @Test
+    public void getDoesNotAllocate(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        BlockPos pos = new BlockPos(5, 64, 5);
+        chunk.set(pos, 300);
+
+        long allocated = Allocations.measure(100_000, () -> chunk.get(pos));
+        assertTrue("Allocated " + allocated + " bytes", allocated < 4096);
+    }
+
+    /**
+     * Sections with few blocks save in less space as one int per
+     * block, both as is and compressed, where a layer of farmland
+     * compresses better as a packed section.
+     */
+    @Test
+    public void fewBlocksSaveSmallerThanPacked() throws IOException {
+        short[] farm = getFarmSection(), single = new short[SECTION_SIZE];
+        short[] indexes = new short[256], values = new short[256];
+        Arrays.fill(single, MineralSoilChunk.UNSET);
+        single[0] = farm[0];
+
+        for(int i = 0; i < 256; i++){
+            indexes[i] = (short) i;
+            values[i] = farm[i];
+        }
+
+        int[] blocks = MineralSoilChunk.packSparse(indexes, values, 1);
+        int[] farmBlocks = MineralSoilChunk.packSparse(indexes, values, 256);
+
+        assertTrue(getSavedSize(blocks, false) < getSavedSize(MineralSoilChunk.pack(single), false));
+        assertTrue(getSavedSize(blocks, true) < getSavedSize(MineralSoilChunk.pack(single), true));
+        assertTrue(getSavedSize(MineralSoilChunk.pack(farm), true) < getSavedSize(farmBlocks, true));
+    }
+
+    /**
+     * A packed section saves in half the space of the float layout,
+     * and no more once compressed (as region files are). The time
+     * taken to write and read both is printed for comparison.
+     */
+    @Test
+    public void packedSectionIsSmallerThanFloats() throws IOException {
+        short[][] sections = {getFarmSection(), getFullSection()};
+
+        for(short[] section : sections){
+            int[] packed = MineralSoilChunk.pack(section), floats = packFloats(section);
+
+            //Both saved with a 4 byte length.
+            assertEquals((getSavedSize(floats, false) - 4) / 2, getSavedSize(packed, false) - 4);
+            assertTrue(getSavedSize(packed, true) <= getSavedSize(floats, true));
+        }
+
+        System.out.printf(
+                "Section save (%d bytes vs %d bytes deflated): packed %.1fus, floats %.1fus per section%n",
+                getSavedSize(MineralSoilChunk.pack(sections[0]), true), getSavedSize(packFloats(sections[0]), true),
+                time(sections, MineralSoilChunk::pack, MineralSoilChunk::unpack),
+                time(sections, MineralSoilChunkTest::packFloats, MineralSoilChunkTest::unpackFloats)
+        );
+    }
+
+    // *******
+    // Helpers
+    // *******
+
+    /**
+     * @return a section with a farm: one layer of Mineral Soil
+     * at a few different Mineral Contents.
+     */
+    private static short[] getFarmSection(){
+        short[] section = new short[SECTION_SIZE];
+        Arrays.fill(section, MineralSoilChunk.UNSET);
+
+        for(int i = 0; i < 256; i++)
+            section[i] = (short) (i % 4 == 0 ? MineralSoilStorage.MAX_MINERAL_TENTHS : 10 + i % 40 * 10);
+
+        return section;
+    }
+
+    /**
+     * @return a section full of Mineral Soil
+     * at random Mineral Contents.
+     */
+    private static short[] getFullSection(){
+        Random random = new Random(23);
+        short[] section = new short[SECTION_SIZE];
+
+        for(int i = 0; i < section.length; i++)
+            section[i] = (short) (1 + random.nextInt(MineralSoilStorage.MAX_MINERAL_TENTHS));
+
+        return section;
+    }
+
+    /**
+     * @return the given section in the float layout:
+     * one float percentage per block, NaN for unset blocks.
+     */
+    private static int[] packFloats(short[] content){
+        int[] packed = new int[SECTION_SIZE];
+        for(int i = 0; i < packed.length; i++)
+            packed[i] = Float.floatToRawIntBits(
+                    content[i] == MineralSoilChunk.UNSET ? Float.NaN : content[i] / 10.0F
+            );
+
+        return packed;
+    }
+
+    /**
+     * @return the section saved in the float layout.
+     */
+    private static short[] unpackFloats(int[] packed){
+        short[] content = new short[SECTION_SIZE];
+        for(int i = 0; i < packed.length; i++){
+            float percentage = Float.intBitsToFloat(packed[i]);
+            content[i] = Float.isNaN(percentage) ? MineralSoilChunk.UNSET : (short) Math.round(percentage * 10);
+        }
+
+        return content;
+    }
+
+    /**
+     * @param array a saved section array.
+     * @param deflate {@code true} to compress the array
+     *                like region files.
+     * @return the number of bytes the array is saved in,
+     * as an NBT int array (length followed by the ints).
+     */
+    private static int getSavedSize(int[] array, boolean deflate) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try(DataOutputStream out = new DataOutputStream(deflate ? new DeflaterOutputStream(bytes) : bytes)){
+            out.writeInt(array.length);
+            for(int value : array)
+                out.writeInt(value);
+        }
+
+        return bytes.size();
+    }
+
+    /**
+     * @return the average time (microseconds) taken to write
+     * and read back each of the given sections, after the
+     * same number of untimed runs.
+     */
+    private static double time(short[][] sections, Function<short[], int[]> write,
+                               Function<int[], short[]> read){
+        long start = 0, checksum = 0;
+
+        for(int run = 0; run < RUNS * 2; run++){
+            if(run == RUNS)
+                start = System.nanoTime();
+
+            for(short[] section : sections)
+                checksum += read.apply(write.apply(section))[run % SECTION_SIZE];
+        }
+
+        assertTrue(checksum != 0);
+        return (System.nanoTime() - start) / 1000.0D / RUNS / sections.length;
+    }
+}
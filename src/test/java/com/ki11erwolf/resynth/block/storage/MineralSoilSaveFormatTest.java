@@ -0,0 +1,286 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.block.storage;
+
+import com.ki11erwolf.resynth.block.tileEntity.TileEntityMineralSoil;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the saved size, and the time taken to write and
+ * read, of the Mineral Content of a farm in each format
+ * it's been saved in:
+ * <ul>
+ *     <li>Tile entities with a float percentage
+ *     ({@link TileEntityMineralSoil#LEGACY_MINERAL_CONTENT_TAG}).</li>
+ *     <li>Tile entities with a short in tenths
+ *     ({@link TileEntityMineralSoil#MINERAL_CONTENT_TAG}).</li>
+ *     <li>The Mineral Soil chunk capability ({@link MineralSoilChunk}).</li>
+ * </ul>
+ * Each is written as a chunk would be: a compound tag holding
+ * the list of tile entities or chunk sections, through the
+ * same NBT code used to save region files.
+ */
+public class MineralSoilSaveFormatTest {
+
+    /**
+     * The NBT tag key of the saved list in each format.
+     */
+    private static final String LIST_TAG = "List";
+
+    /**
+     * The ID tile entities are saved with.
+     */
+    private static final String TE_ID = "resynth:" + TileEntityMineralSoil.TE_ID;
+
+    /**
+     * The number of times each farm is written and read per timed run.
+     */
+    private static final int RUNS = 200;
+
+    /**
+     * The positions of the Mineral Soil in a farm: a layer
+     * of Mineral Soil covering a chunk.
+     */
+    private static final BlockPos[] FARM = new BlockPos[256];
+
+    /**
+     * The Mineral Content of each block in {@link #FARM}, in tenths.
+     */
+    private static final short[] FARM_TENTHS = new short[FARM.length];
+
+    static {
+        Random random = new Random(23);
+        for(int i = 0; i < FARM.length; i++){
+            FARM[i] = new BlockPos(160 + (i & 15), 64, -48 + (i >> 4));
+            FARM_TENTHS[i] = (short) (1 + random.nextInt(MineralSoilStorage.MAX_MINERAL_TENTHS));
+        }
+    }
+
+    /**
+     * The short tile entity format saves smaller than the float format,
+     * and the chunk format saves smaller than both. Every format reads
+     * back the same Mineral Content. The sizes and times are printed.
+     */
+    @Test
+    public void chunkFormatIsSmallest() throws IOException {
+        byte[] floats = save(writeTileEntities(true)), shorts = save(writeTileEntities(false));
+        byte[] chunk = save(writeChunk());
+
+        assertEquals(getChecksum(), readTileEntities(load(floats)));
+        assertEquals(getChecksum(), readTileEntities(load(shorts)));
+        assertEquals(getChecksum(), readChunk(load(chunk)));
+
+        assertTrue(shorts.length < floats.length);
+        assertTrue(chunk.length < shorts.length);
+        assertTrue(deflate(shorts) <= deflate(floats));
+        assertTrue(deflate(chunk) < deflate(shorts));
+
+        System.out.printf(
+                "Farm save (%d blocks), bytes (deflated) and write+read time:%n"
+                        + "  float tile entities: %d (%d) %.1fus%n"
+                        + "  short tile entities: %d (%d) %.1fus%n"
+                        + "  chunk capability:    %d (%d) %.1fus%n",
+                FARM.length,
+                floats.length, deflate(floats), time(() -> readTileEntities(load(save(writeTileEntities(true))))),
+                shorts.length, deflate(shorts), time(() -> readTileEntities(load(save(writeTileEntities(false))))),
+                chunk.length, deflate(chunk), time(() -> readChunk(load(save(writeChunk()))))
+        );
+    }
+
+    // *******
+    // Formats
+    // *******
+
+    /**
+     * @param legacy {@code true} to save the Mineral Content
+     *               as a float percentage.
+     * @return the farm, saved as tile entities.
+     */
+    private static CompoundNBT writeTileEntities(boolean legacy){
+        ListNBT list = new ListNBT();
+
+        for(int i = 0; i < FARM.length; i++){
+            //As saved by TileEntity#write.
+            CompoundNBT tag = new CompoundNBT();
+            tag.putString("id", TE_ID);
+            tag.putInt("x", FARM[i].getX());
+            tag.putInt("y", FARM[i].getY());
+            tag.putInt("z", FARM[i].getZ());
+
+            if(legacy)
+                tag.putFloat(TileEntityMineralSoil.LEGACY_MINERAL_CONTENT_TAG, FARM_TENTHS[i] / 10.0F);
+            else tag.putShort(TileEntityMineralSoil.MINERAL_CONTENT_TAG, FARM_TENTHS[i]);
+
+            list.add(tag);
+        }
+
+        CompoundNBT compound = new CompoundNBT();
+        compound.put(LIST_TAG, list);
+        return compound;
+    }
+
+    /**
+     * @return the sum of the positions and Mineral Content of
+     * the tile entities in the given saved farm.
+     */
+    private static long readTileEntities(CompoundNBT compound){
+        ListNBT list = compound.getList(LIST_TAG, 10);
+        long checksum = 0;
+
+        for(int i = 0; i < list.size(); i++){
+            CompoundNBT tag = list.getCompound(i);
+            int tenths = tag.contains(TileEntityMineralSoil.MINERAL_CONTENT_TAG)
+                    ? tag.getShort(TileEntityMineralSoil.MINERAL_CONTENT_TAG)
+                    : Math.round(tag.getFloat(TileEntityMineralSoil.LEGACY_MINERAL_CONTENT_TAG) * 10);
+
+            checksum += getChecksum(tag.getInt("x"), tag.getInt("y"), tag.getInt("z"), tenths);
+        }
+
+        return checksum;
+    }
+
+    /**
+     * @return the farm, saved as a Mineral Soil chunk.
+     */
+    private static CompoundNBT writeChunk(){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        for(int i = 0; i < FARM.length; i++)
+            chunk.set(FARM[i], FARM_TENTHS[i]);
+
+        CompoundNBT compound = new CompoundNBT();
+        compound.put(LIST_TAG, chunk.write());
+        return compound;
+    }
+
+    /**
+     * @return the sum of the positions and Mineral Content of
+     * the blocks in the given saved Mineral Soil chunk.
+     */
+    private static long readChunk(CompoundNBT compound){
+        MineralSoilChunk chunk = new MineralSoilChunk();
+        chunk.read(compound.getList(LIST_TAG, 10));
+
+        long[] checksum = {0};
+        chunk.forEach(FARM[0].getX() >> 4, FARM[0].getZ() >> 4,
+                (x, y, z, tenths) -> checksum[0] += getChecksum(x, y, z, tenths));
+
+        return checksum[0];
+    }
+
+    // *******
+    // Helpers
+    // *******
+
+    /**
+     * @return the sum of the positions and Mineral Content
+     * of the blocks in the farm.
+     */
+    private static long getChecksum(){
+        long checksum = 0;
+        for(int i = 0; i < FARM.length; i++)
+            checksum += getChecksum(FARM[i].getX(), FARM[i].getY(), FARM[i].getZ(), FARM_TENTHS[i]);
+
+        return checksum;
+    }
+
+    /**
+     * @return a checksum of a single block and its Mineral Content.
+     */
+    private static long getChecksum(int x, int y, int z, int tenths){
+        return (x * 31L + y) * 31L + z + tenths * 7919L;
+    }
+
+    /**
+     * @return the given compound, as saved in a region file
+     * (before compression).
+     */
+    private static byte[] save(CompoundNBT compound) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try(DataOutputStream out = new DataOutputStream(bytes)){
+            CompressedStreamTools.write(compound, out);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the compound saved by {@link #save(CompoundNBT)}.
+     */
+    private static CompoundNBT load(byte[] saved) throws IOException {
+        try(DataInputStream in = new DataInputStream(new ByteArrayInputStream(saved))){
+            return CompressedStreamTools.read(in);
+        }
+    }
+
+    /**
+     * @return the size of the given saved bytes once
+     * compressed like region files.
+     */
+    private static int deflate(byte[] saved) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try(DeflaterOutputStream out = new DeflaterOutputStream(bytes)){
+            out.write(saved);
+        }
+
+        return bytes.size();
+    }
+
+    /**
+     * @return the average time (microseconds) taken to run the
+     * given save and load, after the same number of untimed runs.
+     */
+    private static double time(SaveLoad saveLoad) throws IOException {
+        long start = 0, checksum = 0;
+
+        for(int run = 0; run < RUNS * 2; run++){
+            if(run == RUNS)
+                start = System.nanoTime();
+
+            checksum += saveLoad.run();
+        }
+
+        assertTrue(checksum != 0);
+        return (System.nanoTime() - start) / 1000.0D / RUNS;
+    }
+
+    /**
+     * A timed save and load of the farm.
+     */
+    private interface SaveLoad {
+
+        /**
+         * @return the checksum of the loaded farm.
+         */
+        long run() throws IOException;
+    }
+}
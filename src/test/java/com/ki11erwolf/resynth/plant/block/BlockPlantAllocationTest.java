@@ -0,0 +1,357 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.block;
+
+import com.ki11erwolf.resynth.plant.item.ItemSeeds;
+import com.ki11erwolf.resynth.plant.set.ICrystallineSetProperties;
+import com.ki11erwolf.resynth.plant.set.IMetallicSetProperties;
+import com.ki11erwolf.resynth.util.Allocations;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraft.world.server.ServerWorld;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Allocation regression tests for the plant block methods
+ * called on every frame, tick and neighbor update:
+ * {@code getShape}, {@code getGrowthStage}, {@code tick}
+ * and {@code neighborChanged}.
+ * <p/>
+ * The plants are ticked in a {@link TestWorld}, which answers
+ * the world reads with constants, so only the allocations of
+ * Resynth code are measured. The ticked plant has no Mineral
+ * Content and never grows, as writing a grown plant to the
+ * world allocates in vanilla code.
+ * <p/>
+ * Also benchmarks the throughput of Metallic plant neighbor
+ * updates, both those rejected (not the plants produce) and
+ * those from its produce being broken.
+ */
+public class BlockPlantAllocationTest {
+
+    /**
+     * The number of measured runs per test.
+     */
+    private static final int RUNS = 100_000;
+
+    /**
+     * The bytes the measurement itself may allocate. Far
+     * below a single object per run.
+     */
+    private static final long ALLOWED_BYTES = 4096;
+
+    /**
+     * The position of the tested plants.
+     */
+    private static final BlockPos POS = new BlockPos(8, 64, 8);
+
+    /**
+     * The position of the block next to the tested plants.
+     */
+    private static final BlockPos NEIGHBOR = POS.east();
+
+    /**
+     * The properties of the tested plants.
+     */
+    private static final ICrystallineSetProperties PROPERTIES = new ICrystallineSetProperties() {
+        @Override public int numberOfProduceDrops() { return 1; }
+        @Override public float seedSpawnChanceFromOre() { return 0; }
+        @Override public float seedSpawnChanceFromShard() { return 0; }
+        @Override public boolean canBonemeal() { return true; }
+        @Override public float chanceToGrow() { return 50; }
+    };
+
+    /**
+     * The properties of the tested produce block.
+     */
+    private static final IMetallicSetProperties METALLIC_PROPERTIES = new IMetallicSetProperties() {
+        @Override public float seedSpawnChanceFromOre() { return 0; }
+        @Override public float seedSpawnChanceFromOrganicOre() { return 0; }
+        @Override public boolean canBonemeal() { return true; }
+        @Override public float chanceToGrow() { return 50; }
+    };
+
+    /**
+     * The random passed to ticks, which plants don't use.
+     */
+    private static final Random RANDOM = new Random(0);
+
+    /**
+     * The tested Crystalline plant.
+     */
+    private static BlockCrystallinePlant crystalline;
+
+    /**
+     * The tested Metallic plant.
+     */
+    private static BlockMetallicPlant metallic;
+
+    /**
+     * The produce block of the tested Metallic plant.
+     */
+    private static BlockOrganicOre produce;
+
+    /**
+     * The world the plants are ticked in.
+     */
+    private static TestWorld world;
+
+    /**
+     * Written by the measured code so it can't be optimized away.
+     */
+    private static volatile long sink;
+
+    /**
+     * Registers the vanilla blocks and creates the tested plants.
+     */
+    @BeforeClass
+    public static void bootstrap() throws ReflectiveOperationException {
+        Bootstrap.register();
+
+        crystalline = new BlockCrystallinePlant("crystalline", "allocation_test", PROPERTIES) {
+            @Override protected ItemSeeds getSeedsItem() { return null; }
+            @Override protected ItemStack getProduce() { return ItemStack.EMPTY; }
+        };
+
+        produce = new BlockOrganicOre("metallic", "allocation_test", METALLIC_PROPERTIES);
+        metallic = new BlockMetallicPlant("metallic", "allocation_test", PROPERTIES, produce) {
+            @Override protected ItemSeeds getSeedsItem() { return null; }
+            @Override protected ItemStack getProduce() { return ItemStack.EMPTY; }
+        };
+
+        world = TestWorld.create();
+    }
+
+    /**
+     * Collision and selection shape lookups.
+     */
+    @Test
+    public void getShapeDoesNotAllocate(){
+        BlockState state = getState(crystalline, 3);
+
+        long allocated = Allocations.measure(RUNS, () -> {
+            if(crystalline.getShape(state, world, POS, null) != null)
+                sink++;
+        });
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * Growth stage lookups.
+     */
+    @Test
+    public void getGrowthStageDoesNotAllocate(){
+        BlockState state = getState(metallic, 5);
+
+        long allocated = Allocations.measure(RUNS, () -> sink += metallic.getGrowthStage(state));
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * Random ticks that don't grow the plant: the growth
+     * environment check, the cached growth chance and the draw.
+     */
+    @Test
+    public void tickDoesNotAllocate(){
+        BlockState state = getState(crystalline, 2);
+
+        long allocated = Allocations.measure(RUNS, () -> crystalline.tick(state, world, POS, RANDOM));
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * Neighbor updates that aren't the plants produce.
+     */
+    @Test
+    public void neighborChangedDoesNotAllocate(){
+        BlockState state = getState(metallic, 4);
+
+        long allocated = Allocations.measure(
+                RUNS, () -> metallic.neighborChanged(state, world, POS, Blocks.STONE, NEIGHBOR, false)
+        );
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * Neighbor updates from the produce of a fully grown plant
+     * being broken, which reset the plant.
+     */
+    @Test
+    public void produceBrokenDoesNotAllocate(){
+        BlockState state = getState(metallic, 8);
+        world.plant = state;
+
+        try {
+            long allocated = Allocations.measure(
+                    RUNS, () -> metallic.neighborChanged(state, world, POS, produce, NEIGHBOR, false)
+            );
+
+            assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+        } finally {
+            world.plant = null;
+        }
+    }
+
+    /**
+     * The number of Metallic plant neighbor updates handled per
+     * millisecond, for rejected updates and updates from broken
+     * produce. Every broken produce update must reset the plant,
+     * and no rejected update may. The throughput is printed.
+     */
+    @Test
+    public void neighborChangedThroughput(){
+        BlockState state = getState(metallic, 8);
+        world.plant = state;
+
+        try {
+            world.resets = 0;
+            double rejected = getUpdatesPerMs(() -> metallic.neighborChanged(
+                    state, world, POS, Blocks.STONE, NEIGHBOR, false
+            ));
+            assertEquals(0, world.resets);
+
+            double broken = getUpdatesPerMs(() -> metallic.neighborChanged(
+                    state, world, POS, produce, NEIGHBOR, false
+            ));
+            assertEquals(RUNS * 2, world.resets);
+
+            System.out.printf(
+                    "Metallic plant neighbor updates per ms - rejected: %.0f, produce broken: %.0f%n",
+                    rejected, broken
+            );
+        } finally {
+            world.plant = null;
+        }
+    }
+
+    /**
+     * @return the number of times the given update runs per
+     * millisecond, after the same number of untimed runs.
+     */
+    private static double getUpdatesPerMs(Runnable update){
+        for(int i = 0; i < RUNS; i++)
+            update.run();
+
+        long start = System.nanoTime();
+        for(int i = 0; i < RUNS; i++)
+            update.run();
+
+        return RUNS / ((System.nanoTime() - start) / 1_000_000.0D);
+    }
+
+    /**
+     * @return the state of the given plant at the given growth stage.
+     */
+    private static BlockState getState(BlockPlant<?> plant, int stage){
+        return plant.getDefaultState().with(plant.getGrowthProperty(), stage);
+    }
+
+    // **********
+    // Test World
+    // **********
+
+    /**
+     * A server world answering the reads of plant growth checks
+     * with constants: every area is loaded and fully lit, and
+     * every block is air without a tile entity (i.e. soil without
+     * Mineral Content or an Enhancer), other than the tested plant
+     * when it's set. Blocks set are counted, not stored.
+     * <p/>
+     * The world is created without running its constructor, so
+     * every other method of it must never be called.
+     */
+    private static final class TestWorld extends ServerWorld {
+
+        /**
+         * The state of the block at the tested position,
+         * or {@code null} for air.
+         */
+        private BlockState plant;
+
+        /**
+         * The number of blocks set in the world.
+         */
+        private int resets;
+
+        /**Never called - see {@link #create()}.*/
+        private TestWorld(){
+            super(null, null, null, null, null, null, null);
+        }
+
+        /**
+         * @return a new test world, created without
+         * running any constructor.
+         */
+        private static TestWorld create() throws ReflectiveOperationException {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            return (TestWorld) ((Unsafe) field.get(null)).allocateInstance(TestWorld.class);
+        }
+
+        @Override
+        public boolean isAreaLoaded(BlockPos center, int range) {
+            return true;
+        }
+
+        @Override
+        public BlockState getBlockState(BlockPos pos) {
+            return plant != null && pos.equals(POS) ? plant : Blocks.AIR.getDefaultState();
+        }
+
+        @Override
+        public boolean setBlockState(BlockPos pos, BlockState newState, int flags) {
+            resets++;
+            return true;
+        }
+
+        @Override
+        public TileEntity getTileEntity(BlockPos pos) {
+            return null;
+        }
+
+        @Override
+        public int getLightSubtracted(BlockPos pos, int amount) {
+            return 15;
+        }
+
+        @Override
+        public boolean canBlockSeeSky(BlockPos pos) {
+            return true;
+        }
+
+        @Override
+        public long getGameTime() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Benchmarks a farm grown by the batched growth engine against the
+ * same farm grown by emulated vanilla random ticks, block by block.
+ * <p/>
+ * The farm is a few chunk sections, each with a layer of plants.
+ * Random ticks read a random block in each section, a few times
+ * every tick, and check the growth of the plants they pick. The
+ * batched engine picks the blocks of a whole pass at once, and
+ * only reads the picked plants. Both must grow the farm by the
+ * same amount, with far fewer block reads batched. The timings
+ * are printed for comparison.
+ * <p/>
+ * Also benchmarks random ticks on a mostly (80%) fully grown farm,
+ * with and without fully grown plant states random ticking, and
+ * the server thread time of async batched passes against
+ * synchronous passes.
+ */
+public class BatchedGrowthBenchmarkTest {
+
+    /**
+     * The number of chunk sections in the farm.
+     */
+    private static final int SECTIONS = 4;
+
+    /**
+     * The number of plants in each section (a full layer).
+     */
+    private static final int PLANTS = 256;
+
+    /**
+     * The value of blocks in a section that aren't plants.
+     */
+    private static final int NO_PLANT = -1;
+
+    /**
+     * The number of stages each plant can grow.
+     */
+    private static final int STAGES = 7;
+
+    /**
+     * The growth chance threshold of the plants.
+     */
+    private static final int THRESHOLD = MathUtil.toChanceThreshold(25.0F);
+
+    /**
+     * The number of ticks between batched growth passes.
+     */
+    private static final int INTERVAL = 20;
+
+    /**
+     * The number of ticks the farm is grown for (10 minutes).
+     */
+    private static final int TICKS = 20 * 60 * 10;
+
+    /**
+     * The number of times each engine grows the farm. The
+     * first half warms up the JIT and isn't counted.
+     */
+    private static final int ROUNDS = 10;
+
+    /**
+     * The number of fully grown plants in the mostly fully
+     * grown farm: 80%, with all but one section fully grown.
+     */
+    private static final int MATURE_PLANTS = SECTIONS * PLANTS * 4 / 5;
+
+    /**
+     * The plant index of each block in a section,
+     * or {@link #NO_PLANT}.
+     */
+    private static final int[] SECTION = new int[GrowthParameters.SECTION_VOLUME];
+
+    static {
+        Arrays.fill(SECTION, NO_PLANT);
+        for(int plant = 0; plant < PLANTS; plant++)
+            SECTION[plant] = plant;
+    }
+
+    /**
+     * The number of block reads done by the current run.
+     */
+    private long reads;
+
+    /**
+     * The number of growth checks done by the current run.
+     */
+    private long checks;
+
+    /**
+     * The time (nanoseconds) spent on the server thread
+     * by the current async run.
+     */
+    private long serverNanos;
+
+    /**
+     * Returns the generators to non-deterministic
+     * generators after each test.
+     */
+    @After
+    public void clearSeed(){
+        MathUtil.clearSeed();
+    }
+
+    /**
+     * The batched engine grows the farm as much as random
+     * ticks do, reading only the picked plants.
+     */
+    @Test
+    public void batchedGrowthMatchesRandomTicksWithFewerReads(){
+        MathUtil.setSeed(21);
+        SplittableRandom random = MathUtil.getRandom();
+
+        long[] randomTicks = new long[3], batched = new long[3];
+        for(int round = 0; round < ROUNDS; round++){
+            long[] randomTickRun = run(random, false), batchedRun = run(random, true);
+
+            if(round < ROUNDS / 2)
+                continue;
+
+            for(int i = 0; i < 3; i++){
+                randomTicks[i] += randomTickRun[i];
+                batched[i] += batchedRun[i];
+            }
+        }
+
+        System.out.printf(
+                "%d plants over %d ticks - random ticks: %.2fms, %d reads, %d stages;"
+                        + " batched: %.2fms, %d reads, %d stages%n",
+                SECTIONS * PLANTS, TICKS,
+                randomTicks[0] / 1e6D / (ROUNDS / 2), randomTicks[1] / (ROUNDS / 2), randomTicks[2] / (ROUNDS / 2),
+                batched[0] / 1e6D / (ROUNDS / 2), batched[1] / (ROUNDS / 2), batched[2] / (ROUNDS / 2)
+        );
+
+        assertEquals(randomTicks[2], batched[2], randomTicks[2] * 0.05D);
+        assertTrue("Batched reads: " + batched[1], batched[1] * 10 < randomTicks[1]);
+    }
+
+    /**
+     * On a mostly fully grown farm, fully grown plants that
+     * don't random tick grow the farm as much, with far fewer
+     * growth checks and fewer block reads (sections of only
+     * fully grown plants aren't random ticked at all).
+     */
+    @Test
+    public void grownPlantsDontRandomTick(){
+        MathUtil.setSeed(13);
+        SplittableRandom random = MathUtil.getRandom();
+
+        long[] ticked = new long[4], skipped = new long[4];
+        for(int round = 0; round < ROUNDS; round++){
+            long[] tickedRun = runMostlyGrown(random, false), skippedRun = runMostlyGrown(random, true);
+
+            if(round < ROUNDS / 2)
+                continue;
+
+            for(int i = 0; i < 4; i++){
+                ticked[i] += tickedRun[i];
+                skipped[i] += skippedRun[i];
+            }
+        }
+
+        System.out.printf(
+                "%d plants (%d fully grown) over %d ticks - grown plants ticked: %.2fms, %d reads, %d checks,"
+                        + " %d stages; grown plants skipped: %.2fms, %d reads, %d checks, %d stages%n",
+                SECTIONS * PLANTS, MATURE_PLANTS, TICKS,
+                ticked[0] / 1e6D / (ROUNDS / 2), ticked[1] / (ROUNDS / 2),
+                ticked[2] / (ROUNDS / 2), ticked[3] / (ROUNDS / 2),
+                skipped[0] / 1e6D / (ROUNDS / 2), skipped[1] / (ROUNDS / 2),
+                skipped[2] / (ROUNDS / 2), skipped[3] / (ROUNDS / 2)
+        );
+
+        assertEquals(ticked[3], skipped[3], ticked[3] * 0.1D);
+        assertTrue("Checks: " + skipped[2], skipped[2] * 3 < ticked[2]);
+        assertTrue("Reads: " + skipped[1], skipped[1] * 2 < ticked[1]);
+    }
+
+    /**
+     * Async passes, picking the plants on a worker thread, grow the
+     * farm as much as synchronous passes, with the same number of
+     * block reads on the server thread - where snapshotting every
+     * plant (and rolling its growth on the worker) reads every
+     * plant every pass. The server thread time of each is printed.
+     * <p/>
+     * Every pass copies the plants of each section first, like the
+     * engine copies them from the plant registry.
+     */
+    @Test
+    public void asyncPassesOnlyReadPickedPlants(){
+        MathUtil.setSeed(6);
+        SplittableRandom random = MathUtil.getRandom();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            long[] sync = new long[3], picked = new long[3], snapshot = new long[3];
+            for(int round = 0; round < ROUNDS; round++){
+                long[] syncRun = runPasses(random, null, false);
+                long[] pickedRun = runPasses(random, executor, false);
+                long[] snapshotRun = runPasses(random, executor, true);
+
+                if(round < ROUNDS / 2)
+                    continue;
+
+                for(int i = 0; i < 3; i++){
+                    sync[i] += syncRun[i];
+                    picked[i] += pickedRun[i];
+                    snapshot[i] += snapshotRun[i];
+                }
+            }
+
+            System.out.printf(
+                    "%d plants over %d ticks, server thread - sync: %.2fms, %d reads, %d stages;"
+                            + " async picks: %.2fms, %d reads, %d stages;"
+                            + " async snapshot: %.2fms, %d reads, %d stages%n",
+                    SECTIONS * PLANTS, TICKS,
+                    sync[0] / 1e6D / (ROUNDS / 2), sync[1] / (ROUNDS / 2), sync[2] / (ROUNDS / 2),
+                    picked[0] / 1e6D / (ROUNDS / 2), picked[1] / (ROUNDS / 2), picked[2] / (ROUNDS / 2),
+                    snapshot[0] / 1e6D / (ROUNDS / 2), snapshot[1] / (ROUNDS / 2), snapshot[2] / (ROUNDS / 2)
+            );
+
+            assertEquals(sync[2], picked[2], sync[2] * 0.05D);
+            assertEquals(sync[1], picked[1], sync[1] * 0.05D);
+            assertTrue("Picked reads: " + picked[1], picked[1] * 10 < snapshot[1]);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // ***********
+    // Growth Runs
+    // ***********
+
+    /**
+     * Grows the farm once with the given engine.
+     *
+     * @return the time taken (nanoseconds), the number
+     * of block reads and the number of stages grown.
+     */
+    private long[] run(SplittableRandom random, boolean batched){
+        int[] stages = new int[SECTIONS * PLANTS];
+        reads = 0;
+
+        long start = System.nanoTime();
+        long grown = batched ? growBatched(random, stages) : growByRandomTicks(random, stages);
+
+        return new long[]{System.nanoTime() - start, reads, grown};
+    }
+
+    /**
+     * Grows the farm once with batched passes.
+     *
+     * @param executor the worker thread, or {@code null}
+     *                 to pick on the server thread.
+     * @param snapshot {@code true} to snapshot every plant and roll
+     *                 its growth on the worker, {@code false} to pick
+     *                 the plants and grow the picks.
+     * @return the time spent on the server thread (nanoseconds),
+     * the number of block reads and the number of stages grown.
+     */
+    private long[] runPasses(SplittableRandom random, ExecutorService executor, boolean snapshot){
+        int[] stages = new int[SECTIONS * PLANTS];
+        reads = 0;
+        serverNanos = 0;
+
+        long grown = 0;
+        for(int tick = INTERVAL; tick <= TICKS; tick += INTERVAL){
+            grown += snapshot
+                    ? growSnapshotPass(random.split(), executor, stages)
+                    : growPickedPass(random.split(), executor, stages);
+        }
+
+        return new long[]{serverNanos, reads, grown};
+    }
+
+    /**
+     * A single pass: the server thread copies the plants of each
+     * section, the random ticks of each section are picked, and the
+     * server thread then grows the picked plants. With an executor,
+     * the picks are made on the worker like {@code AsyncGrowthPipeline}.
+     *
+     * @return the number of stages grown.
+     */
+    private long growPickedPass(SplittableRandom random, ExecutorService executor, int[] stages){
+        long start = System.nanoTime();
+        long sectionRandomTicks = (long) GrowthParameters.DEFAULT_RANDOM_TICK_SPEED * INTERVAL;
+        int[][] sections = new int[SECTIONS][];
+        for(int section = 0; section < SECTIONS; section++)
+            sections[section] = Arrays.copyOf(SECTION, PLANTS);
+
+        int[] picks;
+        if(executor == null)
+            picks = pick(random, sections, sectionRandomTicks);
+        else {
+            serverNanos += System.nanoTime() - start;
+            picks = CompletableFuture.supplyAsync(() -> pick(random, sections, sectionRandomTicks), executor).join();
+            start = System.nanoTime();
+        }
+
+        long grown = 0;
+        for(int plant : picks){
+            readBlock(plant % PLANTS);
+            grown += grow(stages, plant);
+        }
+        serverNanos += System.nanoTime() - start;
+
+        return grown;
+    }
+
+    /**
+     * @param sections the plants of each section.
+     * @param sectionRandomTicks the number of random ticks in each section.
+     * @return the plants picked by the random ticks of each section.
+     */
+    private static int[] pick(SplittableRandom random, int[][] sections, long sectionRandomTicks){
+        int[] picked = new int[(int) sectionRandomTicks * SECTIONS];
+        int count = 0;
+
+        for(int section = 0; section < SECTIONS; section++){
+            for(long pick = 0; pick < sectionRandomTicks; pick++){
+                int block = random.nextInt(GrowthParameters.SECTION_VOLUME);
+
+                if(block < sections[section].length)
+                    picked[count++] = section * PLANTS + sections[section][block];
+            }
+        }
+
+        return Arrays.copyOf(picked, count);
+    }
+
+    /**
+     * A single async pass that snapshots the growth inputs of every
+     * plant on the server thread, rolls the growth of each plant on
+     * the worker, and then writes the grown plants.
+     *
+     * @return the number of stages grown.
+     */
+    private long growSnapshotPass(SplittableRandom random, ExecutorService executor, int[] stages){
+        long start = System.nanoTime();
+        long sectionRandomTicks = (long) GrowthParameters.DEFAULT_RANDOM_TICK_SPEED * INTERVAL;
+        double chance = THRESHOLD / (double) MathUtil.CHANCE_THRESHOLD_SCALE / GrowthParameters.SECTION_VOLUME;
+        int[][] sections = new int[SECTIONS][];
+        for(int section = 0; section < SECTIONS; section++)
+            sections[section] = Arrays.copyOf(SECTION, PLANTS);
+
+        int[] snapshot = new int[stages.length];
+        for(int plant = 0; plant < stages.length; plant++){
+            readBlock(sections[plant / PLANTS][plant % PLANTS]);
+            snapshot[plant] = stages[plant];
+        }
+        serverNanos += System.nanoTime() - start;
+
+        int[] grownStages = CompletableFuture.supplyAsync(() -> {
+            int[] grown = new int[snapshot.length];
+            for(int plant = 0; plant < snapshot.length; plant++)
+                grown[plant] = MathUtil.getSuccesses(random, sectionRandomTicks, chance, STAGES - snapshot[plant]);
+
+            return grown;
+        }, executor).join();
+
+        start = System.nanoTime();
+        long grown = 0;
+        for(int plant = 0; plant < stages.length; plant++){
+            stages[plant] += grownStages[plant];
+            grown += grownStages[plant];
+        }
+        serverNanos += System.nanoTime() - start;
+
+        return grown;
+    }
+
+    /**
+     * Grows the mostly fully grown farm once with
+     * emulated vanilla random ticks.
+     *
+     * @param skipGrown {@code true} if fully grown plants
+     *                  don't random tick.
+     * @return the time taken (nanoseconds), the number of block
+     * reads, the number of growth checks and the number of
+     * stages grown.
+     */
+    private long[] runMostlyGrown(SplittableRandom random, boolean skipGrown){
+        int[] stages = new int[SECTIONS * PLANTS];
+        Arrays.fill(stages, 0, MATURE_PLANTS, STAGES);
+        reads = 0;
+        checks = 0;
+
+        long start = System.nanoTime();
+        long grown = growMostlyGrown(random, stages, skipGrown);
+
+        return new long[]{System.nanoTime() - start, reads, checks, grown};
+    }
+
+    /**
+     * Grows the farm with emulated vanilla random ticks, like
+     * {@link #growByRandomTicks(SplittableRandom, int[])}. With
+     * {@code skipGrown}, picked fully grown plants aren't ticked,
+     * and sections without a growing plant aren't picked from,
+     * as vanilla skips sections without randomly ticking blocks.
+     *
+     * @return the total number of stages grown.
+     */
+    private long growMostlyGrown(SplittableRandom random, int[] stages, boolean skipGrown){
+        int[] growing = new int[SECTIONS];
+        for(int plant = 0; plant < stages.length; plant++){
+            if(stages[plant] < STAGES)
+                growing[plant / PLANTS]++;
+        }
+
+        long grown = 0;
+
+        for(int tick = 0; tick < TICKS; tick++){
+            for(int section = 0; section < SECTIONS; section++){
+                if(skipGrown && growing[section] == 0)
+                    continue;
+
+                for(int pick = 0; pick < GrowthParameters.DEFAULT_RANDOM_TICK_SPEED; pick++){
+                    int plant = readBlock(random.nextInt(GrowthParameters.SECTION_VOLUME));
+                    if(plant == NO_PLANT)
+                        continue;
+
+                    plant += section * PLANTS;
+                    if(skipGrown && stages[plant] >= STAGES)
+                        continue;
+
+                    checks++;
+                    int grew = grow(stages, plant);
+                    grown += grew;
+
+                    if(grew == 1 && stages[plant] == STAGES)
+                        growing[section]--;
+                }
+            }
+        }
+
+        return grown;
+    }
+
+    /**
+     * Grows the farm with emulated vanilla random ticks: the
+     * random tick speed number of block picks in every section
+     * each tick, with a growth check for each picked plant.
+     *
+     * @return the total number of stages grown.
+     */
+    private long growByRandomTicks(SplittableRandom random, int[] stages){
+        long grown = 0;
+
+        for(int tick = 0; tick < TICKS; tick++){
+            for(int section = 0; section < SECTIONS; section++){
+                for(int pick = 0; pick < GrowthParameters.DEFAULT_RANDOM_TICK_SPEED; pick++){
+                    int plant = readBlock(random.nextInt(GrowthParameters.SECTION_VOLUME));
+
+                    if(plant != NO_PLANT)
+                        grown += grow(stages, section * PLANTS + plant);
+                }
+            }
+        }
+
+        return grown;
+    }
+
+    /**
+     * Grows the farm with batched passes, like
+     * {@code BatchedGrowthEngine#growSection}: every interval,
+     * the random ticks of each section are picked at once and
+     * mapped onto the plants, reading and checking the growth
+     * of only the picked plants.
+     *
+     * @return the total number of stages grown.
+     */
+    private long growBatched(SplittableRandom random, int[] stages){
+        long sectionRandomTicks = (long) GrowthParameters.DEFAULT_RANDOM_TICK_SPEED * INTERVAL;
+        long grown = 0;
+
+        for(int tick = INTERVAL; tick <= TICKS; tick += INTERVAL){
+            for(int section = 0; section < SECTIONS; section++){
+                for(long pick = 0; pick < sectionRandomTicks; pick++){
+                    int block = random.nextInt(GrowthParameters.SECTION_VOLUME);
+
+                    if(block < PLANTS)
+                        grown += grow(stages, section * PLANTS + readBlock(block));
+                }
+            }
+        }
+
+        return grown;
+    }
+
+    /**
+     * @param block the index of the block in its section.
+     * @return the plant index of the read block.
+     */
+    private int readBlock(int block){
+        reads++;
+        return SECTION[block];
+    }
+
+    /**
+     * Checks the growth of a single picked plant.
+     *
+     * @return {@code 1} if the plant grew a stage.
+     */
+    private static int grow(int[] stages, int plant){
+        if(stages[plant] >= STAGES || !MathUtil.thresholdChance(THRESHOLD))
+            return 0;
+
+        stages[plant]++;
+        return 1;
+    }
+}
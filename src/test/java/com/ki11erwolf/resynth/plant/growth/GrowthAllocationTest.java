@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.util.Allocations;
+import com.ki11erwolf.resynth.util.MathUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Allocation regression tests for the per-tick growth
+ * path: looking up a growth chance and drawing against
+ * it must not allocate, however often it's done.
+ */
+public class GrowthAllocationTest {
+
+    /**
+     * The number of measured runs per test.
+     */
+    private static final int RUNS = 100_000;
+
+    /**
+     * The bytes the measurement itself may allocate. Far
+     * below a single object per run.
+     */
+    private static final long ALLOWED_BYTES = 4096;
+
+    /**
+     * The growth chance table tested.
+     */
+    private static final GrowthChanceTable TABLE = new GrowthChanceTable(40.0F);
+
+    /**
+     * Written by the measured code so it can't be optimized away.
+     */
+    private static volatile long sink;
+
+    /**
+     * A random tick growth check: table lookup and draw.
+     */
+    @Test
+    public void growthCheckDoesNotAllocate(){
+        long allocated = Allocations.measure(RUNS, () -> {
+            if(MathUtil.thresholdChance(TABLE.getThreshold((int) (sink & 511), 0)))
+                sink++;
+        });
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * The batched and offline growth draw.
+     */
+    @Test
+    public void batchedGrowthDrawDoesNotAllocate(){
+        long allocated = Allocations.measure(RUNS, () -> sink += MathUtil.getSuccesses(3 * 20, 0.0001D, 7));
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+
+    /**
+     * The scheduled growth draw.
+     */
+    @Test
+    public void scheduledGrowthDrawDoesNotAllocate(){
+        long allocated = Allocations.measure(RUNS, () -> sink += MathUtil.getFailuresBeforeSuccess(0.0001D));
+
+        assertTrue("Allocated " + allocated + " bytes", allocated < ALLOWED_BYTES);
+    }
+}
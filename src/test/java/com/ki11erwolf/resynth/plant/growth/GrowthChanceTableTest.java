@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link GrowthChanceTable} against the growth model
+ * it's built from. Only tier 0 (no Enhancer) is checked, as
+ * the Enhancer increases come from the registered blocks.
+ */
+public class GrowthChanceTableTest {
+
+    /**
+     * Every entry matches the threshold of the chance it caches.
+     */
+    @Test
+    public void matchesGrowthModel(){
+        for(float plantChance : new float[]{0.0F, 10.0F, 35.5F, 100.0F}){
+            GrowthChanceTable table = new GrowthChanceTable(plantChance);
+
+            for(int tenths = 0; tenths <= GrowthChanceTable.MAX_MINERAL_TENTHS; tenths++){
+                float chance = new GrowthParameters(plantChance, tenths / 10.0F, 0).getGrowthChance();
+                assertEquals(MathUtil.toChanceThreshold(chance), table.getThreshold(tenths, 0));
+            }
+        }
+    }
+
+    /**
+     * Out of range Mineral Content and tiers are clamped.
+     */
+    @Test
+    public void clampsLookups(){
+        GrowthChanceTable table = new GrowthChanceTable(50.0F);
+
+        assertEquals(table.getThreshold(0, 0), table.getThreshold(-20, -1));
+        assertEquals(
+                table.getThreshold(GrowthChanceTable.MAX_MINERAL_TENTHS, 0),
+                table.getThreshold(GrowthChanceTable.MAX_MINERAL_TENTHS + 100, 0)
+        );
+    }
+
+    /**
+     * Thresholds convert back to the percentage they were made from.
+     */
+    @Test
+    public void toPercentage(){
+        assertEquals(0.0D, GrowthChanceTable.toPercentage(0), 0);
+        assertEquals(100.0D, GrowthChanceTable.toPercentage(MathUtil.CHANCE_THRESHOLD_SCALE), 0);
+        assertEquals(12.5D, GrowthChanceTable.toPercentage(MathUtil.toChanceThreshold(12.5F)), 1e-6D);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.plant.growth;
+
+import com.ki11erwolf.resynth.simulation.GrowthParameters;
+import com.ki11erwolf.resynth.util.MathUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the batched/offline ({@link MathUtil#getSuccesses(long, double, int)})
+ * and scheduled ({@link MathUtil#getFailuresBeforeSuccess(double)}) growth draws
+ * produce the same growth statistics as emulated vanilla random ticks: a pick
+ * of one block in the section ({@code 1 in 4096}), followed by the plants
+ * growth check.
+ */
+public class GrowthDistributionTest {
+
+    /**
+     * The growth chance threshold of the tested plant.
+     */
+    private static final int THRESHOLD = MathUtil.toChanceThreshold(75.0F);
+
+    /**
+     * The chance of a single random tick pick growing the tested plant.
+     */
+    private static final double PICK_CHANCE = 0.75D / GrowthParameters.SECTION_VOLUME;
+
+    /**
+     * The number of stages the tested plant can grow.
+     */
+    private static final int STAGES = 7;
+
+    /**
+     * Returns the generators to non-deterministic
+     * generators after each test.
+     */
+    @After
+    public void clearSeed(){
+        MathUtil.clearSeed();
+    }
+
+    /**
+     * Batched growth grows the same number of stages, with
+     * the same spread, as the random ticks it replaces.
+     */
+    @Test
+    public void batchedMatchesRandomTicks(){
+        MathUtil.setSeed(11);
+        int runs = 5000;
+        long picks = 20L * 60 * GrowthParameters.DEFAULT_RANDOM_TICK_SPEED;
+
+        double[] randomTicks = new double[runs];
+        double[] batched = new double[runs];
+        for(int run = 0; run < runs; run++){
+            randomTicks[run] = emulateRandomTicks(picks);
+            batched[run] = MathUtil.getSuccesses(picks, PICK_CHANCE, STAGES);
+        }
+
+        assertEquals(mean(randomTicks), mean(batched), 0.05D);
+        assertEquals(variance(randomTicks), variance(batched), variance(randomTicks) * 0.1D);
+    }
+
+    /**
+     * Scheduled growth waits as long for the next stage
+     * as the random ticks it replaces.
+     */
+    @Test
+    public void scheduledMatchesRandomTicks(){
+        MathUtil.setSeed(12);
+        int runs = 20_000;
+
+        double[] randomTicks = new double[runs];
+        double[] scheduled = new double[runs];
+        for(int run = 0; run < runs; run++){
+            randomTicks[run] = emulatePicksUntilGrowth();
+            scheduled[run] = MathUtil.getFailuresBeforeSuccess(PICK_CHANCE) + 1;
+        }
+
+        double expected = 1 / PICK_CHANCE;
+        assertEquals(expected, mean(randomTicks), expected * 0.03D);
+        assertEquals(mean(randomTicks), mean(scheduled), expected * 0.05D);
+    }
+
+    /**
+     * Random ticks of plants far from players, where only one in every
+     * few ticks is used and draws the growth of all of them (see
+     * {@link GrowthLod#getRandomTickWeight}), grow the same number
+     * of stages on average as every random tick.
+     */
+    @Test
+    public void weightedRandomTicksMatchRandomTicks(){
+        MathUtil.setSeed(13);
+        int runs = 5000, weight = 4;
+        long picks = 20L * 60 * GrowthParameters.DEFAULT_RANDOM_TICK_SPEED;
+
+        double[] randomTicks = new double[runs];
+        double[] weighted = new double[runs];
+        for(int run = 0; run < runs; run++){
+            randomTicks[run] = emulateRandomTicks(picks);
+            weighted[run] = emulateWeightedRandomTicks(picks, weight);
+        }
+
+        assertEquals(mean(randomTicks), mean(weighted), 0.05D);
+    }
+
+    // *******
+    // Helpers
+    // *******
+
+    /**
+     * @param picks the number of random tick picks in the section.
+     * @return the number of stages grown by the given number of
+     * random tick picks, each checked individually.
+     */
+    private static int emulateRandomTicks(long picks){
+        SplittableRandom random = MathUtil.getRandom();
+        int stages = 0;
+
+        for(long pick = 0; pick < picks && stages < STAGES; pick++){
+            if(random.nextInt(GrowthParameters.SECTION_VOLUME) == 0 && MathUtil.thresholdChance(THRESHOLD))
+                stages++;
+        }
+
+        return stages;
+    }
+
+    /**
+     * @param picks the number of random tick picks in the section.
+     * @param weight the number of random ticks each used tick stands for.
+     * @return the number of stages grown by the given number of random
+     * tick picks, where only one in {@code weight} of the ticks landing
+     * on the plant is used, and draws the growth of {@code weight} ticks.
+     */
+    private static int emulateWeightedRandomTicks(long picks, int weight){
+        SplittableRandom random = MathUtil.getRandom();
+        int stages = 0;
+
+        for(long pick = 0; pick < picks && stages < STAGES; pick++){
+            if(random.nextInt(GrowthParameters.SECTION_VOLUME) == 0 && random.nextInt(weight) == 0)
+                stages += MathUtil.getSuccesses(
+                        weight, PICK_CHANCE * GrowthParameters.SECTION_VOLUME, STAGES - stages
+                );
+        }
+
+        return stages;
+    }
+
+    /**
+     * @return the number of random tick picks until the
+     * plant grows, each checked individually.
+     */
+    private static long emulatePicksUntilGrowth(){
+        SplittableRandom random = MathUtil.getRandom();
+        long picks = 1;
+
+        while(!(random.nextInt(GrowthParameters.SECTION_VOLUME) == 0 && MathUtil.thresholdChance(THRESHOLD)))
+            picks++;
+
+        return picks;
+    }
+
+    /**
+     * @return the mean of the given values.
+     */
+    private static double mean(double[] values){
+        double sum = 0;
+        for(double value : values)
+            sum += value;
+
+        return sum / values.length;
+    }
+
+    /**
+     * @return the variance of the given values.
+     */
+    private static double variance(double[] values){
+        double mean = mean(values);
+        double sum = 0;
+        for(double value : values)
+            sum += (value - mean) * (value - mean);
+
+        return sum / values.length;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.simulation;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the Monte Carlo {@link FarmSimulation} against
+ * the closed form {@link GrowthForecast}.
+ */
+public class FarmSimulationTest {
+
+    /**
+     * A plant with a 50% chance on fully mineralized soil.
+     */
+    private static final GrowthParameters PLANT = new GrowthParameters(50.0F, 50.0F, 0);
+
+    /**
+     * The number of growth stages the simulated plants grow.
+     */
+    private static final int STAGES = 7;
+
+    /**
+     * The number of runs simulated by each test.
+     */
+    private static final int RUNS = 20_000;
+
+    /**
+     * The seed of every simulation.
+     */
+    private static final long SEED = 4_096L;
+
+    /**
+     * The allowed difference (relative) between
+     * the simulation and the forecast.
+     */
+    private static final double TOLERANCE = 0.02D;
+
+    /**
+     * The average plant maturity time matches the forecast.
+     */
+    @Test
+    public void meanMatchesForecast(){
+        FarmSimulation.Result result = new FarmSimulation().addPlants(PLANT, STAGES, 4).simulate(RUNS, SEED);
+        double expected = GrowthForecast.getExpectedTicks(PLANT, STAGES);
+
+        assertEquals(RUNS, result.getRuns());
+        assertEquals(expected, result.getMeanPlantTicks(), expected * TOLERANCE);
+    }
+
+    /**
+     * The maturity time percentiles of a single plant farm match the forecast.
+     */
+    @Test
+    public void percentilesMatchForecast(){
+        FarmSimulation.Result result = new FarmSimulation().addPlant(PLANT, STAGES).simulate(RUNS, SEED);
+
+        for(double percentile : new double[]{0.1D, 0.5D, 0.9D}){
+            double expected = GrowthForecast.getPercentileTicks(PLANT, STAGES, percentile);
+            assertEquals(expected, result.getPercentileFarmTicks(percentile), expected * TOLERANCE);
+        }
+    }
+
+    /**
+     * A farm of independent plants is grown once every plant is,
+     * so its percentiles are the plant percentiles of p^(1/n).
+     */
+    @Test
+    public void farmPercentilesMatchForecast(){
+        int plants = 16;
+        FarmSimulation.Result result = new FarmSimulation().addPlants(PLANT, STAGES, plants).simulate(RUNS, SEED);
+
+        for(double percentile : new double[]{0.1D, 0.5D, 0.9D}){
+            double expected = GrowthForecast.getPercentileTicks(PLANT, STAGES, Math.pow(percentile, 1.0D / plants));
+            assertEquals(expected, result.getPercentileFarmTicks(percentile), expected * TOLERANCE);
+        }
+    }
+
+    /**
+     * The results depend only on the seed, not the number of threads.
+     */
+    @Test
+    public void seededResultsAreReproducible(){
+        FarmSimulation simulation = new FarmSimulation().addPlants(PLANT, STAGES, 4);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool multiple = new ForkJoinPool(4);
+
+        try {
+            FarmSimulation.Result first = simulation.simulate(RUNS, SEED, single);
+            FarmSimulation.Result second = simulation.simulate(RUNS, SEED, multiple);
+
+            assertEquals(first.getMeanFarmTicks(), second.getMeanFarmTicks(), 0);
+            assertEquals(first.getMeanPlantTicks(), second.getMeanPlantTicks(), 0);
+            assertEquals(first.getPercentileFarmTicks(0.5D), second.getPercentileFarmTicks(0.5D), 0);
+        } finally {
+            single.shutdown();
+            multiple.shutdown();
+        }
+    }
+
+    /**
+     * Plants that can't grow never finish, plants that are grown already take no time.
+     */
+    @Test
+    public void stuckAndGrownPlants(){
+        GrowthParameters stuck = new GrowthParameters(0.0F, 50.0F, 0);
+
+        assertEquals(Double.POSITIVE_INFINITY,
+                new FarmSimulation().addPlant(stuck, STAGES).simulate(16, SEED).getMeanFarmTicks(), 0);
+        assertEquals(0, new FarmSimulation().addPlant(PLANT, 0).simulate(16, SEED).getMeanFarmTicks(), 0);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.simulation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the closed form forecasts of {@link GrowthForecast}.
+ */
+public class GrowthForecastTest {
+
+    /**
+     * A plant with a 50% chance on fully mineralized soil.
+     */
+    private static final GrowthParameters PLANT = new GrowthParameters(50.0F, 50.0F, 0);
+
+    /**
+     * A plant that can't grow.
+     */
+    private static final GrowthParameters STUCK = new GrowthParameters(0.0F, 50.0F, 0);
+
+    /**
+     * The expected time is the number of stages over the growth rate.
+     */
+    @Test
+    public void expectedTicks(){
+        assertEquals(7 / PLANT.getGrowthRate(), GrowthForecast.getExpectedTicks(PLANT, 7), 1e-9D);
+        assertEquals(0, GrowthForecast.getExpectedTicks(PLANT, 0), 0);
+        assertEquals(Double.POSITIVE_INFINITY, GrowthForecast.getExpectedTicks(STUCK, 7), 0);
+    }
+
+    /**
+     * A single stage follows an exponential distribution.
+     */
+    @Test
+    public void singleStageIsExponential(){
+        double ticks = 1000;
+        double expected = 1 - Math.exp(-PLANT.getGrowthRate() * ticks);
+
+        assertEquals(expected, GrowthForecast.getProbabilityWithin(PLANT, 1, ticks), 1e-12D);
+        assertEquals(0, GrowthForecast.getProbabilityWithin(STUCK, 1, ticks), 0);
+        assertEquals(1, GrowthForecast.getProbabilityWithin(STUCK, 0, ticks), 0);
+    }
+
+    /**
+     * The probability of being grown only increases with time.
+     */
+    @Test
+    public void probabilityIncreases(){
+        double previous = 0;
+
+        for(int ticks = 0; ticks <= 200_000; ticks += 1000){
+            double probability = GrowthForecast.getProbabilityWithin(PLANT, 7, ticks);
+
+            assertTrue(probability >= previous);
+            previous = probability;
+        }
+    }
+
+    /**
+     * Percentiles invert the cumulative distribution.
+     */
+    @Test
+    public void percentilesInvertProbability(){
+        for(double percentile : new double[]{0.1D, 0.5D, 0.9D, 0.99D}){
+            double ticks = GrowthForecast.getPercentileTicks(PLANT, 7, percentile);
+            assertEquals(percentile, GrowthForecast.getProbabilityWithin(PLANT, 7, ticks), 1e-9D);
+        }
+
+        assertEquals(Double.POSITIVE_INFINITY, GrowthForecast.getPercentileTicks(STUCK, 7, 0.5D), 0);
+    }
+}
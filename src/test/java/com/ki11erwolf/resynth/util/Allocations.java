@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.util;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the heap memory allocated by the current
+ * thread, for allocation regression tests.
+ */
+public final class Allocations {
+
+    /**
+     * The number of times the measured code is run
+     * before measuring, so it's compiled.
+     */
+    private static final int WARM_UP_RUNS = 20_000;
+
+    /**
+     * The HotSpot thread bean, which can report
+     * allocated bytes per thread.
+     */
+    private static final com.sun.management.ThreadMXBean THREADS
+            = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**Private Constructor.*/
+    private Allocations(){}
+
+    /**
+     * Runs the given code the given number of times after
+     * warming it up, and returns the bytes allocated by
+     * the current thread while it ran.
+     *
+     * @param runs the number of times to run the code.
+     * @param code the code to measure.
+     * @return the number of bytes allocated.
+     */
+    public static long measure(int runs, Runnable code){
+        for(int i = 0; i < WARM_UP_RUNS; i++)
+            code.run();
+
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+
+        for(int i = 0; i < runs; i++)
+            code.run();
+
+        return THREADS.getThreadAllocatedBytes(thread) - before;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the chance and distribution functions of {@link MathUtil}.
+ */
+public class MathUtilTest {
+
+    /**
+     * The number of draws used by the statistical tests.
+     */
+    private static final int DRAWS = 200_000;
+
+    /**
+     * Returns the generators to non-deterministic
+     * generators after each test.
+     */
+    @After
+    public void clearSeed(){
+        MathUtil.clearSeed();
+    }
+
+    /**
+     * 0% and 100% thresholds never draw a random number.
+     */
+    @Test
+    public void thresholdChanceEdges(){
+        for(int i = 0; i < 1000; i++){
+            assertFalse(MathUtil.thresholdChance(0));
+            assertFalse(MathUtil.thresholdChance(-1));
+            assertTrue(MathUtil.thresholdChance(MathUtil.CHANCE_THRESHOLD_SCALE));
+        }
+    }
+
+    /**
+     * Percentages convert to fractions of the threshold scale.
+     */
+    @Test
+    public void toChanceThreshold(){
+        assertEquals(0, MathUtil.toChanceThreshold(0.0F));
+        assertEquals(0, MathUtil.toChanceThreshold(-5.0F));
+        assertEquals(MathUtil.CHANCE_THRESHOLD_SCALE, MathUtil.toChanceThreshold(100.0F));
+        assertEquals(MathUtil.CHANCE_THRESHOLD_SCALE, MathUtil.toChanceThreshold(150.0F));
+        assertEquals(MathUtil.CHANCE_THRESHOLD_SCALE / 2, MathUtil.toChanceThreshold(50.0F));
+    }
+
+    /**
+     * A threshold chance succeeds as often as its percentage.
+     */
+    @Test
+    public void thresholdChanceFrequency(){
+        MathUtil.setSeed(1);
+        int threshold = MathUtil.toChanceThreshold(25.0F);
+
+        int successes = 0;
+        for(int i = 0; i < DRAWS; i++){
+            if(MathUtil.thresholdChance(threshold))
+                successes++;
+        }
+
+        assertEquals(0.25D, successes / (double) DRAWS, 0.005D);
+    }
+
+    /**
+     * The number of failures before a success follows
+     * a geometric distribution.
+     */
+    @Test
+    public void failuresBeforeSuccess(){
+        assertEquals(0, MathUtil.getFailuresBeforeSuccess(1.0D));
+        assertEquals(Long.MAX_VALUE, MathUtil.getFailuresBeforeSuccess(0.0D));
+        assertEquals(Long.MAX_VALUE, MathUtil.getFailuresBeforeSuccess(-1.0D));
+
+        MathUtil.setSeed(2);
+        double probability = 0.01D;
+        double sum = 0;
+        for(int i = 0; i < DRAWS; i++)
+            sum += MathUtil.getFailuresBeforeSuccess(probability);
+
+        double expected = (1 - probability) / probability;
+        assertEquals(expected, sum / DRAWS, expected * 0.02D);
+    }
+
+    /**
+     * The number of successes is limited by the number
+     * of trials and the maximum.
+     */
+    @Test
+    public void successesLimits(){
+        assertEquals(0, MathUtil.getSuccesses(0, 0.5D, 10));
+        assertEquals(0, MathUtil.getSuccesses(1000, 0.0D, 10));
+        assertEquals(5, MathUtil.getSuccesses(5, 1.0D, 10));
+        assertEquals(3, MathUtil.getSuccesses(1000, 1.0D, 3));
+        assertEquals(0, MathUtil.getSuccesses(1000, 0.5D, 0));
+    }
+
+    /**
+     * The number of successes follows a binomial distribution.
+     */
+    @Test
+    public void successesMean(){
+        MathUtil.setSeed(3);
+        long trials = 1000;
+        double probability = 0.003D;
+
+        double sum = 0;
+        for(int i = 0; i < DRAWS; i++)
+            sum += MathUtil.getSuccesses(trials, probability, Integer.MAX_VALUE);
+
+        assertEquals(trials * probability, sum / DRAWS, 0.02D);
+    }
+
+    /**
+     * Seeding the generators replays the same sequence.
+     */
+    @Test
+    public void seedReplaysSequence(){
+        MathUtil.setSeed(42);
+        long[] first = new long[16];
+        for(int i = 0; i < first.length; i++)
+            first[i] = MathUtil.getFailuresBeforeSuccess(0.1D);
+
+        MathUtil.setSeed(42);
+        for(long failures : first)
+            assertEquals(failures, MathUtil.getFailuresBeforeSuccess(0.1D));
+    }
+}
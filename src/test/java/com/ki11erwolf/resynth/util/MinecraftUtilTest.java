@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018-2019 Ki11er_wolf
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ki11erwolf.resynth.util;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.registry.Bootstrap;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the merging of dropped item stacks by {@link MinecraftUtil}.
+ */
+public class MinecraftUtilTest {
+
+    /**
+     * Registers the vanilla items.
+     */
+    @BeforeClass
+    public static void bootstrap(){
+        Bootstrap.register();
+    }
+
+    /**
+     * Stacks of the same item fill the existing stack, and
+     * what's left over is added as a new stack.
+     */
+    @Test
+    public void mergeFillsExistingStacks(){
+        List<ItemStack> stacks = new ArrayList<>();
+
+        MinecraftUtil.merge(stacks, new ItemStack(Items.DIRT, 40));
+        MinecraftUtil.merge(stacks, new ItemStack(Items.DIRT, 40));
+
+        assertEquals(2, stacks.size());
+        assertEquals(64, stacks.get(0).getCount());
+        assertEquals(16, stacks.get(1).getCount());
+    }
+
+    /**
+     * Stacks of different items are kept apart.
+     */
+    @Test
+    public void mergeKeepsDifferentItemsApart(){
+        List<ItemStack> stacks = new ArrayList<>();
+
+        MinecraftUtil.merge(stacks, new ItemStack(Items.DIRT, 1));
+        MinecraftUtil.merge(stacks, new ItemStack(Items.STONE, 1));
+
+        assertEquals(2, stacks.size());
+        assertEquals(1, stacks.get(0).getCount());
+        assertEquals(1, stacks.get(1).getCount());
+    }
+
+    /**
+     * Nothing is taken from, or moved into, a stack that's
+     * already over its max stack size.
+     */
+    @Test
+    public void mergeLeavesOversizedStacks(){
+        List<ItemStack> stacks = new ArrayList<>();
+        ItemStack oversized = new ItemStack(Items.DIRT, 100);
+        stacks.add(oversized);
+
+        MinecraftUtil.merge(stacks, new ItemStack(Items.DIRT, 10));
+
+        assertEquals(2, stacks.size());
+        assertSame(oversized, stacks.get(0));
+        assertEquals(100, stacks.get(0).getCount());
+        assertEquals(10, stacks.get(1).getCount());
+    }
+}